@@ -8,6 +8,7 @@ module LDS {
     requires jakarta.persistence;
     requires org.hibernate.orm.core;
     requires java.logging;
+    requires java.sql;
 
     requires static lombok;
 
@@ -0,0 +1,292 @@
+package pl.frot.cli;
+
+import pl.frot.data.DataWriter;
+import pl.frot.data.ExportFormat;
+import pl.frot.data.SummaryExporter;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.LinguisticVariable;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.model.*;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Headless entry point: loads the data, generates single-subject summaries with the same engine as the GUI
+ * and writes them to a file or to standard output. Uses no JavaFX classes, so it runs on servers without a display.
+ * <pre>
+ * java -cp ... pl.frot.cli.BatchRunner --data property.csv --summarizer yearBuilt --summarizer soldPrice --top-k 50 \
+ *     --output summaries.csv.gz
+ * </pre>
+ * Exit codes: 0 success, 1 generation failed, 2 invalid arguments.
+ */
+public class BatchRunner {
+    private static final Logger logger = Logger.getLogger(BatchRunner.class.getName());
+
+    private static final String USAGE = """
+            Usage: BatchRunner [options]
+              --data FILE              property CSV
+              --labels FILE            linguistic variables (JSON)
+              --quantifiers FILE       quantifiers (JSON)
+              --quantifier NAME        quantifier to use, repeatable (default: all)
+              --qualifier LABEL        qualifier, [VARIABLE:]LABEL, repeatable (default: none)
+              --summarizer VARIABLE    variable whose labels are summarizers, [VARIABLE:]LABEL for a single label,
+                                       repeatable (default: all variables)
+              --max-summarizers N      longest conjunction of summarizers (default 3)
+              --parallelism N          worker threads
+              --min-coverage X         skip combinations covering less than X of the objects
+              --mode MODE              IN_MEMORY, SUPPORT_PUSHDOWN, IN_DATABASE or SAMPLED (default IN_MEMORY)
+              --top-k N                generate only the N best summaries, also the K of --over-budget
+              --rank-by MEASURE        T1 or T*, measure of --top-k (default T*)
+              --summary-budget N       most summaries generated exhaustively
+              --over-budget STRATEGY   STREAMING, TOP_K or SAMPLED
+              --output FILE            export file, .gz compressed (default: standard output)
+              --format FORMAT          CSV or JSON_LINES (default CSV)
+            """;
+
+    private static final Set<String> OPTIONS = Set.of("data", "labels", "quantifiers", "quantifier", "qualifier",
+            "summarizer", "max-summarizers", "parallelism", "min-coverage", "mode", "top-k", "rank-by", "summary-budget",
+            "over-budget", "output", "format");
+
+    public static void main(String[] args) {
+        System.exit(execute(args, System.out, System.err));
+    }
+
+    /**
+     * @return exit code
+     */
+    static int execute(String[] args, PrintStream out, PrintStream err) {
+        try {
+            return run(parse(args), out, err);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.print(USAGE);
+            return 2;
+        }
+    }
+
+    /**
+     * @return exit code
+     */
+    static int run(Map<String, List<String>> options, PrintStream out, PrintStream err) {
+        long start = System.nanoTime();
+        SummaryMachine machine = new SummaryMachine();
+        single(options, "data").map(Path::of).ifPresent(machine::setPropertiesPath);
+        single(options, "labels").map(Path::of).ifPresent(machine::setSummarizersPath);
+        single(options, "quantifiers").map(Path::of).ifPresent(machine::setQuantifiersPath);
+        configure(machine.getGenerationOptions(), options);
+        single(options, "mode").map(mode -> value(EvaluationMode.class, mode)).ifPresent(machine::setEvaluationMode);
+        Optional<Path> output = single(options, "output").map(Path::of);
+        ExportFormat format = value(ExportFormat.class, single(options, "format").orElse("CSV"));
+
+        if (!machine.loadData()) {
+            err.println("Failed to load data");
+            return 1;
+        }
+        long loaded = System.nanoTime();
+
+        List<Quantifier> quantifiers = quantifiers(machine, options.getOrDefault("quantifier", List.of()));
+        List<Label> qualifiers = new ArrayList<>();
+        for (String reference : options.getOrDefault("qualifier", List.of())) {
+            qualifiers.addAll(labels(machine, reference));
+        }
+        List<List<Label>> summarizers = summarizers(machine, options.getOrDefault("summarizer", List.of()));
+
+        SummaryPlan plan = machine.planSingleSubjectSummaries(quantifiers, qualifiers, summarizers);
+        err.println("Plan: " + plan);
+        SummaryJob<SingleSubjectSummary> job = machine.createSingleSubjectSummaryJob(quantifiers, qualifiers, summarizers,
+                false);
+
+        String ranking = machine.getGenerationOptions().getRankingMeasure();
+        try (SummaryExporter exporter = output.isPresent() ? DataWriter.openExporter(output.get(), format) : null) {
+            Consumer<SingleSubjectSummary> sink = exporter != null
+                    ? summary -> exporter.export(summary.toString(), summary.getMeasures())
+                    : summary -> out.printf("%.4f\t%s%n", summary.getMeasure(ranking), summary);
+            SinkSubscriber subscriber = new SinkSubscriber(sink);
+            job.subscribe(subscriber);
+            JobProgress progress = job.start().getCompletion().join();
+            subscriber.await();
+
+            long finished = System.nanoTime();
+            err.printf("Loaded in %d ms, generated %s in %d ms, total %d ms%n",
+                    (loaded - start) / 1_000_000, progress, progress.elapsedNanos() / 1_000_000,
+                    (finished - start) / 1_000_000);
+            if (subscriber.failure != null) {
+                return failed(err, subscriber.failure);
+            }
+            return 0;
+        } catch (Exception e) {
+            return failed(err, e);
+        }
+    }
+
+    private static int failed(PrintStream err, Throwable failure) {
+        logger.warning("Batch generation failed: " + failure);
+        err.println("Generation failed: " + failure.getMessage());
+        return 1;
+    }
+
+    // ==== ARGUMENTS ====
+
+    static Map<String, List<String>> parse(String[] args) {
+        Map<String, List<String>> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || !OPTIONS.contains(args[i].substring(2))) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value of " + args[i]);
+            }
+            options.computeIfAbsent(args[i].substring(2), key -> new ArrayList<>()).add(args[i + 1]);
+        }
+        return options;
+    }
+
+    private static Optional<String> single(Map<String, List<String>> options, String name) {
+        List<String> values = options.getOrDefault(name, List.of());
+        if (values.size() > 1) {
+            throw new IllegalArgumentException("--" + name + " given more than once");
+        }
+        return values.stream().findFirst();
+    }
+
+    private static void configure(GenerationOptions generation, Map<String, List<String>> options) {
+        try {
+            single(options, "max-summarizers").map(Integer::parseInt).ifPresent(generation::setMaxSummarizers);
+            single(options, "parallelism").map(Integer::parseInt).ifPresent(generation::setParallelism);
+            single(options, "min-coverage").map(Double::parseDouble).ifPresent(generation::setMinCoverage);
+            single(options, "top-k").map(Integer::parseInt).ifPresent(topK -> {
+                generation.setTopK(topK);
+                generation.setStrategy(GenerationStrategy.TOP_K);
+            });
+            single(options, "rank-by").ifPresent(measure -> {
+                if (!TopKSummarizer.MEASURES.contains(measure)) {
+                    throw new IllegalArgumentException("Unknown ranking measure: " + measure);
+                }
+                generation.setRankingMeasure(measure);
+            });
+            single(options, "summary-budget").map(Long::parseLong).ifPresent(generation::setSummaryBudget);
+            single(options, "over-budget").map(strategy -> value(GenerationStrategy.class, strategy))
+                    .ifPresent(generation::setOverBudgetStrategy);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+        }
+    }
+
+    private static <E extends Enum<E>> E value(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown %s: %s, expected one of %s".formatted(
+                    type.getSimpleName(), name, Arrays.toString(type.getEnumConstants())));
+        }
+    }
+
+    private static List<Quantifier> quantifiers(SummaryMachine machine, List<String> names) {
+        if (names.isEmpty()) {
+            return machine.getQuantifiers();
+        }
+        List<Quantifier> quantifiers = new ArrayList<>();
+        for (String name : names) {
+            quantifiers.add(machine.getQuantifiers().stream()
+                    .filter(quantifier -> quantifier.name().equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown quantifier: " + name)));
+        }
+        return quantifiers;
+    }
+
+    /**
+     * One list per variable, as the GUI does; a single label forms its own list.
+     */
+    private static List<List<Label>> summarizers(SummaryMachine machine, List<String> references) {
+        List<List<Label>> summarizers = new ArrayList<>();
+        if (references.isEmpty()) {
+            for (LinguisticVariable variable : machine.getLinguisticVariables()) {
+                summarizers.add(variable.labels());
+            }
+            return summarizers;
+        }
+        for (String reference : references) {
+            Optional<LinguisticVariable> variable = machine.getLinguisticVariables().stream()
+                    .filter(v -> v.name().equals(reference))
+                    .findFirst();
+            summarizers.add(variable.isPresent() ? variable.get().labels() : labels(machine, reference));
+        }
+        return summarizers;
+    }
+
+    /**
+     * Labels named by {@code [VARIABLE:]LABEL}; without the variable every label of that name matches.
+     */
+    private static List<Label> labels(SummaryMachine machine, String reference) {
+        int separator = reference.indexOf(':');
+        String variableName = separator < 0 ? null : reference.substring(0, separator);
+        String labelName = reference.substring(separator + 1);
+
+        List<Label> labels = new ArrayList<>();
+        for (LinguisticVariable variable : machine.getLinguisticVariables()) {
+            if (variableName != null && !variable.name().equals(variableName)) {
+                continue;
+            }
+            for (Label label : variable.labels()) {
+                if (label.getName().equals(labelName)) {
+                    labels.add(label);
+                }
+            }
+        }
+        if (labels.isEmpty()) {
+            throw new IllegalArgumentException("Unknown label: " + reference);
+        }
+        return labels;
+    }
+
+    /**
+     * Hands every published summary to the sink on the delivery thread and lets the caller wait for the last one.
+     */
+    private static class SinkSubscriber implements Flow.Subscriber<SingleSubjectSummary> {
+        private final Consumer<SingleSubjectSummary> sink;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable failure;
+
+        SinkSubscriber(Consumer<SingleSubjectSummary> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(SingleSubjectSummary summary) {
+            try {
+                sink.accept(summary);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            failure = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            done.await();
+        }
+    }
+}
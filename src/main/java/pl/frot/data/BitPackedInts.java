@@ -0,0 +1,103 @@
+package pl.frot.data;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of non-negative ints packed with a fixed bit width into {@code long} words.
+ * The width grows automatically when a larger value is appended.
+ */
+public class BitPackedInts {
+    private long[] words;
+    private int bitWidth;
+    private long mask;
+    private int size;
+
+    public BitPackedInts(int bitWidth, int initialCapacity) {
+        setBitWidth(Math.max(bitWidth, 1));
+        this.words = new long[wordsFor(Math.max(initialCapacity, 1), this.bitWidth)];
+    }
+
+    public static int bitsFor(int maxValue) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getBitWidth() {
+        return bitWidth;
+    }
+
+    public int get(int index) {
+        long bitIndex = (long) index * bitWidth;
+        int word = (int) (bitIndex >>> 6);
+        int offset = (int) (bitIndex & 63);
+
+        long value = words[word] >>> offset;
+        if (offset + bitWidth > 64) {
+            value |= words[word + 1] << (64 - offset);
+        }
+        return (int) (value & mask);
+    }
+
+    public void append(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Only non-negative values can be packed, got: " + value);
+        }
+        if (value > mask) {
+            widen(bitsFor(value));
+        }
+        ensureCapacity(size + 1);
+        set(size++, value);
+    }
+
+    public void trimToSize() {
+        words = Arrays.copyOf(words, wordsFor(size, bitWidth));
+    }
+
+    public long memoryBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+
+    private void set(int index, int value) {
+        long bitIndex = (long) index * bitWidth;
+        int word = (int) (bitIndex >>> 6);
+        int offset = (int) (bitIndex & 63);
+
+        words[word] = (words[word] & ~(mask << offset)) | ((long) value << offset);
+        if (offset + bitWidth > 64) {
+            int spill = 64 - offset;
+            words[word + 1] = (words[word + 1] & ~(mask >>> spill)) | ((long) value >>> spill);
+        }
+    }
+
+    private void widen(int newBitWidth) {
+        BitPackedInts widened = new BitPackedInts(newBitWidth, Math.max(size, 1) * 2);
+        for (int i = 0; i < size; i++) {
+            widened.append(get(i));
+        }
+        this.words = widened.words;
+        setBitWidth(newBitWidth);
+    }
+
+    private void ensureCapacity(int required) {
+        int neededWords = wordsFor(required, bitWidth);
+        if (neededWords > words.length) {
+            words = Arrays.copyOf(words, Math.max(neededWords, words.length * 2));
+        }
+    }
+
+    private void setBitWidth(int bitWidth) {
+        if (bitWidth > 32) {
+            throw new IllegalArgumentException("Bit width must be <= 32, got: " + bitWidth);
+        }
+        this.bitWidth = bitWidth;
+        this.mask = (1L << bitWidth) - 1;
+    }
+
+    private static int wordsFor(int count, int bitWidth) {
+        // one spare word so reads and writes spilling past the last value stay in bounds
+        return (int) (((long) count * bitWidth + 63) >>> 6) + 1;
+    }
+}
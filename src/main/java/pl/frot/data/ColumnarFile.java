@@ -0,0 +1,246 @@
+package pl.frot.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.logging.Logger;
+
+/**
+ * On-disk columnar copy of the numeric attributes, read through memory mapping so datasets larger than the heap
+ * can be summarized chunk by chunk.
+ * <p>
+ * Layout: a header (magic, attribute count, chunk size, row count) followed by chunks of {@code chunkRows} rows;
+ * inside a chunk every attribute is one contiguous little-endian {@code double} block, in
+ * {@link PropertyColumns#NUMERIC_ATTRIBUTES} order. Only the last chunk may be shorter.
+ */
+public class ColumnarFile implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(ColumnarFile.class.getName());
+
+    private static final int MAGIC = 0x4C445343; // "LDSC"
+    private static final int HEADER_BYTES = 24;
+    private static final int ROWS_OFFSET = 16;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int attributes;
+    private final int chunkRows;
+    private final long rows;
+
+    private ColumnarFile(Path path, FileChannel channel, int attributes, int chunkRows, long rows) {
+        this.path = path;
+        this.channel = channel;
+        this.attributes = attributes;
+        this.chunkRows = chunkRows;
+        this.rows = rows;
+    }
+
+    public static ColumnarFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException("Not a columnar property file: " + path);
+        }
+        int attributes = header.getInt();
+        int chunkRows = header.getInt();
+        header.getInt();
+        long rows = header.getLong();
+        if (attributes != PropertyColumns.NUMERIC_ATTRIBUTES.size()) {
+            channel.close();
+            throw new IOException("Expected " + PropertyColumns.NUMERIC_ATTRIBUTES.size() + " attributes, file has: " + attributes);
+        }
+        return new ColumnarFile(path, channel, attributes, chunkRows, rows);
+    }
+
+    public static Writer create(Path path, int chunkRows) throws IOException {
+        return new Writer(path, chunkRows);
+    }
+
+    /**
+     * Writes the numeric columns of an in-memory dataset.
+     */
+    public static void write(PropertyColumns columns, Path path, int chunkRows) throws IOException {
+        double[] values = new double[PropertyColumns.NUMERIC_ATTRIBUTES.size()];
+        try (Writer writer = create(path, chunkRows)) {
+            for (int row = 0; row < columns.size(); row++) {
+                for (int attribute = 0; attribute < values.length; attribute++) {
+                    values[attribute] = columns.value(attribute, row);
+                }
+                writer.append(values);
+            }
+        }
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public int chunkRows() {
+        return chunkRows;
+    }
+
+    public int chunkCount() {
+        return (int) ((rows + chunkRows - 1) / chunkRows);
+    }
+
+    public int rowsInChunk(int chunk) {
+        return (int) Math.min(chunkRows, rows - (long) chunk * chunkRows);
+    }
+
+    /**
+     * Copies one attribute of one chunk into {@code target}.
+     *
+     * @return number of rows in the chunk
+     */
+    public int readChunk(int chunk, int attributeId, double[] target) throws IOException {
+        int chunkSize = rowsInChunk(chunk);
+        block(chunk, attributeId).get(target, 0, chunkSize);
+        return chunkSize;
+    }
+
+    /**
+     * One attribute as a read-only list over the mapped chunks, e.g. the universe of a label. Rows are paged in
+     * only when read, and the mapping stays valid after the file is closed.
+     */
+    public List<Double> column(int attributeId) throws IOException {
+        if (rows > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Too many rows for a list: " + rows);
+        }
+        DoubleBuffer[] blocks = new DoubleBuffer[chunkCount()];
+        for (int chunk = 0; chunk < blocks.length; chunk++) {
+            blocks[chunk] = block(chunk, attributeId);
+        }
+        return new MappedColumn(blocks, chunkRows, (int) rows);
+    }
+
+    private DoubleBuffer block(int chunk, int attributeId) throws IOException {
+        int chunkSize = rowsInChunk(chunk);
+        long offset = chunkOffset(chunk) + (long) attributeId * chunkSize * Double.BYTES;
+        MappedByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) chunkSize * Double.BYTES);
+        return block.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+    }
+
+    private long chunkOffset(int chunk) {
+        return HEADER_BYTES + (long) chunk * chunkRows * attributes * Double.BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return path + " (" + rows + " rows, " + chunkCount() + " chunks)";
+    }
+
+    private static class MappedColumn extends AbstractList<Double> implements RandomAccess {
+        private final DoubleBuffer[] blocks;
+        private final int chunkRows;
+        private final int size;
+
+        MappedColumn(DoubleBuffer[] blocks, int chunkRows, int size) {
+            this.blocks = blocks;
+            this.chunkRows = chunkRows;
+            this.size = size;
+        }
+
+        @Override
+        public Double get(int index) {
+            Objects.checkIndex(index, size);
+            return blocks[index / chunkRows].get(index % chunkRows);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Appends rows chunk by chunk; only one chunk is buffered on the heap.
+     */
+    public static class Writer implements AutoCloseable {
+        private final Path path;
+        private final FileChannel channel;
+        private final int chunkRows;
+        private final double[][] chunk;
+        private int buffered = 0;
+        private long rows = 0;
+
+        private Writer(Path path, int chunkRows) throws IOException {
+            if (chunkRows < 1) {
+                throw new IllegalArgumentException("Chunk size must be positive");
+            }
+            this.path = path;
+            this.chunkRows = chunkRows;
+            this.chunk = new double[PropertyColumns.NUMERIC_ATTRIBUTES.size()][chunkRows];
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC)
+                    .putInt(chunk.length)
+                    .putInt(chunkRows)
+                    .putInt(0)
+                    .putLong(0);
+            header.flip();
+            channel.write(header);
+        }
+
+        /**
+         * @param values numeric attributes in {@link PropertyColumns#NUMERIC_ATTRIBUTES} order
+         */
+        public void append(double[] values) throws IOException {
+            if (values.length != chunk.length) {
+                throw new IllegalArgumentException("Expected " + chunk.length + " numeric values, got: " + values.length);
+            }
+            for (int attribute = 0; attribute < chunk.length; attribute++) {
+                chunk[attribute][buffered] = values[attribute];
+            }
+            buffered++;
+            rows++;
+            if (buffered == chunkRows) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            ByteBuffer block = ByteBuffer.allocate(buffered * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (double[] column : chunk) {
+                block.clear();
+                block.asDoubleBuffer().put(column, 0, buffered);
+                block.limit(buffered * Double.BYTES);
+                while (block.hasRemaining()) {
+                    channel.write(block);
+                }
+            }
+            buffered = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                if (buffered > 0) {
+                    flush();
+                }
+                ByteBuffer count = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(rows);
+                count.flip();
+                channel.write(count, ROWS_OFFSET);
+            }
+            logger.info("Written " + rows + " rows to columnar file: " + path);
+        }
+    }
+}
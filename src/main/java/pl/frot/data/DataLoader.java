@@ -4,15 +4,24 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.opencsv.bean.CsvToBeanBuilder;
 import jakarta.persistence.EntityManager;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
 
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class DataLoader {
 
+    private static final int FETCH_SIZE = 1000;
+
     private DataLoader() {}
 
     // ==== FILE READING ====
@@ -24,21 +33,55 @@ public class DataLoader {
                 .parse();
 
         return properties.stream()
-                .filter(p -> p.getYearBuilt() != null && p.getYearBuilt() < 2021 && p.getYearBuilt() > 1852)
-                .filter(p -> p.getLot() != null && p.getLot() > 433 && p.getLot() < 1E6)
-                .filter(p -> p.getTotalInteriorLivableArea() != null && p.getTotalInteriorLivableArea() > 300)
-                .filter(p -> p.getElementarySchoolDistance() != null && p.getElementarySchoolDistance() > 0)
-                .filter(p -> p.getMiddleSchoolDistance() != null && p.getMiddleSchoolDistance() > 0)
-                .filter(p -> p.getHighSchoolDistance() != null && p.getHighSchoolDistance() > 0)
-                .filter(p -> p.getTaxAssessedValue() != null && p.getTaxAssessedValue() > 14000)
-                .filter(p -> p.getAnnualTaxAmount() != null && p.getAnnualTaxAmount() > 0)
-                .filter(p -> p.getListedPrice() != null && p.getListedPrice() > 0)
-                .filter(p -> p.getLastSoldPrice() != null && p.getLastSoldPrice() > 0)
-                .filter(p -> p.getSoldPrice() != null && p.getSoldPrice() > 0)
-                .filter(p -> p.getZip() != null && p.getZip().length() == 5 && p.getZip().startsWith("9"))
+                .filter(DataLoader::isValid)
                 .toList();
     }
 
+    /**
+     * Quality filter applied to every property read from a CSV file.
+     */
+    public static boolean isValid(Property p) {
+        return p.getYearBuilt() != null && p.getYearBuilt() < 2021 && p.getYearBuilt() > 1852
+                && p.getLot() != null && p.getLot() > 433 && p.getLot() < 1E6
+                && p.getTotalInteriorLivableArea() != null && p.getTotalInteriorLivableArea() > 300
+                && p.getElementarySchoolDistance() != null && p.getElementarySchoolDistance() > 0
+                && p.getMiddleSchoolDistance() != null && p.getMiddleSchoolDistance() > 0
+                && p.getHighSchoolDistance() != null && p.getHighSchoolDistance() > 0
+                && p.getTaxAssessedValue() != null && p.getTaxAssessedValue() > 14000
+                && p.getAnnualTaxAmount() != null && p.getAnnualTaxAmount() > 0
+                && p.getListedPrice() != null && p.getListedPrice() > 0
+                && p.getLastSoldPrice() != null && p.getLastSoldPrice() > 0
+                && p.getSoldPrice() != null && p.getSoldPrice() > 0
+                && p.getZip() != null && p.getZip().length() == 5 && p.getZip().startsWith("9");
+    }
+
+    /**
+     * Streams a CSV file of any size into a {@link ColumnarFile}; only one chunk of rows is kept in memory.
+     *
+     * @return number of rows written
+     */
+    public static long convertToColumnar(String csvPath, Path target, int chunkRows) throws IOException {
+        double[] values = new double[PropertyColumns.NUMERIC_ATTRIBUTES.size()];
+        try (FileReader reader = new FileReader(csvPath);
+             ColumnarFile.Writer writer = ColumnarFile.create(target, chunkRows)) {
+            Iterator<Property> properties = new CsvToBeanBuilder<Property>(reader)
+                    .withType(Property.class)
+                    .build()
+                    .iterator();
+
+            long rows = 0;
+            while (properties.hasNext()) {
+                Property property = properties.next();
+                if (isValid(property)) {
+                    PropertyColumns.numericValues(property, values);
+                    writer.append(values);
+                    rows++;
+                }
+            }
+            return rows;
+        }
+    }
+
     public static List<TermDao> loadTerms(String path) throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         return mapper.readValue(
@@ -47,8 +90,83 @@ public class DataLoader {
         );
     }
 
+    // ==== DB READING ====
+
+    public static PropertyColumns loadPropertyColumns() {
+        return loadPropertyColumns(0, null, Map.of());
+    }
+
+    /**
+     * Streams properties from the database straight into primitive columns.
+     * Uses a read-only, forward-only cursor over a scalar projection, so no entities are hydrated.
+     *
+     * @param limit      maximum number of rows to read, 0 or less for no limit
+     * @param predicate  optional JPQL condition over alias {@code p}, e.g. {@code "p.city = :city"}
+     * @param parameters named parameters used by the predicate
+     */
+    public static PropertyColumns loadPropertyColumns(int limit, String predicate, Map<String, Object> parameters) {
+        PropertyColumns columns = new PropertyColumns();
+        double[] values = new double[PropertyColumns.NUMERIC_ATTRIBUTES.size()];
+
+        try (EntityManager em = HibernateUtil.getEntityManagerFactory().createEntityManager()) {
+            Session session = em.unwrap(Session.class);
+            SelectionQuery<Object[]> query = session.createSelectionQuery(projectionQuery(predicate), Object[].class)
+                    .setReadOnly(true)
+                    .setFetchSize(FETCH_SIZE);
+            parameters.forEach(query::setParameter);
+            if (limit > 0) {
+                query.setMaxResults(limit);
+            }
+
+            try (ScrollableResults<Object[]> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    Object[] row = results.get();
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = row[i + 4] instanceof Number number ? number.doubleValue() : Double.NaN;
+                    }
+                    columns.addRow(((Number) row[0]).longValue(), (String) row[1], (String) row[2], (String) row[3], values);
+                }
+            }
+        }
+
+        columns.encode();
+        return columns;
+    }
+
+    /**
+     * Counts properties matching the optional JPQL {@code predicate} without fetching any row.
+     */
+    public static long countProperties(String predicate, Map<String, Object> parameters) {
+        String query = "select count(p) from Property p";
+        if (predicate != null && !predicate.isBlank()) {
+            query += " where " + predicate;
+        }
+
+        try (EntityManager em = HibernateUtil.getEntityManagerFactory().createEntityManager()) {
+            SelectionQuery<Long> countQuery = em.unwrap(Session.class).createSelectionQuery(query, Long.class);
+            parameters.forEach(countQuery::setParameter);
+            return countQuery.getSingleResult();
+        }
+    }
+
+    private static String projectionQuery(String predicate) {
+        String numericColumns = PropertyColumns.NUMERIC_ATTRIBUTES.stream()
+                .map(attribute -> "p." + attribute)
+                .collect(Collectors.joining(", "));
+
+        String query = "select p.id, p.type, p.city, p.zip, " + numericColumns + " from Property p";
+        if (predicate != null && !predicate.isBlank()) {
+            query += " where " + predicate;
+        }
+        return query + " order by p.id";
+    }
+
     // ==== DB WRITING ====
 
+    /**
+     * Persists the properties and then creates the attribute indexes; the schema is only validated,
+     * so the indexes are not part of the mapping.
+     */
     public static void saveToDB(List<Property> properties) {
         try (EntityManager em = HibernateUtil.getEntityManagerFactory().createEntityManager()) {
             em.getTransaction().begin();
@@ -57,6 +175,24 @@ public class DataLoader {
                 em.persist(property);
             }
 
+            em.getTransaction().commit();
+        }
+        createAttributeIndexes();
+    }
+
+    /**
+     * Creates the single-column indexes used by range predicates on numeric attributes (no-op if present).
+     */
+    public static void createAttributeIndexes() {
+        try (EntityManager em = HibernateUtil.getEntityManagerFactory().createEntityManager()) {
+            em.getTransaction().begin();
+
+            for (String attribute : PropertyColumns.NUMERIC_ATTRIBUTES) {
+                em.createNativeQuery("CREATE INDEX IF NOT EXISTS idx_properties_%s ON properties(%s)"
+                                .formatted(attribute, attribute))
+                        .executeUpdate();
+            }
+
             em.getTransaction().commit();
         }
     }
@@ -4,22 +4,51 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 public class DataWriter {
     private static final Logger logger = Logger.getLogger(DataWriter.class.getName());
 
-    private static final String PATH = "src/main/resources/summaries.txt";
-
     private DataWriter() {}
 
-    public static void saveToFile(List<String> strings) {
+    public static void saveToFile(Path path, List<String> strings) {
         try {
-            Files.write(Path.of(PATH), strings);
-            logger.info("Data saved to file: " + PATH);
+            Files.write(path, strings);
+            logger.info("Data saved to file: " + path);
         } catch (IOException e) {
             logger.warning("Failed to write to file: " + e.getMessage());
         }
+    }
+
+    /**
+     * Opens a streaming export sink writing on a background thread; close it to flush the file.
+     */
+    public static SummaryExporter openExporter(Path path, ExportFormat format) throws IOException {
+        return new SummaryExporter(path, format);
+    }
 
+    /**
+     * Exports on a virtual thread, so e.g. the JavaFX thread does not wait for the disk.
+     *
+     * @param rows hands the summaries to the exporter, called on the export thread
+     * @return completes with the number of exported summaries, exceptionally if the export failed
+     */
+    public static CompletableFuture<Long> exportAsync(Path path, ExportFormat format, Consumer<SummaryExporter> rows) {
+        CompletableFuture<Long> exported = new CompletableFuture<>();
+        Thread.ofVirtual().name("summary-export").start(() -> {
+            try {
+                SummaryExporter exporter = openExporter(path, format);
+                try (exporter) {
+                    rows.accept(exporter);
+                }
+                exported.complete(exporter.getExported());
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Failed to export summaries to " + path + ": " + e.getMessage());
+                exported.completeExceptionally(e);
+            }
+        });
+        return exported;
     }
 }
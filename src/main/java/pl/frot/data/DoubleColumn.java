@@ -0,0 +1,57 @@
+package pl.frot.data;
+
+import java.util.Arrays;
+
+/**
+ * Plain, uncompressed {@code double[]} column.
+ */
+public class DoubleColumn implements NumericColumn {
+    private double[] values;
+    private int size;
+
+    public DoubleColumn(int initialCapacity) {
+        this.values = new double[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * Wraps an already computed array without copying.
+     */
+    public DoubleColumn(double[] values) {
+        this.values = values;
+        this.size = values.length;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double get(int row) {
+        return values[row];
+    }
+
+    @Override
+    public NumericColumn append(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, 1));
+        }
+        values[size++] = value;
+        return this;
+    }
+
+    @Override
+    public void trimToSize() {
+        values = Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) values.length * Double.BYTES;
+    }
+
+    @Override
+    public String encoding() {
+        return "plain";
+    }
+}
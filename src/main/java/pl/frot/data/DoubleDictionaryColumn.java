@@ -0,0 +1,101 @@
+package pl.frot.data;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for numeric columns with few distinct values: bit-packed codes into a table of values.
+ */
+public class DoubleDictionaryColumn implements NumericColumn {
+    public static final int MAX_DICTIONARY_SIZE = 1 << 12;
+
+    private double[] values;
+    private final Map<Double, Integer> codes = new HashMap<>();
+    private final BitPackedInts rows;
+
+    private DoubleDictionaryColumn(int capacity) {
+        this.values = new double[16];
+        this.rows = new BitPackedInts(1, capacity);
+    }
+
+    /**
+     * @return dictionary-encoded copy of the column, or {@code null} if it has more than {@code maxDistinct} values
+     */
+    public static DoubleDictionaryColumn tryEncode(NumericColumn column, int maxDistinct) {
+        int limit = Math.min(maxDistinct, MAX_DICTIONARY_SIZE);
+        DoubleDictionaryColumn encoded = new DoubleDictionaryColumn(column.size());
+        for (int row = 0; row < column.size(); row++) {
+            if (!encoded.add(column.get(row), limit)) {
+                return null;
+            }
+        }
+        return encoded;
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public double get(int row) {
+        return values[rows.get(row)];
+    }
+
+    @Override
+    public NumericColumn append(double value) {
+        if (add(value, MAX_DICTIONARY_SIZE)) {
+            return this;
+        }
+
+        DoubleColumn decoded = new DoubleColumn(size() * 2);
+        for (int row = 0; row < size(); row++) {
+            decoded.append(get(row));
+        }
+        return decoded.append(value);
+    }
+
+    @Override
+    public void trimToSize() {
+        values = Arrays.copyOf(values, codes.size());
+        rows.trimToSize();
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) values.length * Double.BYTES + rows.memoryBytes();
+    }
+
+    @Override
+    public String encoding() {
+        return "dictionary " + codes.size() + " values";
+    }
+
+    @Override
+    public double[] dictionary() {
+        return Arrays.copyOf(values, codes.size());
+    }
+
+    @Override
+    public int code(int row) {
+        return rows.get(row);
+    }
+
+    private boolean add(double value, int limit) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            if (codes.size() >= limit) {
+                return false;
+            }
+            code = codes.size();
+            codes.put(value, code);
+            if (code == values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, 1));
+            }
+            values[code] = value;
+        }
+        rows.append(code);
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package pl.frot.data;
+
+import java.nio.file.Path;
+
+public enum ExportFormat {
+    CSV,
+    JSON_LINES;
+
+    /**
+     * JSON lines for {@code .jsonl} files, optionally gzipped, CSV otherwise.
+     */
+    public static ExportFormat of(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".jsonl") || name.endsWith(".jsonl.gz") ? JSON_LINES : CSV;
+    }
+}
@@ -0,0 +1,271 @@
+package pl.frot.data;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Arithmetic expression over numeric attributes, e.g. {@code soldPrice / listedPrice} or {@code 2020 - yearBuilt}.
+ * Supports {@code + - * /}, unary minus, parentheses, numeric literals and attribute names.
+ * <p>
+ * Evaluation is vectorized: every node produces a whole column at once, so a derived attribute costs a few tight
+ * loops over primitive arrays instead of a lambda call per row. Missing values (NaN) propagate; results that are
+ * not finite, e.g. after a division by zero, are missing values as well.
+ */
+public class Expression {
+    private final String text;
+    private final Node root;
+
+    private Expression(String text, Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /**
+     * @param attributeIds resolves an attribute name to its column id, -1 if unknown
+     */
+    public static Expression parse(String text, ToIntFunction<String> attributeIds) {
+        Parser parser = new Parser(text, attributeIds);
+        Node root = parser.parseSum();
+        parser.skipWhitespace();
+        if (parser.position < text.length()) {
+            throw new IllegalArgumentException("Unexpected '" + text.charAt(parser.position) + "' at "
+                    + parser.position + " in expression: " + text);
+        }
+        return new Expression(text, root);
+    }
+
+    /**
+     * Evaluates the expression for every row of the columns.
+     */
+    public double[] evaluate(PropertyColumns columns) {
+        double[] result = root.evaluate(columns, columns.size());
+        for (int row = 0; row < result.length; row++) {
+            result[row] = finiteOrNaN(result[row]);
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the expression for a single row given the values of all attributes, indexed by column id.
+     */
+    public double evaluate(double[] values) {
+        return finiteOrNaN(root.evaluate(values));
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * ±Infinity (division by zero, overflow) becomes NaN, so it is treated as a missing value downstream.
+     */
+    private static double finiteOrNaN(double value) {
+        return Double.isFinite(value) ? value : Double.NaN;
+    }
+
+    // ==== NODES ====
+
+    private interface Node {
+        double[] evaluate(PropertyColumns columns, int rows);
+
+        double evaluate(double[] values);
+    }
+
+    private record Constant(double value) implements Node {
+        @Override
+        public double[] evaluate(PropertyColumns columns, int rows) {
+            double[] result = new double[rows];
+            java.util.Arrays.fill(result, value);
+            return result;
+        }
+
+        @Override
+        public double evaluate(double[] values) {
+            return value;
+        }
+    }
+
+    private record Attribute(int attributeId) implements Node {
+        @Override
+        public double[] evaluate(PropertyColumns columns, int rows) {
+            NumericColumn column = columns.column(attributeId);
+            double[] result = new double[rows];
+            for (int row = 0; row < rows; row++) {
+                result[row] = column.get(row);
+            }
+            return result;
+        }
+
+        @Override
+        public double evaluate(double[] values) {
+            return values[attributeId];
+        }
+    }
+
+    private record Negation(Node operand) implements Node {
+        @Override
+        public double[] evaluate(PropertyColumns columns, int rows) {
+            double[] result = operand.evaluate(columns, rows);
+            for (int row = 0; row < rows; row++) {
+                result[row] = -result[row];
+            }
+            return result;
+        }
+
+        @Override
+        public double evaluate(double[] values) {
+            return -operand.evaluate(values);
+        }
+    }
+
+    private record Binary(char operator, Node left, Node right) implements Node {
+        @Override
+        public double[] evaluate(PropertyColumns columns, int rows) {
+            double[] result = left.evaluate(columns, rows);
+            double[] other = right.evaluate(columns, rows);
+            // one branch-free loop per operator so the JIT can vectorize it
+            switch (operator) {
+                case '+' -> {
+                    for (int row = 0; row < rows; row++) result[row] += other[row];
+                }
+                case '-' -> {
+                    for (int row = 0; row < rows; row++) result[row] -= other[row];
+                }
+                case '*' -> {
+                    for (int row = 0; row < rows; row++) result[row] *= other[row];
+                }
+                default -> {
+                    // mapped right away, so e.g. 1 / (x / 0) stays missing instead of becoming 0
+                    for (int row = 0; row < rows; row++) result[row] = finiteOrNaN(result[row] / other[row]);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public double evaluate(double[] values) {
+            double a = left.evaluate(values);
+            double b = right.evaluate(values);
+            return switch (operator) {
+                case '+' -> a + b;
+                case '-' -> a - b;
+                case '*' -> a * b;
+                default -> finiteOrNaN(a / b);
+            };
+        }
+    }
+
+    // ==== PARSER ====
+
+    /**
+     * Recursive descent: sum := product (('+' | '-') product)*, product := unary (('*' | '/') unary)*,
+     * unary := '-' unary | number | attribute | '(' sum ')'.
+     */
+    private static class Parser {
+        private final String text;
+        private final ToIntFunction<String> attributeIds;
+        private int position = 0;
+
+        Parser(String text, ToIntFunction<String> attributeIds) {
+            this.text = text;
+            this.attributeIds = attributeIds;
+        }
+
+        Node parseSum() {
+            Node node = parseProduct();
+            while (true) {
+                skipWhitespace();
+                if (accept('+')) {
+                    node = new Binary('+', node, parseProduct());
+                } else if (accept('-')) {
+                    node = new Binary('-', node, parseProduct());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        Node parseProduct() {
+            Node node = parseUnary();
+            while (true) {
+                skipWhitespace();
+                if (accept('*')) {
+                    node = new Binary('*', node, parseUnary());
+                } else if (accept('/')) {
+                    node = new Binary('/', node, parseUnary());
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        Node parseUnary() {
+            skipWhitespace();
+            if (accept('-')) {
+                return new Negation(parseUnary());
+            }
+            if (accept('(')) {
+                Node node = parseSum();
+                skipWhitespace();
+                if (!accept(')')) {
+                    throw error("Expected ')'");
+                }
+                return node;
+            }
+            if (position < text.length() && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+                return parseNumber();
+            }
+            if (position < text.length() && Character.isJavaIdentifierStart(text.charAt(position))) {
+                return parseAttribute();
+            }
+            throw error("Expected number, attribute or '('");
+        }
+
+        private Node parseNumber() {
+            int start = position;
+            while (position < text.length()
+                    && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.'
+                    || text.charAt(position) == 'E' || text.charAt(position) == 'e'
+                    || ((text.charAt(position) == '-' || text.charAt(position) == '+')
+                    && (text.charAt(position - 1) == 'E' || text.charAt(position - 1) == 'e')))) {
+                position++;
+            }
+            try {
+                return new Constant(Double.parseDouble(text.substring(start, position)));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number '" + text.substring(start, position) + "'");
+            }
+        }
+
+        private Node parseAttribute() {
+            int start = position;
+            while (position < text.length() && Character.isJavaIdentifierPart(text.charAt(position))) {
+                position++;
+            }
+            String name = text.substring(start, position);
+            int attributeId = attributeIds.applyAsInt(name);
+            if (attributeId < 0) {
+                throw new IllegalArgumentException("Unknown attribute '" + name + "' in expression: " + text);
+            }
+            return new Attribute(attributeId);
+        }
+
+        private boolean accept(char c) {
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + position + " in expression: " + text);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package pl.frot.data;
+
+import pl.frot.fuzzy.base.GaussianFunction;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.base.TriangularFunction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Membership functions exposed to H2 as Java user-defined functions, e.g. {@code TRAP(lot, 435, 435, 1800, 2000)}.
+ * They delegate to the shapes from {@code pl.frot.fuzzy.base}, so SQL and in-memory evaluation agree exactly.
+ * NULL attribute values have membership 0.
+ */
+public class H2MembershipFunctions {
+
+    private H2MembershipFunctions() {}
+
+    public static void register(Connection connection) throws SQLException {
+        String className = H2MembershipFunctions.class.getName();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE ALIAS IF NOT EXISTS TRAP FOR '" + className + ".trapezoidal'");
+            statement.execute("CREATE ALIAS IF NOT EXISTS TRI FOR '" + className + ".triangular'");
+            statement.execute("CREATE ALIAS IF NOT EXISTS GAUSS FOR '" + className + ".gaussian'");
+        }
+    }
+
+    public static double trapezoidal(Double x, double a, double b, double c, double d) {
+        return x == null ? 0.0 : new TrapezoidalFunction(a, b, c, d).apply(x);
+    }
+
+    public static double triangular(Double x, double a, double b, double c) {
+        return x == null ? 0.0 : new TriangularFunction(a, b, c).apply(x);
+    }
+
+    public static double gaussian(Double x, double center, double sigma) {
+        return x == null ? 0.0 : new GaussianFunction(center, sigma).apply(x);
+    }
+}
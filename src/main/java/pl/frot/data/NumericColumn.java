@@ -0,0 +1,35 @@
+package pl.frot.data;
+
+/**
+ * Numeric attribute column of {@link PropertyColumns}. Missing values are {@link Double#NaN}.
+ */
+public interface NumericColumn {
+
+    int size();
+
+    double get(int row);
+
+    /**
+     * Appends a value.
+     * @return this column, or a re-encoded one if the value does not fit the current encoding
+     */
+    NumericColumn append(double value);
+
+    void trimToSize();
+
+    long memoryBytes();
+
+    String encoding();
+
+    /**
+     * Distinct values addressed by {@link #code(int)} for dictionary-like encodings, otherwise {@code null}.
+     * Lets kernels evaluate a function once per entry instead of once per row.
+     */
+    default double[] dictionary() {
+        return null;
+    }
+
+    default int code(int row) {
+        throw new UnsupportedOperationException(encoding() + " column has no dictionary");
+    }
+}
@@ -0,0 +1,132 @@
+package pl.frot.data;
+
+/**
+ * Frame-of-reference encoding for integral columns with a small range (e.g. year built):
+ * every value is stored as a bit-packed offset from the column minimum.
+ */
+public class PackedIntColumn implements NumericColumn {
+    private static final int MAX_RANGE = 1 << 16;
+
+    private long base;
+    private BitPackedInts offsets;
+    private int maxOffset;
+
+    private PackedIntColumn(long base, int maxOffset, int capacity) {
+        this.base = base;
+        this.maxOffset = maxOffset;
+        this.offsets = new BitPackedInts(BitPackedInts.bitsFor(maxOffset), capacity);
+    }
+
+    /**
+     * @return packed copy of the column, or {@code null} if it has non-integral values or a too wide range
+     */
+    public static PackedIntColumn tryEncode(NumericColumn column) {
+        if (column.size() == 0) {
+            return null;
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int row = 0; row < column.size(); row++) {
+            double value = column.get(row);
+            if (!isIntegral(value)) {
+                return null;
+            }
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        if (max - min >= MAX_RANGE) {
+            return null;
+        }
+
+        PackedIntColumn packed = new PackedIntColumn((long) min, (int) (max - min), column.size());
+        for (int row = 0; row < column.size(); row++) {
+            packed.offsets.append((int) ((long) column.get(row) - packed.base));
+        }
+        return packed;
+    }
+
+    @Override
+    public int size() {
+        return offsets.size();
+    }
+
+    @Override
+    public double get(int row) {
+        return base + offsets.get(row);
+    }
+
+    @Override
+    public NumericColumn append(double value) {
+        if (!isIntegral(value)) {
+            return decode().append(value);
+        }
+
+        long longValue = (long) value;
+        long newBase = Math.min(base, longValue);
+        long newMax = Math.max(base + maxOffset, longValue);
+        if (newMax - newBase >= MAX_RANGE) {
+            return decode().append(value);
+        }
+        if (newBase < base) {
+            rebase(newBase);
+        }
+
+        int offset = (int) (longValue - base);
+        maxOffset = Math.max(maxOffset, offset);
+        offsets.append(offset);
+        return this;
+    }
+
+    @Override
+    public void trimToSize() {
+        offsets.trimToSize();
+    }
+
+    @Override
+    public long memoryBytes() {
+        return offsets.memoryBytes();
+    }
+
+    @Override
+    public String encoding() {
+        return "frame-of-reference " + offsets.getBitWidth() + " bit";
+    }
+
+    @Override
+    public double[] dictionary() {
+        double[] values = new double[maxOffset + 1];
+        for (int offset = 0; offset <= maxOffset; offset++) {
+            values[offset] = base + offset;
+        }
+        return values;
+    }
+
+    @Override
+    public int code(int row) {
+        return offsets.get(row);
+    }
+
+    private void rebase(long newBase) {
+        int shift = (int) (base - newBase);
+        BitPackedInts shifted = new BitPackedInts(BitPackedInts.bitsFor(maxOffset + shift), size() * 2);
+        for (int row = 0; row < size(); row++) {
+            shifted.append(offsets.get(row) + shift);
+        }
+        offsets = shifted;
+        maxOffset += shift;
+        base = newBase;
+    }
+
+    private DoubleColumn decode() {
+        DoubleColumn decoded = new DoubleColumn(size() * 2);
+        for (int row = 0; row < size(); row++) {
+            decoded.append(get(row));
+        }
+        return decoded;
+    }
+
+    private static boolean isIntegral(double value) {
+        return !Double.isNaN(value) && !Double.isInfinite(value) && value == Math.rint(value);
+    }
+}
@@ -0,0 +1,238 @@
+package pl.frot.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Groups rows of {@link PropertyColumns} by a categorical key (zip prefix, city, type) without copying the data:
+ * each partition is a sorted {@code int[]} of row ids. The key is derived once per dictionary entry of the
+ * underlying string column, so adding another grouping dimension costs one {@code int} per row.
+ * Rows appended to the column later are added with {@link #update()}.
+ *
+ * @param <K> partition key
+ */
+public class PartitionIndex<K> {
+    private final StringDictionaryColumn column;
+    private final Function<String, K> key;
+    private final List<K> partitions;
+    private final Map<K, Integer> partitionIds = new HashMap<>();
+
+    private int[] partitionOfCode = new int[0];
+    private final int[][] rows;          // row ids per partition, with spare capacity
+    private final int[] counts;
+    private final int[][] trimmedRows;   // exact-length copies handed out by rows(), rebuilt after updates
+    private int indexedRows = 0;
+
+    private PartitionIndex(StringDictionaryColumn column, List<K> partitions, Function<String, K> key) {
+        this.column = column;
+        this.key = key;
+        this.partitions = List.copyOf(partitions);
+        this.rows = new int[partitions.size()][];
+        this.counts = new int[partitions.size()];
+        this.trimmedRows = new int[partitions.size()][];
+        for (int partition = 0; partition < partitions.size(); partition++) {
+            partitionIds.put(partitions.get(partition), partition);
+            rows[partition] = new int[0];
+        }
+    }
+
+    /**
+     * @param column     dictionary-encoded column the key is derived from
+     * @param partitions all partitions, in the order they are reported; partitions without rows stay empty
+     * @param key        maps a column value to its partition, {@code null} leaves the row out of the index
+     */
+    public static <K> PartitionIndex<K> of(StringDictionaryColumn column, List<K> partitions, Function<String, K> key) {
+        PartitionIndex<K> index = new PartitionIndex<>(column, partitions, key);
+        index.update();
+        return index;
+    }
+
+    /**
+     * Indexes rows appended to the column since the last update, in time proportional to their number.
+     *
+     * @return number of newly indexed rows
+     */
+    public int update() {
+        int from = indexedRows;
+        int to = column.size();
+        if (from == to) {
+            return 0;
+        }
+        resolveNewCodes();
+
+        int[] added = new int[partitions.size()];
+        for (int row = from; row < to; row++) {
+            int partition = partitionOf(row);
+            if (partition >= 0) {
+                added[partition]++;
+            }
+        }
+        for (int partition = 0; partition < rows.length; partition++) {
+            if (added[partition] == 0) {
+                continue;
+            }
+            int required = counts[partition] + added[partition];
+            if (required > rows[partition].length) {
+                rows[partition] = Arrays.copyOf(rows[partition], Math.max(required, rows[partition].length * 2));
+            }
+            trimmedRows[partition] = null;
+        }
+        for (int row = from; row < to; row++) {
+            int partition = partitionOf(row);
+            if (partition >= 0) {
+                rows[partition][counts[partition]++] = row;
+            }
+        }
+
+        indexedRows = to;
+        return to - from;
+    }
+
+    private void resolveNewCodes() {
+        List<String> dictionary = column.dictionary();
+        int known = partitionOfCode.length;
+        if (known == dictionary.size()) {
+            return;
+        }
+
+        partitionOfCode = Arrays.copyOf(partitionOfCode, dictionary.size());
+        for (int code = known; code < partitionOfCode.length; code++) {
+            K partitionKey = key.apply(dictionary.get(code));
+            if (partitionKey == null) {
+                partitionOfCode[code] = -1;
+                continue;
+            }
+            Integer partition = partitionIds.get(partitionKey);
+            if (partition == null) {
+                throw new IllegalArgumentException("Unknown partition '" + partitionKey + "' for value: " + dictionary.get(code));
+            }
+            partitionOfCode[code] = partition;
+        }
+    }
+
+    /**
+     * One partition per distinct value of the column, e.g. per city.
+     */
+    public static PartitionIndex<String> byValue(StringDictionaryColumn column) {
+        return of(column, new ArrayList<>(column.dictionary()), Function.identity());
+    }
+
+    public List<K> partitions() {
+        return partitions;
+    }
+
+    /**
+     * Sorted row ids of the partition; the array is shared and must not be modified.
+     */
+    public int[] rows(K partition) {
+        Integer id = partitionIds.get(partition);
+        if (id == null) {
+            return new int[0];
+        }
+        if (trimmedRows[id] == null) {
+            trimmedRows[id] = Arrays.copyOf(rows[id], counts[id]);
+        }
+        return trimmedRows[id];
+    }
+
+    public int count(K partition) {
+        Integer id = partitionIds.get(partition);
+        return id != null ? counts[id] : 0;
+    }
+
+    public int[] counts() {
+        return counts.clone();
+    }
+
+    /**
+     * Position of the row's partition in {@link #partitions()}, or -1 if the row is not indexed.
+     */
+    public int partitionOf(int row) {
+        if (row >= column.size()) {
+            return -1;
+        }
+        int code = column.code(row);
+        return code < partitionOfCode.length ? partitionOfCode[code] : -1;
+    }
+
+    /**
+     * Row counts, sigma counts, support counts and nfo-counts (rows with full membership) of the given partitions,
+     * computed in a single pass over their rows.
+     */
+    public Aggregates aggregate(IntToDoubleFunction membership, List<K> selected) {
+        return aggregate(1, (row, values) -> values[0] = membership.applyAsDouble(row), selected)[0];
+    }
+
+    /**
+     * {@link #aggregate(IntToDoubleFunction, List)} of several fuzzy sets in the same pass over the rows, so work
+     * they share (e.g. a summarizer and its intersection with a qualifier) is done once per row.
+     *
+     * @return aggregates of each set, in the order {@code memberships} fills them in
+     */
+    public Aggregates[] aggregate(int sets, RowMemberships memberships, List<K> selected) {
+        List<int[]> selectedRows = new ArrayList<>(selected.size());
+        for (K partition : selected) {
+            selectedRows.add(rows(partition));
+        }
+        return aggregateRows(sets, memberships, selectedRows);
+    }
+
+    /**
+     * Aggregates over row ids taken from the index earlier, e.g. by a summary that must not see rows
+     * appended after its membership vectors were read.
+     */
+    public static Aggregates aggregateRows(IntToDoubleFunction membership, List<int[]> partitionRows) {
+        return aggregateRows(1, (row, values) -> values[0] = membership.applyAsDouble(row), partitionRows)[0];
+    }
+
+    public static Aggregates[] aggregateRows(int sets, RowMemberships memberships, List<int[]> partitionRows) {
+        int[] counts = new int[partitionRows.size()];
+        double[][] sigmaCounts = new double[sets][partitionRows.size()];
+        int[][] supportCounts = new int[sets][partitionRows.size()];
+        int[][] nfoCounts = new int[sets][partitionRows.size()];
+        double[] values = new double[sets];
+
+        for (int i = 0; i < partitionRows.size(); i++) {
+            int[] rowIds = partitionRows.get(i);
+            counts[i] = rowIds.length;
+            for (int row : rowIds) {
+                memberships.apply(row, values);
+                for (int set = 0; set < sets; set++) {
+                    double value = values[set];
+                    sigmaCounts[set][i] += value;
+                    if (value > 0.0) {
+                        supportCounts[set][i]++;
+                    }
+                    if (value == 1.0) {
+                        nfoCounts[set][i]++;
+                    }
+                }
+            }
+        }
+
+        Aggregates[] aggregates = new Aggregates[sets];
+        for (int set = 0; set < sets; set++) {
+            aggregates[set] = new Aggregates(counts, sigmaCounts[set], supportCounts[set], nfoCounts[set]);
+        }
+        return aggregates;
+    }
+
+    /**
+     * Memberships of one row in several fuzzy sets, written to {@code values}.
+     */
+    @FunctionalInterface
+    public interface RowMemberships {
+        void apply(int row, double[] values);
+    }
+
+    /**
+     * Per-partition aggregates, indexed like the partitions passed to {@link #aggregate}.
+     */
+    public record Aggregates(int[] counts, double[] sigmaCounts, int[] supportCounts, int[] nfoCounts) {
+    }
+}
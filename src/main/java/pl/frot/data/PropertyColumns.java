@@ -0,0 +1,273 @@
+package pl.frot.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Columnar (struct-of-arrays) view of the property dataset.
+ * Numeric attributes are kept in {@link NumericColumn}s, missing values as {@link Double#NaN};
+ * string attributes are dictionary-encoded. After loading, {@link #encode()} picks a compact encoding per column.
+ * Derived attributes ({@link #addDerivedColumn}) get ids after the raw ones and are stored like any other column.
+ */
+public class PropertyColumns {
+    private static final Logger logger = Logger.getLogger(PropertyColumns.class.getName());
+
+    public static final List<String> NUMERIC_ATTRIBUTES = List.of(
+            "soldPrice",
+            "totalInteriorLivableArea",
+            "lot",
+            "yearBuilt",
+            "elementarySchoolDistance",
+            "middleSchoolDistance",
+            "highSchoolDistance",
+            "annualTaxAmount",
+            "taxAssessedValue",
+            "lastSoldPrice",
+            "listedPrice"
+    );
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    /**
+     * Numeric columns with at most this many distinct values get a dictionary encoding.
+     */
+    private static final int MAX_DICTIONARY_VALUES = 256;
+
+    private long[] ids;
+    private final StringDictionaryColumn types;
+    private final StringDictionaryColumn cities;
+    private final StringDictionaryColumn zips;
+    private NumericColumn[] numeric;
+    private final List<String> derivedNames = new ArrayList<>();
+    private final List<Expression> derivedExpressions = new ArrayList<>();
+    private int size;
+
+    public PropertyColumns() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PropertyColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        ids = new long[capacity];
+        types = new StringDictionaryColumn(capacity);
+        cities = new StringDictionaryColumn(capacity);
+        zips = new StringDictionaryColumn(capacity);
+        numeric = new NumericColumn[NUMERIC_ATTRIBUTES.size()];
+        for (int attribute = 0; attribute < numeric.length; attribute++) {
+            numeric[attribute] = new DoubleColumn(capacity);
+        }
+    }
+
+    public static PropertyColumns fromProperties(List<Property> properties) {
+        PropertyColumns columns = new PropertyColumns(properties.size());
+        for (Property property : properties) {
+            columns.addProperty(property);
+        }
+        columns.encode();
+        return columns;
+    }
+
+    /**
+     * Fills {@code values} with the numeric attributes of the property, in {@link #NUMERIC_ATTRIBUTES} order.
+     */
+    public static void numericValues(Property property, double[] values) {
+        values[0] = toDouble(property.getSoldPrice());
+        values[1] = toDouble(property.getTotalInteriorLivableArea());
+        values[2] = toDouble(property.getLot());
+        values[3] = property.getYearBuilt() != null ? property.getYearBuilt() : Double.NaN;
+        values[4] = toDouble(property.getElementarySchoolDistance());
+        values[5] = toDouble(property.getMiddleSchoolDistance());
+        values[6] = toDouble(property.getHighSchoolDistance());
+        values[7] = toDouble(property.getAnnualTaxAmount());
+        values[8] = toDouble(property.getTaxAssessedValue());
+        values[9] = toDouble(property.getLastSoldPrice());
+        values[10] = toDouble(property.getListedPrice());
+    }
+
+    // ==== WRITING ====
+
+    public void addProperty(Property property) {
+        double[] values = new double[NUMERIC_ATTRIBUTES.size()];
+        numericValues(property, values);
+        long id = property.getId() != null ? property.getId() : size;
+        addRow(id, property.getType(), property.getCity(), property.getZip(), values);
+    }
+
+    /**
+     * Appends one row. {@code values} must follow the order of {@link #NUMERIC_ATTRIBUTES}; the array is copied.
+     * Derived columns are extended by evaluating their expressions on the row.
+     */
+    public void addRow(long id, String type, String city, String zip, double[] values) {
+        if (values.length != NUMERIC_ATTRIBUTES.size()) {
+            throw new IllegalArgumentException("Expected " + NUMERIC_ATTRIBUTES.size() + " numeric values, got: " + values.length);
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length * 2, 1));
+        }
+
+        ids[size] = id;
+        types.append(type);
+        cities.append(city);
+        zips.append(zip);
+        for (int attribute = 0; attribute < values.length; attribute++) {
+            numeric[attribute] = numeric[attribute].append(values[attribute]);
+        }
+        if (!derivedExpressions.isEmpty()) {
+            // derived expressions may refer to earlier derived columns, so evaluate them in id order
+            double[] row = Arrays.copyOf(values, numeric.length);
+            for (int i = 0; i < derivedExpressions.size(); i++) {
+                int attribute = values.length + i;
+                row[attribute] = derivedExpressions.get(i).evaluate(row);
+                numeric[attribute] = numeric[attribute].append(row[attribute]);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * Computes a derived attribute for all rows at once and stores it as a regular (encoded) column,
+     * so labels on it are as cheap as labels on raw attributes.
+     *
+     * @param expression arithmetic over raw or previously derived attributes, see {@link Expression}
+     * @return id of the new column
+     */
+    public int addDerivedColumn(String name, String expression) {
+        if (attributeId(name) >= 0) {
+            throw new IllegalArgumentException("Attribute already exists: " + name);
+        }
+        Expression parsed = Expression.parse(expression, this::attributeId);
+        NumericColumn column = encode(new DoubleColumn(parsed.evaluate(this)));
+        column.trimToSize();
+
+        numeric = Arrays.copyOf(numeric, numeric.length + 1);
+        numeric[numeric.length - 1] = column;
+        derivedNames.add(name);
+        derivedExpressions.add(parsed);
+        logger.fine(name + " = " + parsed + ": " + column.encoding());
+        return numeric.length - 1;
+    }
+
+    /**
+     * Re-encodes every numeric column once loading is finished: small-range integral columns are
+     * bit-packed relative to their minimum, low-cardinality columns get a dictionary, the rest stay plain.
+     * Rows can still be appended afterwards; a column falls back to a wider encoding when needed.
+     */
+    public void encode() {
+        for (int attribute = 0; attribute < numeric.length; attribute++) {
+            numeric[attribute] = encode(numeric[attribute]);
+            logger.fine(attributeName(attribute) + ": " + numeric[attribute].encoding());
+        }
+        trimToSize();
+        logger.info(String.format("Encoded %s rows into %s bytes", size, memoryBytes()));
+    }
+
+    private static NumericColumn encode(NumericColumn column) {
+        NumericColumn encoded = PackedIntColumn.tryEncode(column);
+        if (encoded == null) {
+            encoded = DoubleDictionaryColumn.tryEncode(column, MAX_DICTIONARY_VALUES);
+        }
+        return encoded != null ? encoded : column;
+    }
+
+    /**
+     * Releases spare capacity once loading is finished.
+     */
+    public void trimToSize() {
+        ids = Arrays.copyOf(ids, size);
+        types.trimToSize();
+        cities.trimToSize();
+        zips.trimToSize();
+        for (NumericColumn column : numeric) {
+            column.trimToSize();
+        }
+    }
+
+    // ==== READING ====
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return dense id of the numeric attribute, raw or derived, or -1 if there is no such column
+     */
+    public int attributeId(String attributeName) {
+        int id = NUMERIC_ATTRIBUTES.indexOf(attributeName);
+        if (id < 0) {
+            int derived = derivedNames.indexOf(attributeName);
+            return derived < 0 ? -1 : NUMERIC_ATTRIBUTES.size() + derived;
+        }
+        return id;
+    }
+
+    public String attributeName(int attributeId) {
+        return attributeId < NUMERIC_ATTRIBUTES.size()
+                ? NUMERIC_ATTRIBUTES.get(attributeId)
+                : derivedNames.get(attributeId - NUMERIC_ATTRIBUTES.size());
+    }
+
+    /**
+     * @return number of numeric columns, raw and derived
+     */
+    public int attributeCount() {
+        return numeric.length;
+    }
+
+    public boolean isDerived(int attributeId) {
+        return attributeId >= NUMERIC_ATTRIBUTES.size();
+    }
+
+    public double value(int attributeId, int row) {
+        return numeric[attributeId].get(row);
+    }
+
+    public NumericColumn column(int attributeId) {
+        return numeric[attributeId];
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public String type(int row) {
+        return types.get(row);
+    }
+
+    public String city(int row) {
+        return cities.get(row);
+    }
+
+    public String zip(int row) {
+        return zips.get(row);
+    }
+
+    public StringDictionaryColumn typeColumn() {
+        return types;
+    }
+
+    public StringDictionaryColumn cityColumn() {
+        return cities;
+    }
+
+    public StringDictionaryColumn zipColumn() {
+        return zips;
+    }
+
+    public long memoryBytes() {
+        long bytes = (long) ids.length * Long.BYTES
+                + types.memoryBytes() + cities.memoryBytes() + zips.memoryBytes();
+        for (NumericColumn column : numeric) {
+            bytes += column.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private static double toDouble(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
@@ -0,0 +1,161 @@
+package pl.frot.data;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Reads a property CSV file that keeps growing. The byte offset after the last complete line is remembered,
+ * so each {@link #readNew()} parses only the rows appended since the previous call, streamed from the file.
+ * A trailing line without a newline is left for the next call; malformed lines are skipped.
+ */
+public class PropertyCsvReader {
+    private static final Logger logger = Logger.getLogger(PropertyCsvReader.class.getName());
+
+    private final Path path;
+    private final String header;
+    private long offset;
+
+    public PropertyCsvReader(Path path) throws IOException {
+        this.path = path;
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            int b;
+            while ((b = in.read()) != -1 && b != '\n') {
+                headerBytes.write(b);
+            }
+            if (b == -1) {
+                throw new IOException("No complete header line in CSV file: " + path);
+            }
+        }
+        this.header = headerBytes.toString(StandardCharsets.UTF_8).stripTrailing();
+        this.offset = headerBytes.size() + 1;
+    }
+
+    /**
+     * @return valid properties (see {@link DataLoader#isValid(Property)}) from rows appended since the last call
+     */
+    public List<Property> readNew() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long complete = completeLinesEnd(channel);
+            if (complete <= offset) {
+                return List.of();
+            }
+
+            // the rows are parsed straight from the file, only the bytes up to the last complete line
+            InputStream rows = new SequenceInputStream(
+                    new ByteArrayInputStream((header + "\n").getBytes(StandardCharsets.UTF_8)),
+                    new BoundedInputStream(Channels.newInputStream(channel.position(offset)), complete - offset));
+            List<Property> properties = new ArrayList<>();
+            try (Reader reader = new InputStreamReader(new BufferedInputStream(rows), StandardCharsets.UTF_8)) {
+                for (Property property : PropertyFeeds.parser(reader)) {
+                    if (DataLoader.isValid(property)) {
+                        properties.add(property);
+                    }
+                }
+            }
+            offset = complete;
+
+            logger.info("Read " + properties.size() + " new properties from " + path + ", offset " + offset);
+            return properties;
+        }
+    }
+
+    /**
+     * Skips the complete rows present now without parsing them, e.g. to follow only rows appended later.
+     *
+     * @return the new offset
+     */
+    public long seekToEnd() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            offset = Math.max(offset, completeLinesEnd(channel));
+        }
+        return offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    // ==== UTILS ====
+
+    /**
+     * Position after the last newline of the file, scanning backwards in blocks; the offset if there is none after it.
+     */
+    private long completeLinesEnd(FileChannel channel) throws IOException {
+        long end = channel.size();
+        ByteBuffer block = ByteBuffer.allocate(8192);
+        while (end > offset) {
+            int length = (int) Math.min(block.capacity(), end - offset);
+            long from = end - length;
+            block.clear().limit(length);
+            while (block.hasRemaining() && channel.read(block, from + block.position()) >= 0) {
+                // read until the block is full
+            }
+            for (int i = block.position() - 1; i >= 0; i--) {
+                if (block.get(i) == '\n') {
+                    return from + i + 1;
+                }
+            }
+            end = from;
+        }
+        return offset;
+    }
+
+    /**
+     * Ends after the given number of bytes, so rows appended while parsing are left for the next call.
+     */
+    private static class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(bytes, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // the channel is closed by the caller
+        }
+    }
+}
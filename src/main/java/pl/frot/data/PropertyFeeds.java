@@ -0,0 +1,90 @@
+package pl.frot.data;
+
+import com.opencsv.bean.CsvToBean;
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.opencsv.exceptions.CsvException;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Unbounded sources of properties for streaming summarization. Only valid properties
+ * (see {@link DataLoader#isValid(Property)}) are passed on.
+ */
+public class PropertyFeeds {
+    private static final Logger logger = Logger.getLogger(PropertyFeeds.class.getName());
+
+    private PropertyFeeds() {}
+
+    /**
+     * Follows a growing CSV file like {@code tail -f}, starting after the rows present when called.
+     * Runs until the calling thread is interrupted.
+     */
+    public static void tailCsv(Path path, Duration pollInterval, Consumer<Property> sink) throws IOException {
+        PropertyCsvReader reader = new PropertyCsvReader(path);
+        logger.info("Tailing " + path + " from offset " + reader.seekToEnd());
+
+        while (!Thread.currentThread().isInterrupted()) {
+            reader.readNew().forEach(sink);
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reads CSV rows (header line first) from a local socket until the other side closes the connection.
+     *
+     * @return number of properties passed on
+     */
+    public static long readSocket(String host, int port, Consumer<Property> sink) throws IOException {
+        try (Socket socket = new Socket(host, port);
+             Reader reader = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)) {
+            logger.info("Reading properties from " + host + ":" + port);
+            return read(reader, sink);
+        }
+    }
+
+    /**
+     * Parses CSV rows lazily, one at a time, so the stream may be unbounded. Malformed lines are skipped.
+     */
+    public static long read(Reader reader, Consumer<Property> sink) {
+        Iterator<Property> properties = parser(reader).iterator();
+
+        long count = 0;
+        while (properties.hasNext()) {
+            Property property = properties.next();
+            if (DataLoader.isValid(property)) {
+                sink.accept(property);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Bean parser that logs and skips lines which do not convert to a property, so one bad line
+     * does not end the feed. Skipped lines are not collected, the feed may be unbounded.
+     */
+    static CsvToBean<Property> parser(Reader reader) {
+        return new CsvToBeanBuilder<Property>(reader)
+                .withType(Property.class)
+                .withExceptionHandler(PropertyFeeds::skipMalformed)
+                .build();
+    }
+
+    private static CsvException skipMalformed(CsvException e) {
+        logger.warning("Skipping malformed CSV line " + e.getLineNumber() + ": " + e.getMessage());
+        return null;
+    }
+}
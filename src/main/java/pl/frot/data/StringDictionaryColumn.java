@@ -0,0 +1,56 @@
+package pl.frot.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary-encoded string column (city, type, zip): each row stores a bit-packed int code.
+ */
+public class StringDictionaryColumn {
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final BitPackedInts rows;
+
+    public StringDictionaryColumn(int initialCapacity) {
+        this.rows = new BitPackedInts(1, initialCapacity);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public String get(int row) {
+        return values.get(rows.get(row));
+    }
+
+    public int code(int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Distinct values; a row's value is {@code dictionary().get(code(row))}.
+     */
+    public List<String> dictionary() {
+        return values;
+    }
+
+    public void append(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        rows.append(code);
+    }
+
+    public void trimToSize() {
+        rows.trimToSize();
+    }
+
+    public long memoryBytes() {
+        return rows.memoryBytes();
+    }
+}
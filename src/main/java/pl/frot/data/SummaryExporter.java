@@ -0,0 +1,172 @@
+package pl.frot.data;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming summary export. Summaries are handed over through a bounded queue to a background writer thread,
+ * so producers never hold the whole result set and never block on disk I/O for longer than the queue is full.
+ * Paths ending with {@code .gz} are gzip-compressed.
+ */
+public class SummaryExporter implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(SummaryExporter.class.getName());
+
+    public static final List<String> MEASURES = List.of(
+            "T1", "T2", "T3", "T4", "T5", "T6", "T7", "T8", "T9", "T10", "T11", "T*");
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final Row END = new Row(null, null);
+
+    private final Path path;
+    private final ExportFormat format;
+    private final BlockingQueue<Row> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private volatile IOException failure;
+    private volatile long exported = 0;
+    private boolean closed = false;
+
+    public SummaryExporter(Path path, ExportFormat format) throws IOException {
+        this.path = path;
+        this.format = format;
+
+        Writer writer = openWriter(path);
+        this.writerThread = Thread.ofPlatform()
+                .name("summary-exporter")
+                .start(() -> drain(writer));
+    }
+
+    /**
+     * Queues one summary; blocks while the writer is {@value #QUEUE_CAPACITY} rows behind.
+     *
+     * @param measures measures by name (see {@link #MEASURES}); missing ones are written empty
+     */
+    public void export(String summary, Map<String, Double> measures) {
+        if (closed) {
+            throw new IllegalStateException("Exporter is closed: " + path);
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Export to " + path + " failed", failure);
+        }
+        try {
+            queue.put(new Row(summary, measures));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while exporting to " + path, e);
+        }
+    }
+
+    public long getExported() {
+        return exported;
+    }
+
+    /**
+     * Waits until every queued summary is written and the file is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerThread.interrupt();
+            throw new IOException("Interrupted while finishing export to " + path, e);
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+        logger.info("Exported " + exported + " summaries to file: " + path);
+    }
+
+    // ==== WRITER THREAD ====
+
+    private void drain(Writer writer) {
+        try (writer; CSVWriter csv = format == ExportFormat.CSV ? new CSVWriter(writer) : null) {
+            if (csv != null) {
+                String[] header = new String[MEASURES.size() + 1];
+                header[0] = "summary";
+                for (int i = 0; i < MEASURES.size(); i++) {
+                    header[i + 1] = MEASURES.get(i);
+                }
+                csv.writeNext(header, false);
+            }
+
+            for (Row row = queue.take(); row != END; row = queue.take()) {
+                if (csv != null) {
+                    csv.writeNext(csvLine(row), false);
+                } else {
+                    writer.write(mapper.writeValueAsString(jsonLine(row)));
+                    writer.write('\n');
+                }
+                exported++;
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to write to file: " + e.getMessage());
+            failure = e;
+            queue.clear();
+        } catch (InterruptedException e) {
+            failure = new IOException("Export interrupted", e);
+        }
+    }
+
+    private static String[] csvLine(Row row) {
+        String[] line = new String[MEASURES.size() + 1];
+        line[0] = row.summary();
+        for (int i = 0; i < MEASURES.size(); i++) {
+            Double value = row.measures().get(MEASURES.get(i));
+            line[i + 1] = value != null ? value.toString() : "";
+        }
+        return line;
+    }
+
+    private static Map<String, Object> jsonLine(Row row) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("summary", row.summary());
+        for (String measure : MEASURES) {
+            Double value = row.measures().get(measure);
+            if (value != null) {
+                line.put(measure, value);
+            }
+        }
+        return line;
+    }
+
+    private static Writer openWriter(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        OutputStream out = Files.newOutputStream(path);
+        if (path.getFileName().toString().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 1 << 16);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    private record Row(String summary, Map<String, Double> measures) {
+    }
+}
@@ -3,6 +3,9 @@ package pl.frot.data;
 import java.util.List;
 import java.util.Map;
 
-public record TermDao(String name, List<Double> uod, Map<String, List<Double>> ranges) {
+/**
+ * @param expression optional arithmetic over other attributes; when set, {@code name} is a derived attribute
+ */
+public record TermDao(String name, String expression, List<Double> uod, Map<String, List<Double>> ranges) {
 
 }
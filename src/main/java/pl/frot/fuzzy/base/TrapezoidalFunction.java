@@ -1,7 +1,10 @@
 package pl.frot.fuzzy.base;
 
+import lombok.Getter;
+
 import java.util.List;
 
+@Getter
 public class TrapezoidalFunction implements MembershipFunction<Double> {
 
     private final double a;
@@ -16,6 +19,13 @@ public class TrapezoidalFunction implements MembershipFunction<Double> {
         d = values.get(3);
     }
 
+    public TrapezoidalFunction(double a, double b, double c, double d) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+    }
+
     @Override
     public double apply(Double x) {
         if (x <= a || x >= d) {
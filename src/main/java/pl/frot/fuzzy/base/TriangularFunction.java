@@ -1,7 +1,10 @@
 package pl.frot.fuzzy.base;
 
+import lombok.Getter;
+
 import java.util.List;
 
+@Getter
 public class TriangularFunction implements MembershipFunction<Double> {
 
     private final double a;
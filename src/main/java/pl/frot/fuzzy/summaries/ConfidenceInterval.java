@@ -0,0 +1,21 @@
+package pl.frot.fuzzy.summaries;
+
+public record ConfidenceInterval(double lower, double upper) {
+
+    public static ConfidenceInterval exact(double value) {
+        return new ConfidenceInterval(value, value);
+    }
+
+    public double width() {
+        return upper - lower;
+    }
+
+    public boolean contains(double value) {
+        return value >= lower && value <= upper;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%.4f, %.4f]", lower, upper);
+    }
+}
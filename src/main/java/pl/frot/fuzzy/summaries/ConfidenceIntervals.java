@@ -0,0 +1,170 @@
+package pl.frot.fuzzy.summaries;
+
+import pl.frot.fuzzy.base.GaussianFunction;
+import pl.frot.fuzzy.base.MembershipFunction;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.base.TriangularFunction;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normal-approximation confidence intervals of T1, T3 and T4 for statistics accumulated over a sample
+ * (see {@link SummaryStatistics#setPopulation(long)}). Variances include the finite population correction,
+ * so a sample covering the whole population gives zero-width intervals.
+ */
+public class ConfidenceIntervals {
+
+    /**
+     * Grid used to bound quantifiers whose shape is not known.
+     */
+    private static final int QUANTIFIER_GRID = 64;
+
+    private ConfidenceIntervals() {}
+
+    /**
+     * @param z standard normal quantile of the confidence level, e.g. 1.96 for 95%
+     */
+    public static Map<String, ConfidenceInterval> of(SummaryStatistics statistics, Quantifier quantifier, double z) {
+        Map<String, ConfidenceInterval> intervals = new LinkedHashMap<>();
+        intervals.put("T1", degreeOfTruth(statistics, quantifier, z));
+        intervals.put("T3", degreeOfCovering(statistics, z));
+        intervals.put("T4", degreeOfAppropriateness(statistics, z));
+        return intervals;
+    }
+
+    /**
+     * The interval of the proportion (sigma count / count, or ΣS∩W / ΣW) is mapped through the quantifier:
+     * T1 bounds are the minimum and maximum of μQ over that interval.
+     */
+    public static ConfidenceInterval degreeOfTruth(SummaryStatistics statistics, Quantifier quantifier, double z) {
+        long n = statistics.getCount();
+        if (n == 0) {
+            return new ConfidenceInterval(0.0, 1.0);
+        }
+
+        double estimate;
+        double variance;
+        if (!statistics.isQualified()) {
+            estimate = statistics.getSigmaS() / n;
+            variance = sampleVariance(n, statistics.getSigmaS(), statistics.getSumSquaresS());
+        } else {
+            if (statistics.getSigmaW() == 0.0) {
+                return ConfidenceInterval.exact(0.0);
+            }
+            // ratio estimator, delta method: Var(R) ≈ Σ(swᵢ - R·wᵢ)² / ((n - 1)·n·w̄²)
+            estimate = statistics.getSigmaSW() / statistics.getSigmaW();
+            double residuals = statistics.getSumSquaresSW()
+                    - 2 * estimate * statistics.getSumProductSWW()
+                    + estimate * estimate * statistics.getSumSquaresW();
+            double meanW = statistics.getSigmaW() / n;
+            variance = n > 1 ? Math.max(residuals, 0.0) / (n - 1) / (meanW * meanW) : Double.POSITIVE_INFINITY;
+        }
+
+        double halfWidth = z * Math.sqrt(variance / n * (1.0 - statistics.samplingFraction()));
+        double lower = Math.max(0.0, estimate - halfWidth);
+        double upper = Math.min(1.0, estimate + halfWidth);
+
+        if (!statistics.isQualified() && quantifier.type() == QuantifierType.ABSOLUTE) {
+            lower *= statistics.getPopulation();
+            upper *= statistics.getPopulation();
+        }
+        return quantifierImage(quantifier, lower, upper);
+    }
+
+    public static ConfidenceInterval degreeOfCovering(SummaryStatistics statistics, double z) {
+        if (!statistics.isQualified()) {
+            return proportion(statistics.getSupportS(), statistics.getCount(), statistics.samplingFraction(), z);
+        }
+        return proportion(statistics.getSupportSW(), statistics.getSupportW(), statistics.samplingFraction(), z);
+    }
+
+    /**
+     * Interval arithmetic over |Π r_j - T3|, each r_j and T3 taken at its own bounds; conservative.
+     */
+    public static ConfidenceInterval degreeOfAppropriateness(SummaryStatistics statistics, double z) {
+        if (statistics.getCount() == 0) {
+            return new ConfidenceInterval(0.0, 1.0);
+        }
+
+        double productLower = 1.0;
+        double productUpper = 1.0;
+        for (long support : statistics.getSummarizerSupports()) {
+            ConfidenceInterval r = proportion(support, statistics.getCount(), statistics.samplingFraction(), z);
+            productLower *= r.lower();
+            productUpper *= r.upper();
+        }
+
+        ConfidenceInterval t3 = degreeOfCovering(statistics, z);
+        double differenceLower = productLower - t3.upper();
+        double differenceUpper = productUpper - t3.lower();
+        if (differenceLower <= 0.0 && differenceUpper >= 0.0) {
+            return new ConfidenceInterval(0.0, Math.max(-differenceLower, differenceUpper));
+        }
+        double a = Math.abs(differenceLower);
+        double b = Math.abs(differenceUpper);
+        return new ConfidenceInterval(Math.min(a, b), Math.max(a, b));
+    }
+
+    // ==== UTILS ====
+
+    /**
+     * Wilson score interval with the sample size inflated by the finite population correction.
+     */
+    private static ConfidenceInterval proportion(long successes, long n, double samplingFraction, double z) {
+        if (n == 0) {
+            return new ConfidenceInterval(0.0, 1.0);
+        }
+        double p = (double) successes / n;
+        if (samplingFraction >= 1.0) {
+            return ConfidenceInterval.exact(p);
+        }
+
+        double effectiveN = n / (1.0 - samplingFraction);
+        double z2 = z * z / effectiveN;
+        double center = (p + z2 / 2) / (1 + z2);
+        double halfWidth = z * Math.sqrt(p * (1 - p) / effectiveN + z2 / (4 * effectiveN)) / (1 + z2);
+        return new ConfidenceInterval(Math.max(0.0, center - halfWidth), Math.min(1.0, center + halfWidth));
+    }
+
+    private static double sampleVariance(long n, double sum, double sumSquares) {
+        if (n < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = sum / n;
+        return Math.max(sumSquares - n * mean * mean, 0.0) / (n - 1);
+    }
+
+    /**
+     * Range of μQ over [lower, upper]. Piecewise linear and gaussian quantifiers attain their extremes at
+     * the ends or at breakpoints, so they are bounded exactly; other shapes are sampled on a grid.
+     */
+    private static ConfidenceInterval quantifierImage(Quantifier quantifier, double lower, double upper) {
+        List<Double> candidates = new ArrayList<>(List.of(lower, upper));
+        MembershipFunction<Double> function = quantifier.fuzzySet().getMembershipFunction();
+        switch (function) {
+            case TrapezoidalFunction f -> candidates.addAll(List.of(f.getA(), f.getB(), f.getC(), f.getD()));
+            case TriangularFunction f -> candidates.addAll(List.of(f.getA(), f.getB(), f.getC()));
+            case GaussianFunction f -> candidates.add(f.getCenter());
+            default -> {
+                for (int i = 1; i < QUANTIFIER_GRID; i++) {
+                    candidates.add(lower + (upper - lower) * i / QUANTIFIER_GRID);
+                }
+            }
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double x : candidates) {
+            if (x < lower || x > upper) {
+                continue;
+            }
+            double membership = quantifier.fuzzySet().membership(x);
+            min = Math.min(min, membership);
+            max = Math.max(max, membership);
+        }
+        return new ConfidenceInterval(min, max);
+    }
+}
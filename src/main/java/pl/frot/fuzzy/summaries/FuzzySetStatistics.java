@@ -0,0 +1,53 @@
+package pl.frot.fuzzy.summaries;
+
+import pl.frot.fuzzy.base.FuzzySet;
+import pl.frot.fuzzy.base.MembershipFunction;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Data-independent properties of a label's or quantifier's fuzzy set, used by T2 and T5-T11.
+ * They are computed in one pass over the universe the first time a set is used and then shared by every summary
+ * with the same label or quantifier.
+ *
+ * @param sigmaCount  Σ μ(x) over the universe samples
+ * @param supportSize number of samples with μ(x) > 0
+ * @param sampleCount number of universe samples
+ * @param length      length of the universe
+ */
+public record FuzzySetStatistics(double sigmaCount, int supportSize, int sampleCount, double length) {
+    // fuzzy sets compare by identity; entries go away together with their labels
+    private static final Map<FuzzySet<?>, FuzzySetStatistics> cache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static <T> FuzzySetStatistics of(FuzzySet<T> fuzzySet) {
+        FuzzySetStatistics statistics = cache.get(fuzzySet);
+        if (statistics == null) {
+            statistics = compute(fuzzySet);
+            cache.put(fuzzySet, statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Same as {@link FuzzySet#getDegreeOfFuzziness()}.
+     */
+    public double degreeOfFuzziness() {
+        return sigmaCount / length;
+    }
+
+    /**
+     * Samples belong to the universe by definition, so the membership function is applied directly instead of
+     * going through {@link FuzzySet#membership}, whose lookup is linear for discrete universes.
+     */
+    private static <T> FuzzySetStatistics compute(FuzzySet<T> fuzzySet) {
+        List<T> samples = fuzzySet.getUniverse().getSamples();
+        MembershipFunction<T> function = fuzzySet.getMembershipFunction();
+
+        double sigmaCount = samples.stream().mapToDouble(function::apply).sum();
+        int supportSize = (int) samples.stream().filter(x -> function.apply(x) > 0.0).count();
+        return new FuzzySetStatistics(sigmaCount, supportSize, samples.size(), fuzzySet.getUniverse().getLength());
+    }
+}
@@ -2,6 +2,8 @@ package pl.frot.fuzzy.summaries;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import pl.frot.data.NumericColumn;
+import pl.frot.data.PropertyColumns;
 import pl.frot.fuzzy.base.FuzzySet;
 
 @Getter
@@ -10,15 +12,67 @@ public class Label {
     private String name;
     private FuzzySet<Double> fuzzySet;
     private String attributeName;
+    /**
+     * Dense id of the attribute column in {@link PropertyColumns}, resolved once when the label is created.
+     */
+    private int attributeId;
 
     public Label(String name, FuzzySet<Double> fuzzySet) {
-        this.name = name;
-        this.fuzzySet = fuzzySet;
-        this.attributeName = "unknown";
+        this(name, fuzzySet, "unknown", -1);
+    }
+
+    public Label(String name, FuzzySet<Double> fuzzySet, String attributeName) {
+        this(name, fuzzySet, attributeName, PropertyColumns.NUMERIC_ATTRIBUTES.indexOf(attributeName));
+    }
+
+    /**
+     * Membership of a value taken from the dataset. Such values belong to the label's universe by construction,
+     * so the universe lookup done by {@link FuzzySet#membership(Object)} is skipped.
+     */
+    public double membership(double value) {
+        if (Double.isNaN(value)) {
+            return 0.0;
+        }
+        return fuzzySet.getMembershipFunction().apply(value);
+    }
+
+    /**
+     * Membership of the given row, read straight from the label's attribute column.
+     */
+    public double membership(PropertyColumns columns, int row) {
+        return membership(columns.value(attributeId, row));
+    }
+
+    /**
+     * Memberships of all rows. For dictionary-encoded columns the function is evaluated once per
+     * dictionary entry and the results are gathered by code.
+     */
+    public double[] membershipVector(PropertyColumns columns) {
+        if (attributeId < 0) {
+            throw new IllegalArgumentException("No attribute column for label: " + name);
+        }
+        NumericColumn column = columns.column(attributeId);
+        double[] memberships = new double[column.size()];
+
+        double[] dictionary = column.dictionary();
+        if (dictionary != null && dictionary.length < memberships.length) {
+            double[] entryMemberships = new double[dictionary.length];
+            for (int code = 0; code < dictionary.length; code++) {
+                entryMemberships[code] = membership(dictionary[code]);
+            }
+            for (int row = 0; row < memberships.length; row++) {
+                memberships[row] = entryMemberships[column.code(row)];
+            }
+        } else {
+            for (int row = 0; row < memberships.length; row++) {
+                memberships[row] = membership(column.get(row));
+            }
+        }
+        return memberships;
     }
 
     @Override
     public String toString() {
         return name;
     }
-}
\ No newline at end of file
+}
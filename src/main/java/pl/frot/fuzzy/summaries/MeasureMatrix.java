@@ -0,0 +1,154 @@
+package pl.frot.fuzzy.summaries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures T1 ... T11 of a list of summaries in one row-major {@code double} matrix, computed once.
+ * T* for new weights is then a single matrix-vector product and the best summaries come from a partial sort,
+ * so re-ranking after a weight change does not touch the summaries at all.
+ */
+public class MeasureMatrix {
+    /**
+     * Columns of the matrix: every measure except T*.
+     */
+    public static final List<String> COLUMNS = SingleSubjectSummary.MEASURE_NAMES.subList(0, SingleSubjectSummary.MEASURE_NAMES.size() - 1);
+    private static final int WIDTH = COLUMNS.size();
+
+    private final List<SingleSubjectSummary> summaries;
+    private final double[] values;
+
+    public MeasureMatrix(List<SingleSubjectSummary> summaries) {
+        this.summaries = List.copyOf(summaries);
+        this.values = new double[this.summaries.size() * WIDTH];
+        for (int row = 0; row < this.summaries.size(); row++) {
+            SingleSubjectSummary summary = this.summaries.get(row);
+            for (int column = 0; column < WIDTH; column++) {
+                values[row * WIDTH + column] = summary.getMeasure(COLUMNS.get(column));
+            }
+        }
+    }
+
+    public int size() {
+        return summaries.size();
+    }
+
+    public SingleSubjectSummary summary(int row) {
+        return summaries.get(row);
+    }
+
+    public double get(int row, String measure) {
+        int column = COLUMNS.indexOf(measure);
+        if (column < 0) {
+            throw new IllegalArgumentException("Not a column of the matrix: " + measure);
+        }
+        return values[row * WIDTH + column];
+    }
+
+    /**
+     * T* of every summary for the given weights of T1 ... T11; the terms are added in the same order as in
+     * {@link SingleSubjectSummary#optimalMeasure}, so the results are identical.
+     */
+    public double[] optimal(List<Double> wages) {
+        if (wages.size() != WIDTH) {
+            throw new IllegalArgumentException("Wages must contain " + WIDTH + " values, got: " + wages.size());
+        }
+        double[] weights = new double[WIDTH];
+        for (int column = 0; column < WIDTH; column++) {
+            weights[column] = wages.get(column);
+        }
+
+        double[] scores = new double[summaries.size()];
+        for (int row = 0, offset = 0; row < scores.length; row++, offset += WIDTH) {
+            double score = values[offset] * weights[0];
+            for (int column = 1; column < WIDTH; column++) {
+                score += values[offset + column] * weights[column];
+            }
+            scores[row] = score;
+        }
+        return scores;
+    }
+
+    /**
+     * The {@code k} best summaries by T* with the given weights, best first; ties keep the order of the list.
+     */
+    public List<SingleSubjectSummary> top(List<Double> wages, int k) {
+        int[] rows = top(optimal(wages), k);
+        List<SingleSubjectSummary> top = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            top.add(summaries.get(row));
+        }
+        return top;
+    }
+
+    /**
+     * Rows of the {@code k} highest scores, best first, ties by row. Keeps a bounded min-heap of rows,
+     * O(n log k) instead of sorting all n scores.
+     */
+    public static int[] top(double[] scores, int k) {
+        int size = Math.min(Math.max(k, 0), scores.length);
+        int[] heap = new int[size];
+        int count = 0;
+        for (int row = 0; row < scores.length; row++) {
+            if (count < size) {
+                heap[count] = row;
+                siftUp(heap, count++, scores);
+            } else if (size > 0 && better(row, heap[0], scores)) {
+                heap[0] = row;
+                siftDown(heap, size, scores);
+            }
+        }
+
+        // popping the worst one by one fills the result from the back
+        int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            ranked[i] = heap[0];
+            heap[0] = heap[--count];
+            siftDown(heap, count, scores);
+        }
+        return ranked;
+    }
+
+    // ==== UTILS ====
+
+    private static boolean better(int first, int second, double[] scores) {
+        int byScore = Double.compare(scores[first], scores[second]);
+        return byScore != 0 ? byScore > 0 : first < second;
+    }
+
+    private static void siftUp(int[] heap, int index, double[] scores) {
+        int row = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], row, scores)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = row;
+    }
+
+    private static void siftDown(int[] heap, int size, double[] scores) {
+        if (size == 0) {
+            return;
+        }
+        int row = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && better(heap[child], heap[child + 1], scores)) {
+                child++;
+            }
+            if (!better(row, heap[child], scores)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = row;
+    }
+}
@@ -1,15 +1,15 @@
 package pl.frot.fuzzy.summaries;
 
 import lombok.Getter;
-import pl.frot.data.Property;
+import pl.frot.data.PartitionIndex;
 import pl.frot.fuzzy.base.DiscreteUniverse;
 import pl.frot.fuzzy.base.FuzzySet;
 import pl.frot.fuzzy.base.MembershipFunction;
 import pl.frot.fuzzy.base.Universe;
+import pl.frot.model.LabelMembershipCache;
 import pl.frot.model.PropertyType;
 
 import java.util.*;
-import java.util.function.Function;
 import java.util.logging.Logger;
 
 public class MultisubjectSummary {
@@ -24,21 +24,24 @@ public class MultisubjectSummary {
     @Getter
     private final boolean qualifierAppliesTo1; // true = P₁, false = P₂
 
-    // Two populations to compare
-    private final List<Property> population1;  // P₁
-    private final List<Property> population2;  // P₂
+    // Two populations to compare, as row ids in the columns; taken together with the membership vectors,
+    // so rows appended later are in neither
+    private final int[] population1;  // P₁
+    private final int[] population2;  // P₂
     private final PropertyType populationType1;
     private final PropertyType populationType2;
 
-    private final Map<String, Function<Property, Double>> attributeExtractors;
+    private final double[][] summarizerMemberships;
+    private final double[] qualifierMemberships;
+    private Double degreeOfTruth;
 
     public MultisubjectSummary(Quantifier quantifier,
                                Label qualifier,
                                List<Label> summarizers,
                                PropertyType populationType1,
                                PropertyType populationType2,
-                               Map<PropertyType, List<Property>> propertiesByType,
-                               Map<String, Function<Property, Double>> attributeExtractors,
+                               LabelMembershipCache memberships,
+                               PartitionIndex<PropertyType> partitions,
                                boolean qualifierAppliesTo1) {
         this.quantifier = quantifier;
         this.qualifier = qualifier;
@@ -51,9 +54,13 @@ public class MultisubjectSummary {
 
         this.populationType1 = populationType1;
         this.populationType2 = populationType2;
-        this.population1 = propertiesByType.get(populationType1);
-        this.population2 = propertiesByType.get(populationType2);
-        this.attributeExtractors = attributeExtractors;
+        this.population1 = partitions.rows(populationType1);
+        this.population2 = partitions.rows(populationType2);
+        this.summarizerMemberships = new double[summarizers.size()][];
+        for (int j = 0; j < summarizers.size(); j++) {
+            summarizerMemberships[j] = memberships.get(summarizers.get(j));
+        }
+        this.qualifierMemberships = qualifier != null ? memberships.get(qualifier) : null;
         this.qualifierAppliesTo1 = qualifierAppliesTo1;
     }
 
@@ -65,24 +72,14 @@ public class MultisubjectSummary {
      * Wzór (6.8) - używa nfo-count, nie sigma-count
      */
     public double calculateForm1() {
-        // nfo-count(S̃(P₁)) - liczba elementów z pełną przynależnością
-        double nfoCountP1 = 0.0;
-        for (Property property : population1) {
-            if (calculateSummarizerMembership(property) == 1.0) {
-                nfoCountP1 += 1.0;
-            }
-        }
-
-        // nfo-count(S̃(P₂)) - liczba elementów z pełną przynależnością
-        double nfoCountP2 = 0.0;
-        for (Property property : population2) {
-            if (calculateSummarizerMembership(property) == 1.0) {
-                nfoCountP2 += 1.0;
-            }
-        }
+        // nfo-count(S̃(P₁)) i nfo-count(S̃(P₂)) - jedno przejście po obu populacjach
+        PartitionIndex.Aggregates summarizerCounts = PartitionIndex.aggregateRows(
+                this::calculateSummarizerMembership, List.of(population1, population2));
+        double nfoCountP1 = summarizerCounts.nfoCounts()[0];
+        double nfoCountP2 = summarizerCounts.nfoCounts()[1];
 
-        int mP1 = population1.size();
-        int mP2 = population2.size();
+        int mP1 = population1.length;
+        int mP2 = population2.length;
 
         double numerator = (1.0 / mP1) * nfoCountP1;
         double denominator = (1.0 / mP1) * nfoCountP1 + (1.0 / mP2) * nfoCountP2;
@@ -102,40 +99,16 @@ public class MultisubjectSummary {
      * Wzór (6.13) - kwalifikator W̃ odnosi się do P₂
      */
     public double calculateForm2() {
-        // nfo-count(S̃(P₁) ∩ W̃) - licznik
-        double nfoCountS1AndWP1 = 0.0;
-        for (Property property : population1) {
-            double summarizerMembership = calculateSummarizerMembership(property);
-            double qualifierMembership = calculateQualifierMembership(property);
-
-            if (summarizerMembership == 1.0 && qualifierMembership == 1.0) {
-                nfoCountS1AndWP1 += 1.0;
-            }
-        }
-
-        // nfo-count(S̃(P₁)) - pierwszy składnik mianownika
-        double nfoCountS1P1 = 0.0;
-        for (Property property : population1) {
-            if (calculateSummarizerMembership(property) == 1.0) {
-                nfoCountS1P1 += 1.0;
-            }
-        }
-
-        // nfo-count(S̃(P₂) ∩ W̃) - drugi składnik mianownika
-        // Dla P₂ sprawdzamy czy property należy do P₂ I ma kwalifikator W̃
-        double nfoCountS1AndWP2 = 0.0;
-        for (Property property : population2) {
-            double summarizerMembership = calculateSummarizerMembership(property);
-            // W Formie 2 kwalifikator odnosi się do P₂, więc sprawdzamy go dla P₂
-            double qualifierMembership = calculateQualifierMembership(property);
-
-            if (summarizerMembership == 1.0 && qualifierMembership == 1.0) {
-                nfoCountS1AndWP2 += 1.0;
-            }
-        }
+        // nfo-count(S̃(P₁) ∩ W̃) - licznik, nfo-count(S̃(P₂) ∩ W̃) - drugi składnik mianownika,
+        // nfo-count(S̃(P₁)) - pierwszy składnik mianownika; wszystkie w jednym przejściu
+        PartitionIndex.Aggregates[] counts = PartitionIndex.aggregateRows(2,
+                this::calculateSummarizerAndQualifierMemberships, List.of(population1, population2));
+        double nfoCountS1AndWP1 = counts[0].nfoCounts()[0];
+        double nfoCountS1AndWP2 = counts[0].nfoCounts()[1];
+        double nfoCountS1P1 = counts[1].nfoCounts()[0];
 
-        int mP1 = population1.size();
-        int mP2 = population2.size();
+        int mP1 = population1.length;
+        int mP2 = population2.length;
 
         double numerator = (1.0 / mP1) * nfoCountS1AndWP1;
         double denominator = (1.0 / mP1) * nfoCountS1P1 + (1.0 / mP2) * nfoCountS1AndWP2;
@@ -151,35 +124,19 @@ public class MultisubjectSummary {
      * Wzór (6.17) - kwalifikator W̃ odnosi się do P₁
      */
     public double calculateForm3() {
-        // nfo-count(S̃(P₁) ∩ W̃) - licznik (identyczny jak w Form 2)
-        double nfoCountS1AndWP1 = 0.0;
-        for (Property property : population1) {
-            double summarizerMembership = calculateSummarizerMembership(property);
-            double qualifierMembership = calculateQualifierMembership(property);
-
-            if (summarizerMembership == 1.0 && qualifierMembership == 1.0) {
-                nfoCountS1AndWP1 += 1.0;
-            }
-        }
-
-        // POPRAWKA: pierwszy składnik mianownika to nfo-count(S̃(P₁) ∩ W̃), nie nfo-count(S̃(P₁))
-        // Zgodnie ze wzorem (6.17)
-        double nfoCountS1AndWP1_denominator = nfoCountS1AndWP1; // ten sam co licznik
+        // nfo-count(S̃(P₁) ∩ W̃) - licznik i pierwszy składnik mianownika (wzór 6.17)
+        double nfoCountS1AndWP1 = PartitionIndex.aggregateRows(
+                this::calculateSummarizerAndQualifierMembership, List.of(population1)).nfoCounts()[0];
 
         // nfo-count(S̃(P₂)) - drugi składnik mianownika
-        double nfoCountS1P2 = 0.0;
-        for (Property property : population2) {
-            if (calculateSummarizerMembership(property) == 1.0) {
-                nfoCountS1P2 += 1.0;
-            }
-        }
+        double nfoCountS1P2 = PartitionIndex.aggregateRows(
+                this::calculateSummarizerMembership, List.of(population2)).nfoCounts()[0];
 
-        int mP1 = population1.size();
-        int mP2 = population2.size();
+        int mP1 = population1.length;
+        int mP2 = population2.length;
 
         double numerator = (1.0 / mP1) * nfoCountS1AndWP1;
-        // POPRAWKA: używamy nfoCountS1AndWP1, nie nfoCountS1P1
-        double denominator = (1.0 / mP1) * nfoCountS1AndWP1_denominator + (1.0 / mP2) * nfoCountS1P2;
+        double denominator = (1.0 / mP1) * nfoCountS1AndWP1 + (1.0 / mP2) * nfoCountS1P2;
 
         if (denominator == 0.0) return 0.0;
 
@@ -197,7 +154,7 @@ public class MultisubjectSummary {
             return 0.0;
         }
 
-        if (population1.isEmpty() || population2.isEmpty()) {
+        if (population1.length == 0 || population2.length == 0) {
             logger.warning("Both populations must be non-empty for form 4 calculation!");
             return 0.0;
         }
@@ -223,11 +180,11 @@ public class MultisubjectSummary {
      */
     private FuzzySet<String> createSummarizerFuzzySet(String populationName) {
         // Wybierz populację
-        List<Property> population = populationName.equals("P1") ? population1 : population2;
+        int[] population = populationName.equals("P1") ? population1 : population2;
 
         // Uniwersum: ID wszystkich nieruchomości w populacji
         List<String> universe = new ArrayList<>();
-        for (int i = 0; i < population.size(); i++) {
+        for (int i = 0; i < population.length; i++) {
             universe.add(populationName + "_property_" + i);
         }
 
@@ -241,9 +198,8 @@ public class MultisubjectSummary {
 
             try {
                 int index = Integer.parseInt(parts[2]);
-                if (index >= 0 && index < population.size()) {
-                    Property property = population.get(index);
-                    return calculateSummarizerMembership(property);
+                if (index >= 0 && index < population.length) {
+                    return calculateSummarizerMembership(population[index]);
                 }
             } catch (NumberFormatException e) {
                 logger.warning("Invalid property ID: " + propertyId);
@@ -281,43 +237,39 @@ public class MultisubjectSummary {
     /**
      * Calculate membership degree for summarizers
      */
-    private double calculateSummarizerMembership(Property property) {
+    private double calculateSummarizerMembership(int row) {
         double membership = 1.0;
 
-        for (Label summarizer : summarizers) {
-            String attributeName = summarizer.getAttributeName();
-            Function<Property, Double> extractor = attributeExtractors.get(attributeName);
-            if (extractor == null) {
-                logger.warning("No extractor found for attribute: " + attributeName);
-                return 0.0;
-            }
-
-            Double value = extractor.apply(property);
-            if (value == null) {
-                return 0.0;
-            }
-
-            membership = Math.min(membership, summarizer.getFuzzySet().membership(value));
+        for (double[] memberships : summarizerMemberships) {
+            membership = Math.min(membership, memberships[row]);
         }
 
         return membership;
     }
 
+    /**
+     * min(μS, μW) equals 1 exactly when the row fully satisfies both, so its nfo-count is nfo-count(S̃ ∩ W̃)
+     */
+    private double calculateSummarizerAndQualifierMembership(int row) {
+        return Math.min(calculateSummarizerMembership(row), calculateQualifierMembership(row));
+    }
+
+    /**
+     * min(μS, μW) and μS of the row, the summarizer evaluated once for both
+     */
+    private void calculateSummarizerAndQualifierMemberships(int row, double[] values) {
+        double summarizer = calculateSummarizerMembership(row);
+        values[0] = Math.min(summarizer, calculateQualifierMembership(row));
+        values[1] = summarizer;
+    }
+
     /**
      * Calculate membership degree for qualifier
      */
-    private double calculateQualifierMembership(Property property) {
+    private double calculateQualifierMembership(int row) {
         if (qualifier == null) return 1.0;
 
-        String attributeName = qualifier.getAttributeName();
-        Function<Property, Double> extractor = attributeExtractors.get(attributeName);
-        if (extractor != null) {
-            Double value = extractor.apply(property);
-            if (value != null) {
-                return qualifier.getFuzzySet().membership(value);
-            }
-        }
-        return 0.0;
+        return qualifierMemberships[row];
     }
 
 
@@ -336,6 +288,16 @@ public class MultisubjectSummary {
         }
     }
 
+    /**
+     * Degree of truth of the summary's own form, computed on first access and then cached.
+     */
+    public double getDegreeOfTruth() {
+        if (degreeOfTruth == null) {
+            degreeOfTruth = calculateFormByNumber(getFormNumber());
+        }
+        return degreeOfTruth;
+    }
+
     public double calculateFormByNumber(int formNumber) {
         return switch(formNumber) {
             case 1 -> calculateForm1();
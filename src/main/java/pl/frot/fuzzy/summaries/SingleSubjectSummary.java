@@ -1,15 +1,28 @@
 package pl.frot.fuzzy.summaries;
 
 import lombok.Getter;
-import pl.frot.data.Property;
+import pl.frot.data.PropertyColumns;
+import pl.frot.model.LabelMembershipCache;
 
 import java.util.*;
 import java.util.function.Function;
 import java.util.logging.Logger;
 
+/**
+ * Single-subject summary. Measures are computed lazily on first access: {@link #getMeasure(String)} evaluates only
+ * the requested one, {@link #getMeasures()} all of them.
+ */
 public class SingleSubjectSummary {
     private static final Logger logger = Logger.getLogger(SingleSubjectSummary.class.getName());
 
+    public static final List<String> MEASURE_NAMES = List.of(
+            "T1", "T2", "T3", "T4", "T5", "T6", "T7", "T8", "T9", "T10", "T11", "T*");
+    private static final int OPTIMAL = MEASURE_NAMES.size() - 1;
+    /**
+     * Weights of T1 ... T11 in T* when none are given.
+     */
+    public static final List<Double> DEFAULT_WAGES = List.of(0.7, 0.03, 0.03, 0.03, 0.03, 0.03, 0.03, 0.03, 0.03, 0.03, 0.03);
+
     @Getter
     private final Quantifier quantifier;
     @Getter
@@ -17,15 +30,32 @@ public class SingleSubjectSummary {
     @Getter
     private final List<Label> summarizers;
 
-    private final List<Property> properties;
-    private final Map<String, Function<Property, Double>> attributeExtractors;
-
+    /**
+     * Everything the data-dependent measures need; independent of the quantifier, so summaries that differ
+     * only in the quantifier can share it.
+     */
     @Getter
+    private final SummaryStatistics statistics;
+
+    private final double[] values = new double[MEASURE_NAMES.size()];
+    private int computed;   // bit i set once values[i] holds measure i
     private Map<String, Double> measures;
 
     public SingleSubjectSummary(Quantifier quantifier, Label qualifier, List<Label> summarizers,
-                                List<Property> properties,
-                                Map<String, Function<Property, Double>> attributeExtractors) {
+                                PropertyColumns columns) {
+        this(quantifier, qualifier, summarizers, label -> membershipVector(columns, label), columns.size());
+    }
+
+    /**
+     * Reads the label memberships from the shared cache instead of evaluating the labels again.
+     */
+    public SingleSubjectSummary(Quantifier quantifier, Label qualifier, List<Label> summarizers,
+                                LabelMembershipCache memberships) {
+        this(quantifier, qualifier, summarizers, memberships::get, memberships.size());
+    }
+
+    private SingleSubjectSummary(Quantifier quantifier, Label qualifier, List<Label> summarizers,
+                                 Function<Label, double[]> memberships, int rowCount) {
         this.quantifier = quantifier;
         this.qualifier = qualifier;
         if (summarizers.isEmpty()) {
@@ -33,68 +63,86 @@ public class SingleSubjectSummary {
             throw new IllegalArgumentException("Summarizers must contain at least 1 summarizer");
         }
         this.summarizers = summarizers;
-        this.properties = properties;
-        this.attributeExtractors = attributeExtractors;
 
-        createMeasures();
+        double[][] summarizerMemberships = new double[summarizers.size()][];
+        for (int j = 0; j < summarizers.size(); j++) {
+            summarizerMemberships[j] = memberships.apply(summarizers.get(j));
+        }
+        double[] qualifierMemberships = qualifier != null ? memberships.apply(qualifier) : null;
+        this.statistics = accumulate(summarizerMemberships, qualifierMemberships, rowCount);
     }
 
-    private void createMeasures() {
-        measures = new LinkedHashMap<>();
-        measures.put("T1", degreeOfTruth());
-        measures.put("T2", degreeOfImprecision());
-        measures.put("T3", degreeOfCovering());
-        measures.put("T4", degreeOfAppropriateness());
-        measures.put("T5", summaryLength());
-        measures.put("T6", degreeOfQuantifierImprecision());
-        measures.put("T7", degreeOfQuantifierCardinality());
-        measures.put("T8", degreeOfSummarizerCardinality());
-        measures.put("T9", degreeOfQualifierImprecision());
-        measures.put("T10", degreeOfQualifierCardinality());
-        measures.put("T11", qualifierLength());
-        measures.put("T*", optimalMeasure(List.of()));
+    /**
+     * Creates a summary whose data-dependent measures (T1, T3, T4) come from precomputed statistics,
+     * e.g. aggregated next to the database instead of over an in-memory list.
+     */
+    public SingleSubjectSummary(Quantifier quantifier, Label qualifier, List<Label> summarizers,
+                                SummaryStatistics statistics) {
+        this.quantifier = quantifier;
+        this.qualifier = qualifier;
+        if (summarizers.isEmpty()) {
+            logger.warning("Summarizers must contain at least 1 summarizer");
+            throw new IllegalArgumentException("Summarizers must contain at least 1 summarizer");
+        }
+        this.summarizers = summarizers;
+        this.statistics = statistics;
     }
 
-    public double degreeOfTruth() {
-        if (properties.isEmpty()) {
-            logger.warning("No data set for summary calculation!");
-            return 0.0;
+    /**
+     * Value of one measure ("T1" ... "T11", "T*"), computed on first access.
+     */
+    public double getMeasure(String name) {
+        int index = MEASURE_NAMES.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown measure: " + name);
         }
-
-        return qualifier == null ? calculateFirstForm() : calculateSecondForm();
+        return measure(index);
     }
 
-    private double calculateFirstForm() {
-        double sigmaCountS = 0.0;
-
-        for (Property property : properties) {
-            sigmaCountS += calculateSummarizerMembership(property);
+    private double measure(int index) {
+        if ((computed & (1 << index)) == 0) {
+            values[index] = computeMeasure(index);
+            computed |= 1 << index;
         }
+        return values[index];
+    }
 
-        if (quantifier.type() == QuantifierType.RELATIVE) {
-            sigmaCountS /= properties.size();
+    /**
+     * All measures in {@link #MEASURE_NAMES} order.
+     */
+    public Map<String, Double> getMeasures() {
+        if (measures == null) {
+            Map<String, Double> all = new LinkedHashMap<>();
+            for (String name : MEASURE_NAMES) {
+                all.put(name, getMeasure(name));
+            }
+            measures = all;
         }
-
-        return quantifier.fuzzySet().membership(sigmaCountS);
+        return measures;
     }
 
-    private double calculateSecondForm() {
-        double sigmaCountW = 0.0;
-        double sigmaCountSandW = 0.0;
-
-        for (Property property : properties) {
-            double summarizerMembership = calculateSummarizerMembership(property);
-            double qualifierMembership = calculateQualifierMembership(property);
-
-            sigmaCountSandW += Math.min(summarizerMembership, qualifierMembership);
-            sigmaCountW += qualifierMembership;
-        }
+    private double computeMeasure(int index) {
+        return switch (index) {
+            case 0 -> degreeOfTruth();
+            case 1 -> degreeOfImprecision();
+            case 2 -> degreeOfCovering();
+            case 3 -> degreeOfAppropriateness();
+            case 4 -> summaryLength();
+            case 5 -> degreeOfQuantifierImprecision();
+            case 6 -> degreeOfQuantifierCardinality();
+            case 7 -> degreeOfSummarizerCardinality();
+            case 8 -> degreeOfQualifierImprecision();
+            case 9 -> degreeOfQualifierCardinality();
+            case 10 -> qualifierLength();
+            default -> optimalMeasure(List.of());
+        };
+    }
 
-        if (sigmaCountW == 0.0) {
-            return 0.0;
+    public double degreeOfTruth() {
+        if (statistics.getCount() == 0) {
+            logger.warning("No data set for summary calculation!");
         }
-
-        return quantifier.fuzzySet().membership(sigmaCountSandW / sigmaCountW);
+        return statistics.degreeOfTruth(quantifier);
     }
 
     public double degreeOfImprecision() {
@@ -105,73 +153,21 @@ public class SingleSubjectSummary {
 
         double product = 1.0;
         for (Label summarizer : summarizers) {
-            product *= summarizer.getFuzzySet().getDegreeOfFuzziness();
+            product *= FuzzySetStatistics.of(summarizer.getFuzzySet()).degreeOfFuzziness();
         }
 
         return 1.0 - Math.pow(product, 1.0 / summarizers.size());
     }
 
     public double degreeOfCovering() {
-        if (qualifier == null) {
-            // FORMA 1
-            int supportCount = 0;
-            for (Property property : properties) {
-                if (calculateSummarizerMembership(property) > 0.0) {
-                    supportCount++;
-                }
-            }
-            return (double) supportCount / properties.size();
-
-        } else {
-            // FORMA 2
-            int supportW = 0;
-            int supportSAndW = 0;
-
-            for (Property property : properties) {
-                double qualifierMembership = calculateQualifierMembership(property);
-                if (qualifierMembership > 0.0) {
-                    supportW++;
-                    if (calculateSummarizerMembership(property) > 0.0) {
-                        supportSAndW++;
-                    }
-                }
-            }
-
-            if (supportW == 0) {
-                logger.warning("T3: No objects satisfy qualifier '" + qualifier.getName() + "'");
-                return 0.0;
-            }
-
-            return (double) supportSAndW / supportW;
+        if (statistics.isQualified() && statistics.getSupportW() == 0) {
+            logger.warning("T3: No objects satisfy qualifier '" + qualifier.getName() + "'");
         }
+        return statistics.degreeOfCovering();
     }
 
     public double degreeOfAppropriateness() {
-        double t3 = measures.get("T3");
-        double product = 1.0;
-
-        for (Label summarizer : summarizers) {
-            String attributeName = summarizer.getAttributeName();
-            Function<Property, Double> extractor = attributeExtractors.get(attributeName);
-
-            if (extractor == null) {
-                logger.warning("T4: No extractor for attribute: " + attributeName);
-                return 0.0;
-            }
-
-            int countSatisfying = 0;
-            for (Property property : properties) {
-                Double value = extractor.apply(property);
-                if (value != null && summarizer.getFuzzySet().membership(value) > 0.0) {
-                    countSatisfying++;
-                }
-            }
-
-            double rj = (double) countSatisfying / properties.size();
-            product *= rj;
-        }
-
-        return Math.abs(product - t3);
+        return statistics.degreeOfAppropriateness();
     }
 
     public double summaryLength() {
@@ -180,8 +176,9 @@ public class SingleSubjectSummary {
     }
 
     public double degreeOfQuantifierImprecision() {
-        int supportSize = quantifier.fuzzySet().getSupport().size();
-        int universeSize = quantifier.fuzzySet().getUniverse().getSamples().size();
+        FuzzySetStatistics quantifierStatistics = FuzzySetStatistics.of(quantifier.fuzzySet());
+        int supportSize = quantifierStatistics.supportSize();
+        int universeSize = quantifierStatistics.sampleCount();
 
         if (universeSize == 0) {
             logger.warning("T6: Empty universe");
@@ -192,8 +189,9 @@ public class SingleSubjectSummary {
     }
 
     public double degreeOfQuantifierCardinality() {
-        double sigmaCount = quantifier.fuzzySet().getSigmaCount();
-        int universeSize = quantifier.fuzzySet().getUniverse().getSamples().size();
+        FuzzySetStatistics quantifierStatistics = FuzzySetStatistics.of(quantifier.fuzzySet());
+        double sigmaCount = quantifierStatistics.sigmaCount();
+        int universeSize = quantifierStatistics.sampleCount();
 
         if (universeSize == 0) {
             logger.warning("T7: Empty universe");
@@ -211,8 +209,9 @@ public class SingleSubjectSummary {
 
         double product = 1.0;
         for (Label summarizer : summarizers) {
-            double sigmaCount = summarizer.getFuzzySet().getSigmaCount();
-            double universeSize = summarizer.getFuzzySet().getUniverse().getLength();
+            FuzzySetStatistics summarizerStatistics = FuzzySetStatistics.of(summarizer.getFuzzySet());
+            double sigmaCount = summarizerStatistics.sigmaCount();
+            double universeSize = summarizerStatistics.length();
 
             if (universeSize == 0) {
                 logger.warning("T8: Empty universe for summarizer: " + summarizer.getName());
@@ -232,7 +231,7 @@ public class SingleSubjectSummary {
             return 0.0;
         }
 
-        double degreeOfFuzziness = qualifier.getFuzzySet().getDegreeOfFuzziness();
+        double degreeOfFuzziness = FuzzySetStatistics.of(qualifier.getFuzzySet()).degreeOfFuzziness();
         return  1.0 - degreeOfFuzziness;
     }
 
@@ -241,8 +240,9 @@ public class SingleSubjectSummary {
             return 0.0;
         }
 
-        double sigmaCount = qualifier.getFuzzySet().getSigmaCount();
-        int universeSize = qualifier.getFuzzySet().getUniverse().getSamples().size();
+        FuzzySetStatistics qualifierStatistics = FuzzySetStatistics.of(qualifier.getFuzzySet());
+        double sigmaCount = qualifierStatistics.sigmaCount();
+        int universeSize = qualifierStatistics.sampleCount();
 
         if (universeSize == 0) {
             logger.warning("T10: Empty universe for qualifier");
@@ -258,24 +258,14 @@ public class SingleSubjectSummary {
 
     public double optimalMeasure(List<Double> wages) {
         if (wages.isEmpty()) {
-            wages = new ArrayList<>(List.of(0.7));
-            wages.addAll(Collections.nCopies(10, 0.03));
-            logger.info(wages.toString());
+            wages = DEFAULT_WAGES;
         }
 
-        logger.info(measures.values().toString());
-
-        return measures.get("T1") * wages.getFirst()
-                + measures.get("T2") * wages.get(1)
-                + measures.get("T3") * wages.get(2)
-                + measures.get("T4") * wages.get(3)
-                + measures.get("T5") * wages.get(4)
-                + measures.get("T6") * wages.get(5)
-                + measures.get("T7") * wages.get(6)
-                + measures.get("T8") * wages.get(7)
-                + measures.get("T9") * wages.get(8)
-                + measures.get("T10") * wages.get(9)
-                + measures.get("T11") * wages.get(10);
+        double optimal = measure(0) * wages.getFirst();
+        for (int index = 1; index < OPTIMAL; index++) {
+            optimal += measure(index) * wages.get(index);
+        }
+        return optimal;
     }
 
     public void recalculateMeasures(List<Double> wages) {
@@ -284,45 +274,48 @@ public class SingleSubjectSummary {
             return;
         }
         double optimal = optimalMeasure(wages);
-        measures.put("T*", optimal);
+        values[OPTIMAL] = optimal;
+        computed |= 1 << OPTIMAL;
+        if (measures != null) {
+            measures.put("T*", optimal);
+        }
     }
     
     // ============ UTILS ============
 
-    private double calculateSummarizerMembership(Property property) {
-        double membership = 1.0;
-
-        for (Label summarizer : summarizers) {
-            String attributeName = summarizer.getAttributeName();
-            Function<Property, Double> extractor = attributeExtractors.get(attributeName);
-            if (extractor == null) {
-                logger.warning("No extractor found for attribute: " + attributeName);
-                return 0.0;
-            }
-
-            Double value = extractor.apply(property);
-            if (value == null) {
-                return 0.0;
+    /**
+     * One pass over the rows accumulates everything T1, T3 and T4 need: ΣS, ΣW, ΣS∧W,
+     * the support counts and the per-summarizer supports r_j.
+     */
+    private static SummaryStatistics accumulate(double[][] summarizerMemberships, double[] qualifierMemberships,
+                                                int rowCount) {
+        SummaryStatistics statistics = new SummaryStatistics(summarizerMemberships.length, qualifierMemberships != null);
+        long[] summarizerSupports = new long[summarizerMemberships.length];
+
+        for (int row = 0; row < rowCount; row++) {
+            double s = 1.0;
+            for (int j = 0; j < summarizerMemberships.length; j++) {
+                double membership = summarizerMemberships[j][row];
+                if (membership > 0.0) {
+                    summarizerSupports[j]++;
+                }
+                s = Math.min(s, membership);
             }
-
-            membership = Math.min(membership, summarizer.getFuzzySet().membership(value));
+            statistics.accept(s, qualifierMemberships != null ? qualifierMemberships[row] : 1.0);
         }
 
-        return membership;
+        for (int j = 0; j < summarizerSupports.length; j++) {
+            statistics.addSummarizerSupport(j, summarizerSupports[j]);
+        }
+        return statistics;
     }
 
-    private double calculateQualifierMembership(Property property) {
-        if (qualifier == null) return 1.0;
-
-        String attributeName = qualifier.getAttributeName();
-        Function<Property, Double> extractor = attributeExtractors.get(attributeName);
-        if (extractor != null) {
-            Double value = extractor.apply(property);
-            if (value != null) {
-                return qualifier.getFuzzySet().membership(value);
-            }
+    private static double[] membershipVector(PropertyColumns columns, Label label) {
+        if (label.getAttributeId() < 0) {
+            logger.warning("No attribute column for label: " + label.getName());
+            throw new IllegalArgumentException("No attribute column for label: " + label.getName());
         }
-        return 0.0;
+        return label.membershipVector(columns);
     }
 
     // ===== GETTERY I TOSTRING =====
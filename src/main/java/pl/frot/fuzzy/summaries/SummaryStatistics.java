@@ -0,0 +1,266 @@
+package pl.frot.fuzzy.summaries;
+
+import lombok.Getter;
+
+/**
+ * Sufficient statistics of a single-subject summary: everything the data-dependent measures T1, T3 and T4 need.
+ * Rows are accumulated one by one; rows known to lie outside every support can be skipped in bulk.
+ */
+@Getter
+public class SummaryStatistics {
+    private final boolean qualified;
+
+    private long count;
+    private double sigmaS;      // Σ μS
+    private double sigmaW;      // Σ μW
+    private double sigmaSW;     // Σ min(μS, μW)
+    private long supportS;      // |supp S|
+    private long supportW;      // |supp W|
+    private long supportSW;     // |supp S ∩ supp W|
+    private long nfoS;          // nfo-count: rows with μS = 1
+    private long nfoSW;         // rows with μS = μW = 1
+    private final long[] summarizerSupports; // |supp Sj| for each summarizer, used by T4
+
+    // second moments, used for confidence intervals when the rows are a sample
+    private double sumSquaresS;     // Σ μS²
+    private double sumSquaresW;     // Σ μW²
+    private double sumSquaresSW;    // Σ min(μS, μW)²
+    private double sumProductSWW;   // Σ min(μS, μW)·μW
+
+    /**
+     * Number of objects the accumulated rows represent; differs from {@link #count} when the rows are a sample.
+     */
+    private long population = -1;
+
+    public SummaryStatistics(int summarizerCount, boolean qualified) {
+        this.qualified = qualified;
+        this.summarizerSupports = new long[summarizerCount];
+    }
+
+    /**
+     * Statistics aggregated elsewhere, e.g. by a database query.
+     */
+    public static SummaryStatistics of(boolean qualified, long count,
+                                       double sigmaS, double sigmaW, double sigmaSW,
+                                       long supportS, long supportW, long supportSW,
+                                       long[] summarizerSupports) {
+        SummaryStatistics statistics = new SummaryStatistics(summarizerSupports.length, qualified);
+        statistics.count = count;
+        statistics.sigmaS = sigmaS;
+        statistics.sigmaW = sigmaW;
+        statistics.sigmaSW = sigmaSW;
+        statistics.supportS = supportS;
+        statistics.supportW = supportW;
+        statistics.supportSW = supportSW;
+        System.arraycopy(summarizerSupports, 0, statistics.summarizerSupports, 0, summarizerSupports.length);
+        return statistics;
+    }
+
+    /**
+     * Adds one row given the memberships of every summarizer and of the qualifier (1.0 without qualifier).
+     */
+    public void accept(double[] summarizerMemberships, double qualifierMembership) {
+        double s = 1.0;
+        for (int j = 0; j < summarizerMemberships.length; j++) {
+            double membership = summarizerMemberships[j];
+            if (membership > 0.0) {
+                summarizerSupports[j]++;
+            }
+            s = Math.min(s, membership);
+        }
+        accept(s, qualifierMembership);
+    }
+
+    /**
+     * Adds one row given the conjunction of summarizers. Per-summarizer supports are not touched,
+     * they have to be supplied with {@link #addSummarizerSupport(int, long)}.
+     */
+    public void accept(double s, double w) {
+        double sw = Math.min(s, w);
+        count++;
+        sigmaS += s;
+        sigmaW += w;
+        sigmaSW += sw;
+        sumSquaresS += s * s;
+        sumSquaresW += w * w;
+        sumSquaresSW += sw * sw;
+        sumProductSWW += sw * w;
+        if (s > 0.0) {
+            supportS++;
+        }
+        if (s == 1.0) {
+            nfoS++;
+        }
+        if (sw == 1.0) {
+            nfoSW++;
+        }
+        if (w > 0.0) {
+            supportW++;
+            if (s > 0.0) {
+                supportSW++;
+            }
+        }
+    }
+
+    /**
+     * Removes a row previously added with {@link #accept(double[], double)} given the same memberships,
+     * e.g. when it leaves a sliding window.
+     */
+    public void remove(double[] summarizerMemberships, double qualifierMembership) {
+        double s = 1.0;
+        for (int j = 0; j < summarizerMemberships.length; j++) {
+            double membership = summarizerMemberships[j];
+            if (membership > 0.0) {
+                summarizerSupports[j]--;
+            }
+            s = Math.min(s, membership);
+        }
+
+        double w = qualifierMembership;
+        double sw = Math.min(s, w);
+        count--;
+        sigmaS -= s;
+        sigmaW -= w;
+        sigmaSW -= sw;
+        sumSquaresS -= s * s;
+        sumSquaresW -= w * w;
+        sumSquaresSW -= sw * sw;
+        sumProductSWW -= sw * w;
+        if (s > 0.0) {
+            supportS--;
+        }
+        if (s == 1.0) {
+            nfoS--;
+        }
+        if (sw == 1.0) {
+            nfoSW--;
+        }
+        if (w > 0.0) {
+            supportW--;
+            if (s > 0.0) {
+                supportSW--;
+            }
+        }
+
+        // sums over an empty support are exactly zero; clear rounding residue left by the subtractions
+        if (supportS == 0) {
+            sigmaS = 0.0;
+            sumSquaresS = 0.0;
+        }
+        if (supportW == 0) {
+            sigmaW = 0.0;
+            sumSquaresW = 0.0;
+        }
+        if (supportSW == 0) {
+            sigmaSW = 0.0;
+            sumSquaresSW = 0.0;
+            sumProductSWW = 0.0;
+        }
+    }
+
+    /**
+     * Adds statistics accumulated over a disjoint set of rows, e.g. another chunk, region or a batch of new rows.
+     */
+    public void merge(SummaryStatistics other) {
+        if (other.qualified != qualified || other.summarizerSupports.length != summarizerSupports.length) {
+            throw new IllegalArgumentException("Cannot merge statistics of different summary forms");
+        }
+        count += other.count;
+        sigmaS += other.sigmaS;
+        sigmaW += other.sigmaW;
+        sigmaSW += other.sigmaSW;
+        supportS += other.supportS;
+        supportW += other.supportW;
+        supportSW += other.supportSW;
+        nfoS += other.nfoS;
+        nfoSW += other.nfoSW;
+        sumSquaresS += other.sumSquaresS;
+        sumSquaresW += other.sumSquaresW;
+        sumSquaresSW += other.sumSquaresSW;
+        sumProductSWW += other.sumProductSWW;
+        for (int j = 0; j < summarizerSupports.length; j++) {
+            summarizerSupports[j] += other.summarizerSupports[j];
+        }
+    }
+
+    /**
+     * Counts rows that lie outside the supports of the summarizer conjunction and of the qualifier.
+     */
+    public void skip(long rows) {
+        count += rows;
+    }
+
+    public void addSummarizerSupport(int summarizerIndex, long rows) {
+        summarizerSupports[summarizerIndex] += rows;
+    }
+
+    /**
+     * Marks the accumulated rows as a sample of {@code population} objects. Absolute quantifiers are then
+     * applied to the sigma count extrapolated to the whole population.
+     */
+    public void setPopulation(long population) {
+        this.population = population;
+    }
+
+    public long getPopulation() {
+        return population < 0 ? count : population;
+    }
+
+    /**
+     * Fraction of the population covered by the accumulated rows.
+     */
+    public double samplingFraction() {
+        return getPopulation() == 0 ? 1.0 : (double) count / getPopulation();
+    }
+
+    // ==== MEASURES ====
+
+    /**
+     * T1 for the first form (Q P are S) or the second form (Q P being W are S).
+     */
+    public double degreeOfTruth(Quantifier quantifier) {
+        if (count == 0) {
+            return 0.0;
+        }
+
+        if (!qualified) {
+            double sigmaCount = sigmaS;
+            if (quantifier.type() == QuantifierType.RELATIVE) {
+                sigmaCount /= count;
+            } else if (population >= 0) {
+                sigmaCount *= (double) population / count;
+            }
+            return quantifier.fuzzySet().membership(sigmaCount);
+        }
+
+        if (sigmaW == 0.0) {
+            return 0.0;
+        }
+        return quantifier.fuzzySet().membership(sigmaSW / sigmaW);
+    }
+
+    /**
+     * T3 - share of the (qualified) objects lying in the support of the summarizer.
+     */
+    public double degreeOfCovering() {
+        if (!qualified) {
+            return count == 0 ? 0.0 : (double) supportS / count;
+        }
+        return supportW == 0 ? 0.0 : (double) supportSW / supportW;
+    }
+
+    /**
+     * T4 - |Π r_j - T3| where r_j is the share of objects in the support of the j-th summarizer.
+     */
+    public double degreeOfAppropriateness() {
+        if (count == 0) {
+            return 0.0;
+        }
+
+        double product = 1.0;
+        for (long support : summarizerSupports) {
+            product *= (double) support / count;
+        }
+        return Math.abs(product - degreeOfCovering());
+    }
+}
@@ -0,0 +1,68 @@
+package pl.frot.fx;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Receives summaries of a background job, maps them off the JavaFX thread and hands them to the view in batches
+ * through {@link Platform#runLater}, so the table grows while the job runs without flooding the event queue.
+ *
+ * @param <T> published summary
+ * @param <R> row of the table
+ */
+public class FxBatchSubscriber<T, R> implements Flow.Subscriber<T> {
+    private static final Logger logger = Logger.getLogger(FxBatchSubscriber.class.getName());
+
+    private static final int MAX_BATCH = 500;
+    private static final long MAX_DELAY_NANOS = 100_000_000;
+
+    private final Function<T, R> mapper;
+    private final Consumer<List<R>> onBatch;
+    private List<R> batch = new ArrayList<>();
+    private long lastFlushNanos = System.nanoTime();
+
+    public FxBatchSubscriber(Function<T, R> mapper, Consumer<List<R>> onBatch) {
+        this.mapper = mapper;
+        this.onBatch = onBatch;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(T item) {
+        batch.add(mapper.apply(item));
+        if (batch.size() >= MAX_BATCH || System.nanoTime() - lastFlushNanos >= MAX_DELAY_NANOS) {
+            flush();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        flush();
+        logger.warning("Summary job stopped: " + throwable.getMessage());
+    }
+
+    @Override
+    public void onComplete() {
+        flush();
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<R> ready = batch;
+        batch = new ArrayList<>();
+        lastFlushNanos = System.nanoTime();
+        Platform.runLater(() -> onBatch.accept(ready));
+    }
+}
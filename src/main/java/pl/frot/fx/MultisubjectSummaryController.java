@@ -10,13 +10,16 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.CheckBoxTableCell;
 import lombok.Setter;
+import pl.frot.data.ExportFormat;
 import pl.frot.fuzzy.summaries.Label;
 import pl.frot.fuzzy.summaries.MultisubjectSummary;
 import pl.frot.fuzzy.summaries.Quantifier;
 import pl.frot.model.MultisubjectSummaryDto;
+import pl.frot.model.SummaryJob;
 
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 public class MultisubjectSummaryController {
@@ -28,31 +31,39 @@ public class MultisubjectSummaryController {
     @FXML
     private TableView<MultisubjectSummaryDto> multisubjectTable;
 
+    private SummaryJob<MultisubjectSummary> job;
+
+    /**
+     * Generates the summaries in a background job, cancelling the previous one if it is still running.
+     */
     public void createMultisubjectSummaries() {
         List<List<Label>> labels = mainController.getParametersController().getToggledSummarizers();
         List<Label> qualifiers = mainController.getParametersController().getToggledQualifiers();
         List<Quantifier> quantifiers = mainController.getParametersController().getToggledQuantifiers();
 
-        List<MultisubjectSummary> summaries = mainController.getSummaryMachine().createMultisubjectSummaries(
-                quantifiers, qualifiers, labels);
-
-        List<MultisubjectSummaryDto> summaryDtos = new ArrayList<>();
-
-        for (MultisubjectSummary summary : summaries) {
-            int formNumber = summary.getFormNumber();
-            double degreeOfTruth = summary.calculateFormByNumber(formNumber);
-
-            MultisubjectSummaryDto dto = new MultisubjectSummaryDto(
-                    summary.toString(),
-                    degreeOfTruth,
-                    formNumber,
-                    new SimpleBooleanProperty(false)
-            );
-
-            summaryDtos.add(dto);
+        if (job != null) {
+            job.cancel();
         }
+        addSummariesToTable(List.of());
 
-        addSummariesToTable(summaryDtos);
+        SummaryJob<MultisubjectSummary> started = mainController.getSummaryMachine().createMultisubjectSummaryJob(
+                quantifiers, qualifiers, labels);
+        started.subscribe(new FxBatchSubscriber<>(MultisubjectSummaryController::toDto, batch -> {
+            if (job == started) {
+                multisubjectTable.getItems().addAll(batch);
+            }
+        }));
+        job = started;
+        started.start();
+    }
+
+    private static MultisubjectSummaryDto toDto(MultisubjectSummary summary) {
+        return new MultisubjectSummaryDto(
+                summary.toString(),
+                summary.getDegreeOfTruth(),
+                summary.getFormNumber(),
+                new SimpleBooleanProperty(false)
+        );
     }
 
     private void addSummariesToTable(List<MultisubjectSummaryDto> summaryDtos) {
@@ -95,14 +106,18 @@ public class MultisubjectSummaryController {
         multisubjectTable.getItems().addAll(summaryDtos);
     }
 
-    public void saveSummaries() {
+    /**
+     * Exports the selected summaries, the degree of truth as T1; the file is written in the background.
+     */
+    public void saveSummaries(Path path, ExportFormat format) {
         List<MultisubjectSummaryDto> selectedSummaries = multisubjectTable.getItems().stream()
                 .filter(MultisubjectSummaryDto::isSelected)
                 .toList();
-        List<String> summaries = selectedSummaries.stream()
-                .map(MultisubjectSummaryDto::summary)
-                .toList();
 
-        mainController.getSummaryMachine().saveToFile(summaries);
+        mainController.getSummaryMachine().exportSummaries(path, format, exporter -> {
+            for (MultisubjectSummaryDto summary : selectedSummaries) {
+                exporter.export(summary.summary(), Map.of("T1", summary.degreeOfTruth()));
+            }
+        });
     }
 }
\ No newline at end of file
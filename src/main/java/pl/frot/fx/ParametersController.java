@@ -171,7 +171,8 @@ public class ParametersController {
     }
 
     private void addNewQualifier(CustomLabelDto customLabelDto) {
-        Label label = new Label(customLabelDto.name(), customLabelDto.fuzzySet(), customLabelDto.lvName());
+        Label label = mainController.getSummaryMachine()
+                .createLabel(customLabelDto.name(), customLabelDto.fuzzySet(), customLabelDto.lvName());
         CheckBoxTreeItem<Object> labelTreeItem = new CheckBoxTreeItem<>(label);
         labelTreeItem.setSelected(false);
         for (TreeItem<Object> linguisticVariableItem : qualifiersTreeView.getRoot().getChildren()) {
@@ -184,7 +185,8 @@ public class ParametersController {
     }
 
     public void addNewSummarizer(CustomLabelDto customLabelDto) {
-        Label label = new Label(customLabelDto.name(), customLabelDto.fuzzySet(), customLabelDto.lvName());
+        Label label = mainController.getSummaryMachine()
+                .createLabel(customLabelDto.name(), customLabelDto.fuzzySet(), customLabelDto.lvName());
         CheckBoxTreeItem<Object> labelTreeItem = new CheckBoxTreeItem<>(label);
         labelTreeItem.setSelected(false);
         for (TreeItem<Object> linguisticVariableItem : linguisticVariableTreeView.getRoot().getChildren()) {
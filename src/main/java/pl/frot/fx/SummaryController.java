@@ -10,11 +10,14 @@ import javafx.scene.control.TableView;
 import javafx.scene.control.cell.CheckBoxTableCell;
 import javafx.util.Callback;
 import lombok.Setter;
+import pl.frot.data.ExportFormat;
 import pl.frot.fuzzy.summaries.Label;
 import pl.frot.fuzzy.summaries.Quantifier;
 import pl.frot.fuzzy.summaries.SingleSubjectSummary;
 import pl.frot.model.SummaryDto;
+import pl.frot.model.SummaryJob;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -27,6 +30,8 @@ public class SummaryController {
     @FXML
     private TableView<SummaryDto> summaryTable;
 
+    private SummaryJob<SingleSubjectSummary> job;
+
     private void addSummariesToTable(List<SummaryDto> summaryDtos) {
         summaryTable.getColumns().clear();
 
@@ -122,41 +127,63 @@ public class SummaryController {
         summaryTable.getItems().addAll(summaryDtos);
     }
 
+    /**
+     * Generates the summaries in a background job; rows are added to the table as they arrive.
+     * A job still running from the previous click is cancelled.
+     */
     public void createSingleSubjectSummaries() {
         List<List<Label>> labels = mainController.getParametersController().getToggledSummarizers();
         List<Label> qualifiers = mainController.getParametersController().getToggledQualifiers();
         List<Quantifier> quantifiers = mainController.getParametersController().getToggledQuantifiers();
 
-        List<SingleSubjectSummary> summaries = mainController.getSummaryMachine().createSingleSubjectSummaries(
+        if (job != null) {
+            job.cancel();
+        }
+        addSummariesToTable(List.of());
+
+        // selections over the generation budget fall back to the configured strategy (top K by default),
+        // never to streaming: the table keeps every row anyway
+        SummaryJob<SingleSubjectSummary> started = mainController.getSummaryMachine().createSingleSubjectSummaryJob(
                 quantifiers, qualifiers, labels);
+        started.subscribe(new FxBatchSubscriber<>(SummaryController::toDto, batch -> {
+            if (job == started) {
+                summaryTable.getItems().addAll(batch);
+            }
+        }));
+        started.onProgress(progress -> logger.fine(progress.toString()));
+        job = started;
+        started.start();
+    }
 
-        List<SummaryDto> summaryDtos = summaries.stream()
-                .map(s -> new SummaryDto(
-                        s.toString(),
-                        s.getMeasures().get("T1"),
-                        s.getMeasures().get("T2"),
-                        s.getMeasures().get("T3"),
-                        s.getMeasures().get("T4"),
-                        s.getMeasures().get("T5"),
-                        s.getMeasures().get("T6"),
-                        s.getMeasures().get("T7"),
-                        s.getMeasures().get("T8"),
-                        s.getMeasures().get("T9"),
-                        s.getMeasures().get("T10"),
-                        s.getMeasures().get("T11"),
-                        s.getMeasures().get("T*"),
-                        new SimpleBooleanProperty(false))
-                )
-                .toList();
-
-        addSummariesToTable(summaryDtos);
+    private static SummaryDto toDto(SingleSubjectSummary s) {
+        return new SummaryDto(
+                s.toString(),
+                s.getMeasures().get("T1"),
+                s.getMeasures().get("T2"),
+                s.getMeasures().get("T3"),
+                s.getMeasures().get("T4"),
+                s.getMeasures().get("T5"),
+                s.getMeasures().get("T6"),
+                s.getMeasures().get("T7"),
+                s.getMeasures().get("T8"),
+                s.getMeasures().get("T9"),
+                s.getMeasures().get("T10"),
+                s.getMeasures().get("T11"),
+                s.getMeasures().get("T*"),
+                new SimpleBooleanProperty(false));
     }
 
-    public void saveSummaries() {
+    /**
+     * Exports the selected summaries with all their measures; the file is written in the background.
+     */
+    public void saveSummaries(Path path, ExportFormat format) {
         List<SummaryDto> selectedSummaries = summaryTable.getItems().stream().filter(SummaryDto::isSelected).toList();
-        List<String> summaries = selectedSummaries.stream().map(SummaryDto::summary).toList();
 
-        mainController.getSummaryMachine().saveToFile(summaries);
+        mainController.getSummaryMachine().exportSummaries(path, format, exporter -> {
+            for (SummaryDto summary : selectedSummaries) {
+                exporter.export(summary.summary(), summary.measures());
+            }
+        });
     }
 
     // ==== UTILS ====
@@ -8,11 +8,15 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
+import javafx.stage.FileChooser;
+import pl.frot.data.ExportFormat;
 import pl.frot.fuzzy.base.*;
 import pl.frot.model.LabelType;
 import pl.frot.model.MembershipType;
 import pl.frot.model.NewLabelDto;
 
+import java.io.File;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.logging.Logger;
 
@@ -84,14 +88,32 @@ public class TopController {
 
         // Update save button to work with both views
         saveSummariesButton.setOnAction(e -> {
+            Path path = chooseExportFile();
+            if (path == null) {
+                return;
+            }
             if (mainController.isSingleSubjectViewActive()) {
-                mainController.getSummaryController().saveSummaries();
+                mainController.getSummaryController().saveSummaries(path, ExportFormat.of(path));
             } else if (mainController.isMultisubjectViewActive()) {
-                mainController.getMultisubjectSummaryController().saveSummaries();
+                mainController.getMultisubjectSummaryController().saveSummaries(path, ExportFormat.of(path));
             }
         });
     }
 
+    /**
+     * @return chosen file, {@code null} if the dialog was cancelled
+     */
+    private Path chooseExportFile() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Zapisz podsumowania");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv", "*.csv.gz"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl", "*.jsonl.gz"));
+        chooser.setInitialFileName("summaries.csv");
+        File file = chooser.showSaveDialog(saveSummariesButton.getScene().getWindow());
+        return file != null ? file.toPath() : null;
+    }
+
     public void createNewLabel() {
         LabelType labelType = labelTypeComboBox.getValue();
         String labelName = newLabelNameTextField.getText();
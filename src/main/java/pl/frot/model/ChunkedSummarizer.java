@@ -0,0 +1,101 @@
+package pl.frot.model;
+
+import pl.frot.data.ColumnarFile;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Out-of-core evaluation of single-subject summaries over a {@link ColumnarFile}.
+ * The file is scanned once, chunk by chunk; every chunk adds its sigma and support counts to the statistics of all
+ * summaries. Heap use is one membership vector of {@code chunkRows} per distinct label, independent of the file size.
+ */
+public class ChunkedSummarizer {
+    private static final Logger logger = Logger.getLogger(ChunkedSummarizer.class.getName());
+
+    private final ColumnarFile file;
+
+    public ChunkedSummarizer(ColumnarFile file) {
+        this.file = file;
+    }
+
+    public List<SingleSubjectSummary> summarize(List<SummarySpec> specs) throws IOException {
+        // distinct labels, each evaluated once per chunk
+        Map<Label, Integer> labelSlots = new IdentityHashMap<>();
+        List<Label> labels = new ArrayList<>();
+        for (SummarySpec spec : specs) {
+            for (Label summarizer : spec.summarizers()) {
+                slot(summarizer, labelSlots, labels);
+            }
+            if (spec.qualifier() != null) {
+                slot(spec.qualifier(), labelSlots, labels);
+            }
+        }
+
+        int[][] summarizerSlots = new int[specs.size()][];
+        int[] qualifierSlots = new int[specs.size()];
+        List<SummaryStatistics> statistics = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            SummarySpec spec = specs.get(i);
+            summarizerSlots[i] = spec.summarizers().stream().mapToInt(labelSlots::get).toArray();
+            qualifierSlots[i] = spec.qualifier() != null ? labelSlots.get(spec.qualifier()) : -1;
+            statistics.add(new SummaryStatistics(spec.summarizers().size(), spec.qualifier() != null));
+        }
+
+        double[] values = new double[file.chunkRows()];
+        double[][] memberships = new double[labels.size()][file.chunkRows()];
+        for (int chunk = 0; chunk < file.chunkCount(); chunk++) {
+            int chunkSize = file.rowsInChunk(chunk);
+            for (int slot = 0; slot < labels.size(); slot++) {
+                Label label = labels.get(slot);
+                file.readChunk(chunk, label.getAttributeId(), values);
+                for (int row = 0; row < chunkSize; row++) {
+                    memberships[slot][row] = label.membership(values[row]);
+                }
+            }
+
+            for (int i = 0; i < specs.size(); i++) {
+                accumulate(statistics.get(i), memberships, summarizerSlots[i], qualifierSlots[i], chunkSize);
+            }
+            logger.fine("Chunk " + (chunk + 1) + "/" + file.chunkCount() + " done");
+        }
+
+        List<SingleSubjectSummary> summaries = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            SummarySpec spec = specs.get(i);
+            summaries.add(new SingleSubjectSummary(spec.quantifier(), spec.qualifier(), spec.summarizers(), statistics.get(i)));
+        }
+        logger.info("Evaluated " + specs.size() + " summaries over " + file);
+        return summaries;
+    }
+
+    private static void accumulate(SummaryStatistics statistics, double[][] memberships,
+                                   int[] summarizerSlots, int qualifierSlot, int chunkSize) {
+        double[] rowMemberships = new double[summarizerSlots.length];
+        for (int row = 0; row < chunkSize; row++) {
+            for (int j = 0; j < summarizerSlots.length; j++) {
+                rowMemberships[j] = memberships[summarizerSlots[j]][row];
+            }
+            statistics.accept(rowMemberships, qualifierSlot >= 0 ? memberships[qualifierSlot][row] : 1.0);
+        }
+    }
+
+    private static void slot(Label label, Map<Label, Integer> labelSlots, List<Label> labels) {
+        if (label.getAttributeId() < 0 || label.getAttributeId() >= PropertyColumns.NUMERIC_ATTRIBUTES.size()) {
+            // derived attributes exist only in the in-memory columns
+            throw new IllegalArgumentException("No raw attribute column for label: " + label.getName());
+        }
+        labelSlots.computeIfAbsent(label, l -> {
+            labels.add(l);
+            return labels.size() - 1;
+        });
+    }
+}
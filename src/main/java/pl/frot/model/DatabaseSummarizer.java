@@ -0,0 +1,193 @@
+package pl.frot.model;
+
+import pl.frot.data.DataLoader;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.MembershipFunction;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.base.TriangularFunction;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Summarizes properties that live in the database.
+ * Supports of trapezoidal and triangular labels are pushed down as range predicates, so only rows that can have
+ * non-zero membership are fetched; exact memberships are then computed in Java.
+ * Only labels over stored attributes can be pushed down; derived columns exist in memory only.
+ */
+public class DatabaseSummarizer {
+    private static final Logger logger = Logger.getLogger(DatabaseSummarizer.class.getName());
+
+    /**
+     * Where candidate rows come from; the database by default.
+     */
+    interface PropertySource {
+        PropertyColumns load(SupportPredicate predicate);
+
+        long count(SupportPredicate predicate);
+    }
+
+    private static final PropertySource DATABASE = new PropertySource() {
+        @Override
+        public PropertyColumns load(SupportPredicate predicate) {
+            return DataLoader.loadPropertyColumns(0, predicate.jpql(), predicate.parameters());
+        }
+
+        @Override
+        public long count(SupportPredicate predicate) {
+            return DataLoader.countProperties(predicate.jpql(), predicate.parameters());
+        }
+    };
+
+    private final PropertySource source;
+    private long rowCount = -1;
+    private final Map<Label, Long> labelSupportCounts = new HashMap<>();
+    private final Map<Label, PropertyColumns> qualifierCandidates = new HashMap<>();
+
+    public DatabaseSummarizer() {
+        this(DATABASE);
+    }
+
+    DatabaseSummarizer(PropertySource source) {
+        this.source = source;
+    }
+
+    /**
+     * Whether the label's attribute is a column of the database table, i.e. not derived.
+     */
+    public static boolean isStored(Label label) {
+        return PropertyColumns.NUMERIC_ATTRIBUTES.contains(label.getAttributeName());
+    }
+
+    /**
+     * @throws IllegalArgumentException if a label is over a derived attribute, see {@link #isStored(Label)}
+     */
+    public SingleSubjectSummary summarize(Quantifier quantifier, Label qualifier, List<Label> summarizers) {
+        checkStored(qualifier);
+        summarizers.forEach(DatabaseSummarizer::checkStored);
+
+        SummaryStatistics statistics = qualifier == null
+                ? firstFormStatistics(summarizers)
+                : secondFormStatistics(qualifier, summarizers);
+
+        for (int j = 0; j < summarizers.size(); j++) {
+            statistics.addSummarizerSupport(j, labelSupportCount(summarizers.get(j)));
+        }
+
+        return new SingleSubjectSummary(quantifier, qualifier, summarizers, statistics);
+    }
+
+    /**
+     * Rows outside the conjunction of summarizer supports have μS = 0, so they are only counted.
+     */
+    private SummaryStatistics firstFormStatistics(List<Label> summarizers) {
+        PropertyColumns candidates = source.load(SupportPredicate.of(summarizers));
+        logger.fine("Fetched " + candidates.size() + " candidate rows for " + summarizers);
+
+        SummaryStatistics statistics = new SummaryStatistics(summarizers.size(), false);
+        for (int row = 0; row < candidates.size(); row++) {
+            statistics.accept(summarizerMembership(candidates, row, summarizers), 1.0);
+        }
+        statistics.skip(rowCount() - candidates.size());
+        return statistics;
+    }
+
+    /**
+     * ΣW needs every row in the qualifier's support; those rows are fetched once per qualifier and reused
+     * for all summarizer combinations.
+     */
+    private SummaryStatistics secondFormStatistics(Label qualifier, List<Label> summarizers) {
+        PropertyColumns candidates = qualifierCandidates.computeIfAbsent(qualifier,
+                q -> source.load(SupportPredicate.of(List.of(q))));
+
+        SummaryStatistics statistics = new SummaryStatistics(summarizers.size(), true);
+        for (int row = 0; row < candidates.size(); row++) {
+            double w = qualifier.membership(candidates, row);
+            statistics.accept(summarizerMembership(candidates, row, summarizers), w);
+        }
+        statistics.skip(rowCount() - candidates.size());
+        return statistics;
+    }
+
+    private long labelSupportCount(Label label) {
+        return labelSupportCounts.computeIfAbsent(label, l -> source.count(SupportPredicate.of(List.of(l))));
+    }
+
+    private long rowCount() {
+        if (rowCount < 0) {
+            rowCount = source.count(SupportPredicate.of(List.of()));
+        }
+        return rowCount;
+    }
+
+    // ==== UTILS ====
+
+    private static void checkStored(Label label) {
+        if (label != null && !isStored(label)) {
+            throw new IllegalArgumentException("Attribute '%s' of label '%s' is derived and not stored in the database"
+                    .formatted(label.getAttributeName(), label.getName()));
+        }
+    }
+
+    private static double summarizerMembership(PropertyColumns columns, int row, List<Label> summarizers) {
+        double membership = 1.0;
+        for (Label summarizer : summarizers) {
+            membership = Math.min(membership, summarizer.membership(columns, row));
+        }
+        return membership;
+    }
+
+    /**
+     * Conjunction of open support intervals (a, d) as a JPQL condition over alias {@code p}.
+     * Labels without a bounded support (e.g. gaussian) contribute no condition.
+     */
+    record SupportPredicate(String jpql, Map<String, Object> parameters, List<Label> labels) {
+
+        static SupportPredicate of(List<Label> labels) {
+            List<String> conditions = new ArrayList<>();
+            Map<String, Object> parameters = new HashMap<>();
+
+            for (int i = 0; i < labels.size(); i++) {
+                Label label = labels.get(i);
+                double[] support = support(label.getFuzzySet().getMembershipFunction());
+                if (support == null) {
+                    continue;
+                }
+                checkStored(label);
+
+                String attribute = "p." + label.getAttributeName();
+                conditions.add("%s > :lo%d and %s < :hi%d".formatted(attribute, i, attribute, i));
+                parameters.put("lo" + i, support[0]);
+                parameters.put("hi" + i, support[1]);
+            }
+
+            return new SupportPredicate(conditions.isEmpty() ? null : String.join(" and ", conditions), parameters, labels);
+        }
+
+        /**
+         * The same condition evaluated on a loaded row.
+         */
+        boolean test(PropertyColumns columns, int row) {
+            for (Label label : labels) {
+                double[] support = support(label.getFuzzySet().getMembershipFunction());
+                double value = columns.value(label.getAttributeId(), row);
+                if (support != null && !(value > support[0] && value < support[1])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static double[] support(MembershipFunction<Double> function) {
+            return switch (function) {
+                case TrapezoidalFunction trapezoidal -> new double[]{trapezoidal.getA(), trapezoidal.getD()};
+                case TriangularFunction triangular -> new double[]{triangular.getA(), triangular.getC()};
+                default -> null;
+            };
+        }
+    }
+}
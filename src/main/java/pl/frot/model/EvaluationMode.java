@@ -0,0 +1,8 @@
+package pl.frot.model;
+
+public enum EvaluationMode {
+    IN_MEMORY,          // all rows evaluated in Java
+    SUPPORT_PUSHDOWN,   // label supports filter rows in H2, memberships computed in Java
+    IN_DATABASE,        // whole summary aggregated by H2 with membership UDFs
+    SAMPLED             // T1, T3, T4 estimated on a random sample, see SamplingOptions
+}
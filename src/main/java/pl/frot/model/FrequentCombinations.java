@@ -0,0 +1,256 @@
+package pl.frot.model;
+
+import pl.frot.data.ColumnarFile;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.summaries.Label;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Level-wise (Apriori) enumeration of cross-list summarizer combinations whose support covers at least a given
+ * fraction of the objects, i.e. whose first-form T3 reaches the threshold.
+ * Adding a summarizer can only shrink the support, so a combination is a candidate only if all its sub-combinations
+ * passed, and combinations of length k are built by extending the ones that passed at length k - 1.
+ * Supports are counted in memory from the label memberships or, out of core, in chunked scans of a columnar file.
+ */
+public class FrequentCombinations {
+    private static final Logger logger = Logger.getLogger(FrequentCombinations.class.getName());
+
+    private FrequentCombinations() {
+    }
+
+    /**
+     * Combinations of {@link pl.frot.utils.SetOperations#getCrossListCombinations} that reach {@code minCoverage},
+     * in the same order.
+     */
+    public static List<List<Label>> mine(List<List<Label>> lists, int maxLength, double minCoverage,
+                                         LabelMembershipCache memberships) {
+        return mine(lists, maxLength, minCoverage, memberships.size(), new MembershipCounter(memberships));
+    }
+
+    /**
+     * Same combinations as {@link #mine(List, int, double, LabelMembershipCache)}, counted over a columnar file
+     * in one chunked scan per combination length instead of in memory.
+     */
+    public static List<List<Label>> mine(List<List<Label>> lists, int maxLength, double minCoverage,
+                                         ColumnarFile file) throws IOException {
+        try {
+            return mine(lists, maxLength, minCoverage, file.rows(), new ChunkedCounter(file));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static List<List<Label>> mine(List<List<Label>> lists, int maxLength, double minCoverage,
+                                          long rows, SupportCounter counter) {
+        List<Candidate> level = new ArrayList<>();
+        for (int list = 0; list < lists.size(); list++) {
+            for (int element = 0; element < lists.get(list).size(); element++) {
+                level.add(new Candidate(List.of(lists.get(list).get(element)), new int[]{list}, new int[]{element}));
+            }
+        }
+
+        List<List<Label>> frequent = new ArrayList<>();
+        long candidates = 0;
+        for (int length = 1; length <= maxLength && !level.isEmpty(); length++) {
+            if (length > 1) {
+                level = extend(level, lists);
+            }
+            candidates += level.size();
+
+            long[] supports = counter.count(level);
+            List<Candidate> passed = new ArrayList<>();
+            for (int i = 0; i < level.size(); i++) {
+                if (covers(supports[i], rows, minCoverage)) {
+                    passed.add(level.get(i));
+                }
+            }
+            passed.sort(Candidate.ORDER);
+            for (Candidate candidate : passed) {
+                frequent.add(candidate.labels());
+            }
+            level = passed;
+        }
+
+        logger.info(String.format("%d of %d candidate combinations cover at least %.3f of the objects",
+                frequent.size(), candidates, minCoverage));
+        return frequent;
+    }
+
+    // ==== UTILS ====
+
+    /**
+     * Joins every combination that passed with one label of a later list; a candidate is kept only if all its
+     * sub-combinations one label shorter passed as well.
+     */
+    private static List<Candidate> extend(List<Candidate> previous, List<List<Label>> lists) {
+        Set<List<Label>> passed = new HashSet<>();
+        for (Candidate candidate : previous) {
+            passed.add(candidate.labels());
+        }
+
+        List<Candidate> extended = new ArrayList<>();
+        for (Candidate prefix : previous) {
+            int lastList = prefix.listIds()[prefix.listIds().length - 1];
+            for (int list = lastList + 1; list < lists.size(); list++) {
+                for (int element = 0; element < lists.get(list).size(); element++) {
+                    List<Label> labels = new ArrayList<>(prefix.labels());
+                    labels.add(lists.get(list).get(element));
+                    if (!allSubsetsPassed(labels, passed)) {
+                        continue;
+                    }
+                    extended.add(new Candidate(List.copyOf(labels), append(prefix.listIds(), list),
+                            append(prefix.elementIds(), element)));
+                }
+            }
+        }
+        return extended;
+    }
+
+    private static boolean allSubsetsPassed(List<Label> labels, Set<List<Label>> passed) {
+        // dropping the last label gives the prefix, which passed by construction
+        for (int skip = 0; skip < labels.size() - 1; skip++) {
+            List<Label> subset = new ArrayList<>(labels);
+            subset.remove(skip);
+            if (!passed.contains(subset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean covers(long support, long rows, double minCoverage) {
+        double coverage = rows == 0 ? 0.0 : (double) support / rows;
+        return coverage >= minCoverage;
+    }
+
+    private static int[] append(int[] ids, int id) {
+        int[] appended = Arrays.copyOf(ids, ids.length + 1);
+        appended[ids.length] = id;
+        return appended;
+    }
+
+    private record Candidate(List<Label> labels, int[] listIds, int[] elementIds) {
+        /**
+         * Order of {@link pl.frot.utils.SetOperations#getCrossListCombinations} within one length:
+         * by the chosen lists, then by the chosen elements.
+         */
+        static final Comparator<Candidate> ORDER = (first, second) -> {
+            int byLists = Arrays.compare(first.listIds(), second.listIds());
+            return byLists != 0 ? byLists : Arrays.compare(first.elementIds(), second.elementIds());
+        };
+    }
+
+    /**
+     * Support sizes (rows with non-zero membership in every label) of the candidates of one level.
+     * Levels are counted in order, each one extending the combinations of the previous one.
+     */
+    private interface SupportCounter {
+        long[] count(List<Candidate> level);
+    }
+
+    /**
+     * Keeps the supports of the last level as bitsets of rows; extending a combination costs one AND.
+     */
+    private static class MembershipCounter implements SupportCounter {
+        private final LabelMembershipCache memberships;
+        private final Map<Label, BitSet> labelSupports = new IdentityHashMap<>();
+        private Map<List<Label>, BitSet> previous = Map.of();
+
+        MembershipCounter(LabelMembershipCache memberships) {
+            this.memberships = memberships;
+        }
+
+        @Override
+        public long[] count(List<Candidate> level) {
+            Map<List<Label>, BitSet> supports = new HashMap<>();
+            long[] counts = new long[level.size()];
+            for (int i = 0; i < level.size(); i++) {
+                List<Label> labels = level.get(i).labels();
+                BitSet last = labelSupports.computeIfAbsent(labels.getLast(), this::support);
+                BitSet support = last;
+                if (labels.size() > 1) {
+                    support = (BitSet) previous.get(labels.subList(0, labels.size() - 1)).clone();
+                    support.and(last);
+                }
+                supports.put(labels, support);
+                counts[i] = support.cardinality();
+            }
+            previous = supports;
+            return counts;
+        }
+
+        private BitSet support(Label label) {
+            double[] values = memberships.get(label);
+            BitSet support = new BitSet(values.length);
+            for (int row = 0; row < values.length; row++) {
+                if (values[row] > 0.0) {
+                    support.set(row);
+                }
+            }
+            return support;
+        }
+    }
+
+    /**
+     * Scans the file once per level; only the supports of the current chunk are kept, one bitset per distinct label.
+     */
+    private static class ChunkedCounter implements SupportCounter {
+        private final ColumnarFile file;
+
+        ChunkedCounter(ColumnarFile file) {
+            this.file = file;
+        }
+
+        @Override
+        public long[] count(List<Candidate> level) {
+            Map<Label, Integer> labelSlots = new IdentityHashMap<>();
+            List<Label> labels = new ArrayList<>();
+            int[][] candidateSlots = new int[level.size()][];
+            for (int i = 0; i < level.size(); i++) {
+                candidateSlots[i] = level.get(i).labels().stream().mapToInt(label -> labelSlots.computeIfAbsent(label, l -> {
+                    if (l.getAttributeId() < 0 || l.getAttributeId() >= PropertyColumns.NUMERIC_ATTRIBUTES.size()) {
+                        throw new IllegalArgumentException("No raw attribute column for label: " + l.getName());
+                    }
+                    labels.add(l);
+                    return labels.size() - 1;
+                })).toArray();
+            }
+
+            long[] counts = new long[level.size()];
+            double[] values = new double[file.chunkRows()];
+            BitSet[] chunkSupports = new BitSet[labels.size()];
+            try {
+                for (int chunk = 0; chunk < file.chunkCount(); chunk++) {
+                    int chunkSize = file.rowsInChunk(chunk);
+                    for (int slot = 0; slot < labels.size(); slot++) {
+                        Label label = labels.get(slot);
+                        file.readChunk(chunk, label.getAttributeId(), values);
+                        BitSet support = new BitSet(chunkSize);
+                        for (int row = 0; row < chunkSize; row++) {
+                            if (label.membership(values[row]) > 0.0) {
+                                support.set(row);
+                            }
+                        }
+                        chunkSupports[slot] = support;
+                    }
+
+                    for (int i = 0; i < level.size(); i++) {
+                        int[] slots = candidateSlots[i];
+                        BitSet support = (BitSet) chunkSupports[slots[0]].clone();
+                        for (int j = 1; j < slots.length; j++) {
+                            support.and(chunkSupports[slots[j]]);
+                        }
+                        counts[i] += support.cardinality();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return counts;
+        }
+    }
+}
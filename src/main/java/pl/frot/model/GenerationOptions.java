@@ -0,0 +1,58 @@
+package pl.frot.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Settings of summary generation.
+ */
+@Getter
+@Setter
+public class GenerationOptions {
+    /**
+     * Number of worker threads evaluating summaries; 1 evaluates everything on the calling thread.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * Smallest number of summaries evaluated by one fork-join task.
+     */
+    private int batchSize = 64;
+    /**
+     * Smallest share of objects the support of a summarizer combination must cover (T3 of the first form);
+     * first-form summaries of combinations below it are not generated, nor of their extensions.
+     * Second-form summaries keep every combination. 0 generates every combination.
+     */
+    private double minCoverage = 0.0;
+    /**
+     * Largest number of summarizers joined in one conjunction.
+     */
+    private int maxSummarizers = 3;
+
+    // ==== BUDGET ====
+
+    /**
+     * Strategy used whatever the size of the selection; null picks one by the budget.
+     */
+    private GenerationStrategy strategy;
+    /**
+     * Most summaries generated exhaustively; larger selections switch to {@link #overBudgetStrategy}.
+     */
+    private long summaryBudget = 200_000;
+    /**
+     * Most bytes the generated summaries may take; larger selections switch to {@link #overBudgetStrategy}.
+     */
+    private long memoryBudget = Runtime.getRuntime().maxMemory() / 2;
+    /**
+     * Strategy of selections over the budget; {@link GenerationStrategy#STREAMING} falls back to the top K
+     * for callers that keep every summary anyway.
+     */
+    private GenerationStrategy overBudgetStrategy = GenerationStrategy.TOP_K;
+    /**
+     * Number of summaries kept by the {@link GenerationStrategy#TOP_K} and {@link GenerationStrategy#SAMPLED} strategies.
+     */
+    private int topK = 100;
+    /**
+     * Measure the {@link GenerationStrategy#TOP_K} strategy ranks by, "T1" or "T*".
+     */
+    private String rankingMeasure = "T*";
+}
@@ -0,0 +1,8 @@
+package pl.frot.model;
+
+public enum GenerationStrategy {
+    EXHAUSTIVE,     // every summary evaluated and kept
+    STREAMING,      // every summary evaluated and handed over one by one, nothing kept
+    TOP_K,          // only the best summaries by T*, found by branch and bound
+    SAMPLED         // every summary ranked on a sample, the best ones re-evaluated exactly
+}
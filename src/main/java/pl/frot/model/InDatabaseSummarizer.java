@@ -0,0 +1,132 @@
+package pl.frot.model;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import pl.frot.data.H2MembershipFunctions;
+import pl.frot.data.HibernateUtil;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.GaussianFunction;
+import pl.frot.fuzzy.base.MembershipFunction;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.base.TriangularFunction;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Evaluates single-subject summaries inside H2.
+ * A summary is compiled into one aggregate query over the membership UDFs from {@link H2MembershipFunctions},
+ * so only the sigma counts and support counts leave the database.
+ */
+public class InDatabaseSummarizer {
+    private static final Logger logger = Logger.getLogger(InDatabaseSummarizer.class.getName());
+
+    private static final String TABLE = "properties";
+
+    private boolean functionsRegistered = false;
+
+    public SingleSubjectSummary summarize(Quantifier quantifier, Label qualifier, List<Label> summarizers) {
+        try (EntityManager em = HibernateUtil.getEntityManagerFactory().createEntityManager()) {
+            return em.unwrap(Session.class).doReturningWork(connection -> {
+                if (!functionsRegistered) {
+                    H2MembershipFunctions.register(connection);
+                    functionsRegistered = true;
+                }
+                return summarize(connection, quantifier, qualifier, summarizers);
+            });
+        }
+    }
+
+    /**
+     * Runs the compiled query on the given connection; membership functions must already be registered.
+     */
+    public static SingleSubjectSummary summarize(Connection connection, Quantifier quantifier,
+                                                 Label qualifier, List<Label> summarizers) throws SQLException {
+        String query = compile(qualifier, summarizers);
+        logger.fine(query);
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            resultSet.next();
+
+            long[] summarizerSupports = new long[summarizers.size()];
+            for (int j = 0; j < summarizerSupports.length; j++) {
+                summarizerSupports[j] = resultSet.getLong(8 + j);
+            }
+
+            SummaryStatistics statistics = SummaryStatistics.of(
+                    qualifier != null,
+                    resultSet.getLong(1),
+                    resultSet.getDouble(2),
+                    resultSet.getDouble(3),
+                    resultSet.getDouble(4),
+                    resultSet.getLong(5),
+                    resultSet.getLong(6),
+                    resultSet.getLong(7),
+                    summarizerSupports);
+
+            return new SingleSubjectSummary(quantifier, qualifier, summarizers, statistics);
+        }
+    }
+
+    /**
+     * Compiles the summary into a single aggregate query. Memberships are computed once per row
+     * in the inner select; the outer select accumulates the statistics in {@link SummaryStatistics} order.
+     */
+    public static String compile(Label qualifier, List<Label> summarizers) {
+        if (summarizers.isEmpty()) {
+            throw new IllegalArgumentException("Summarizers must contain at least 1 summarizer");
+        }
+
+        List<String> memberships = new ArrayList<>();
+        List<String> columns = new ArrayList<>();
+        for (int j = 0; j < summarizers.size(); j++) {
+            memberships.add(membershipExpression(summarizers.get(j)) + " AS m" + j);
+            columns.add("m" + j);
+        }
+        memberships.add((qualifier == null ? "1.0" : membershipExpression(qualifier)) + " AS w");
+
+        String s = columns.size() == 1 ? columns.getFirst() : "LEAST(" + String.join(", ", columns) + ")";
+
+        StringBuilder query = new StringBuilder("SELECT COUNT(*)")
+                .append(", COALESCE(SUM(").append(s).append("), 0)")
+                .append(", COALESCE(SUM(w), 0)")
+                .append(", COALESCE(SUM(LEAST(").append(s).append(", w)), 0)")
+                .append(", COUNT(CASE WHEN ").append(s).append(" > 0 THEN 1 END)")
+                .append(", COUNT(CASE WHEN w > 0 THEN 1 END)")
+                .append(", COUNT(CASE WHEN ").append(s).append(" > 0 AND w > 0 THEN 1 END)");
+        for (String column : columns) {
+            query.append(", COUNT(CASE WHEN ").append(column).append(" > 0 THEN 1 END)");
+        }
+
+        return query.append(" FROM (SELECT ")
+                .append(String.join(", ", memberships))
+                .append(" FROM ").append(TABLE).append(") AS memberships")
+                .toString();
+    }
+
+    private static String membershipExpression(Label label) {
+        String attribute = label.getAttributeName();
+        if (!PropertyColumns.NUMERIC_ATTRIBUTES.contains(attribute)) {
+            throw new IllegalArgumentException("Unknown attribute: " + attribute);
+        }
+
+        MembershipFunction<Double> function = label.getFuzzySet().getMembershipFunction();
+        return switch (function) {
+            case TrapezoidalFunction f -> "TRAP(%s, %s, %s, %s, %s)".formatted(attribute, f.getA(), f.getB(), f.getC(), f.getD());
+            case TriangularFunction f -> "TRI(%s, %s, %s, %s)".formatted(attribute, f.getA(), f.getB(), f.getC());
+            case GaussianFunction f -> "GAUSS(%s, %s, %s)".formatted(attribute, f.getCenter(), f.getSigma());
+            default -> throw new IllegalArgumentException(
+                    "Membership function of label '" + label.getName() + "' cannot be compiled into SQL");
+        };
+    }
+}
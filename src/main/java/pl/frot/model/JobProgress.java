@@ -0,0 +1,34 @@
+package pl.frot.model;
+
+/**
+ * Snapshot of a running {@link SummaryJob}.
+ *
+ * @param done         summaries delivered so far
+ * @param total        summaries the job will deliver, -1 if not known in advance
+ * @param elapsedNanos time since the job was started
+ */
+public record JobProgress(long done, long total, long elapsedNanos) {
+
+    /**
+     * Share of the work done, -1 if the total is not known.
+     */
+    public double fraction() {
+        if (total < 0) {
+            return -1.0;
+        }
+        return total == 0 ? 1.0 : (double) done / total;
+    }
+
+    /**
+     * Summaries per second.
+     */
+    public double throughput() {
+        return elapsedNanos == 0 ? 0.0 : done * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        String of = total < 0 ? "" : "/" + total;
+        return String.format("%d%s summaries, %.0f/s", done, of, throughput());
+    }
+}
@@ -0,0 +1,121 @@
+package pl.frot.model;
+
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.summaries.Label;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Membership vectors of labels over the loaded columns, one per label.
+ * Every label is evaluated once for the whole dataset instead of once per summary and measure;
+ * summaries only read the cached vectors. Only the labels passed to {@link #build} are kept (the loaded ones,
+ * custom ones from {@link SummaryMachine#createLabel} and tracked ones); others are evaluated on every use,
+ * so throw-away labels do not pile up in the cache.
+ */
+public class LabelMembershipCache {
+    private static final Logger logger = Logger.getLogger(LabelMembershipCache.class.getName());
+
+    private final PropertyColumns columns;
+    // labels compare by identity, so each label object gets its own vector
+    private final Map<Label, double[]> memberships = new ConcurrentHashMap<>();
+    private final Map<Label, Long> supportCounts = new ConcurrentHashMap<>();
+    private volatile int rows;
+
+    public LabelMembershipCache(PropertyColumns columns) {
+        this.columns = columns;
+        this.rows = columns.size();
+    }
+
+    /**
+     * Evaluates the labels in parallel, one label per task. Excludes {@link #update()}, so a label built while rows
+     * are appended is extended like the others.
+     */
+    public synchronized void build(Collection<Label> labels) {
+        long start = System.nanoTime();
+        labels.parallelStream()
+                .filter(label -> !memberships.containsKey(label))
+                .forEach(label -> memberships.put(label, evaluate(label)));
+        logger.info(String.format("Cached memberships of %s labels over %s rows in %s ms",
+                memberships.size(), rows, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    /**
+     * Memberships of all rows; only the first {@link #size()} entries are valid.
+     */
+    public double[] get(Label label) {
+        double[] vector = memberships.get(label);
+        return vector != null ? vector : evaluate(label);
+    }
+
+    /**
+     * Number of rows with non-zero membership, i.e. |supp S| used for r_j in T4.
+     */
+    public long supportCount(Label label) {
+        if (!memberships.containsKey(label)) {
+            return countSupport(evaluate(label));
+        }
+        return supportCounts.computeIfAbsent(label, l -> countSupport(get(l)));
+    }
+
+    /**
+     * Extends every cached vector with the rows appended to the columns since the last update.
+     *
+     * @return number of new rows
+     */
+    public synchronized int update() {
+        int from = rows;
+        int to = columns.size();
+        if (from == to) {
+            return 0;
+        }
+
+        memberships.replaceAll((label, vector) -> extend(label, vector, from, to));
+        supportCounts.clear();
+        rows = to;
+        return to - from;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public PropertyColumns getColumns() {
+        return columns;
+    }
+
+    public void clear() {
+        memberships.clear();
+        supportCounts.clear();
+    }
+
+    // ==== UTILS ====
+
+    private long countSupport(double[] vector) {
+        long count = 0;
+        for (int row = 0; row < rows; row++) {
+            if (vector[row] > 0.0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private double[] evaluate(Label label) {
+        if (label.getAttributeId() < 0) {
+            throw new IllegalArgumentException("No attribute column for label: " + label.getName());
+        }
+        return label.membershipVector(columns);
+    }
+
+    private double[] extend(Label label, double[] vector, int from, int to) {
+        double[] extended = vector.length >= to ? vector : Arrays.copyOf(vector, Math.max(to, vector.length * 2));
+        for (int row = from; row < to; row++) {
+            extended[row] = label.membership(columns, row);
+        }
+        return extended;
+    }
+}
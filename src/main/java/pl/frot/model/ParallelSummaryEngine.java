@@ -0,0 +1,207 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.MultisubjectSummary;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Evaluates summaries on a fork-join pool. Work is split into index ranges and every result is written to its own
+ * slot, so the output is deterministic and in the same order as the sequential generation.
+ */
+public class ParallelSummaryEngine {
+    private static final Logger logger = Logger.getLogger(ParallelSummaryEngine.class.getName());
+
+    private final GenerationOptions options;
+    private ForkJoinPool pool;
+
+    public ParallelSummaryEngine(GenerationOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Evaluates single-subject summaries in memory. The statistics of every (qualifier, summarizers) pair are computed
+     * once through a {@link SummarizerLattice}, split by qualifier and lattice subtree, and the summaries are then
+     * built from them in parallel.
+     */
+    public List<SingleSubjectSummary> summarize(List<SummarySpec> specs, LabelMembershipCache memberships) {
+        List<SingleSubjectSummary> summaries = new ArrayList<>(specs.size());
+        summarize(specs, memberships, () -> false, summaries::add);
+        return summaries;
+    }
+
+    /**
+     * Same summaries as {@link #summarize(List, LabelMembershipCache)}, handed to the sink in the order of the specs.
+     * Qualifiers are evaluated one after another, so the summaries of each are published as soon as its statistics
+     * are ready instead of after all of them. Once {@code cancelled} returns true no further range is started and
+     * a {@link CancellationException} is thrown.
+     */
+    public void summarize(List<SummarySpec> specs, LabelMembershipCache memberships,
+                          BooleanSupplier cancelled, Consumer<SingleSubjectSummary> sink) {
+        long start = System.nanoTime();
+
+        Set<List<Label>> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<List<Label>> combinations = new ArrayList<>();
+        Map<Label, Integer> qualifierIds = new IdentityHashMap<>();
+        List<Label> qualifiers = new ArrayList<>();
+        int firstFormId = -1;
+        int[] specQualifiers = new int[specs.size()];
+        for (int i = 0; i < specs.size(); i++) {
+            SummarySpec spec = specs.get(i);
+            if (distinct.add(spec.summarizers())) {
+                combinations.add(spec.summarizers());
+            }
+            if (spec.qualifier() == null) {
+                if (firstFormId < 0) {
+                    firstFormId = qualifiers.size();
+                    qualifiers.add(null);
+                }
+                specQualifiers[i] = firstFormId;
+            } else {
+                specQualifiers[i] = qualifierIds.computeIfAbsent(spec.qualifier(), q -> {
+                    qualifiers.add(q);
+                    return qualifiers.size() - 1;
+                });
+            }
+        }
+
+        SummarizerLattice lattice = new SummarizerLattice(combinations, memberships);
+        int subtrees = lattice.subtreeCount();
+        SummaryStatistics[][] statistics = new SummaryStatistics[qualifiers.size()][];
+        int published = 0;
+        // qualifier ids follow the first occurrence in the specs, so after qualifier q every spec up to
+        // the first one of a later qualifier can be built
+        for (int q = 0; q < qualifiers.size(); q++) {
+            Label qualifier = qualifiers.get(q);
+            SummaryStatistics[] qualified = statistics[q] = new SummaryStatistics[lattice.size()];
+            forEach(0, subtrees, 1, cancelled, subtree -> lattice.statistics(qualifier, subtree, qualified));
+
+            int ready = published;
+            while (ready < specs.size() && specQualifiers[ready] <= q) {
+                ready++;
+            }
+            int from = published;
+            List<SingleSubjectSummary> range = map(ready - from, cancelled, i -> {
+                SummarySpec spec = specs.get(from + i);
+                return new SingleSubjectSummary(spec.quantifier(), spec.qualifier(), spec.summarizers(),
+                        statistics[specQualifiers[from + i]][lattice.indexOf(spec.summarizers())]);
+            });
+            range.forEach(sink);
+            published = ready;
+        }
+
+        logger.info(String.format("Evaluated %s summaries on %s threads in %s ms",
+                published, options.getParallelism(), (System.nanoTime() - start) / 1_000_000));
+    }
+
+    /**
+     * Computes the degree of truth of every multisubject summary in parallel; the values are cached in the summaries.
+     */
+    public void evaluate(List<MultisubjectSummary> summaries) {
+        forEach(0, summaries.size(), options.getBatchSize(), () -> false, i -> summaries.get(i).getDegreeOfTruth());
+    }
+
+    /**
+     * Evaluates the summaries range by range and hands every finished range to the sink in list order;
+     * stops with a {@link CancellationException} once {@code cancelled} returns true.
+     */
+    public void evaluate(List<MultisubjectSummary> summaries, BooleanSupplier cancelled,
+                         Consumer<MultisubjectSummary> sink) {
+        int rangeSize = Math.max(options.getBatchSize(), 1) * Math.max(options.getParallelism(), 1);
+        for (int from = 0; from < summaries.size(); from += rangeSize) {
+            int to = Math.min(from + rangeSize, summaries.size());
+            forEach(from, to, options.getBatchSize(), cancelled, i -> summaries.get(i).getDegreeOfTruth());
+            summaries.subList(from, to).forEach(sink);
+        }
+    }
+
+    /**
+     * Results of {@code task(0)}, ..., {@code task(count - 1)}, in index order.
+     */
+    public <T> List<T> map(int count, IntFunction<T> task) {
+        return map(count, () -> false, task);
+    }
+
+    private <T> List<T> map(int count, BooleanSupplier cancelled, IntFunction<T> task) {
+        Object[] results = new Object[count];
+        forEach(0, count, options.getBatchSize(), cancelled, i -> results[i] = task.apply(i));
+        @SuppressWarnings("unchecked")
+        List<T> list = (List<T>) Arrays.asList(results);
+        return new ArrayList<>(list);
+    }
+
+    private void forEach(int from, int to, int batchSize, BooleanSupplier cancelled, IntConsumer task) {
+        if (options.getParallelism() <= 1 || to - from <= batchSize) {
+            for (int i = from; i < to; i++) {
+                checkCancelled(cancelled);
+                task.accept(i);
+            }
+            return;
+        }
+        pool().invoke(new RangeTask(from, to, Math.max(batchSize, 1), cancelled, task));
+    }
+
+    private static void checkCancelled(BooleanSupplier cancelled) {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("Evaluation cancelled");
+        }
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null || pool.getParallelism() != options.getParallelism()) {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            pool = new ForkJoinPool(options.getParallelism());
+        }
+        return pool;
+    }
+
+    // never serialized, the callbacks only live for one invocation on the pool
+    @SuppressWarnings("serial")
+    private static class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int batchSize;
+        private final BooleanSupplier cancelled;
+        private final IntConsumer task;
+
+        RangeTask(int from, int to, int batchSize, BooleanSupplier cancelled, IntConsumer task) {
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.cancelled = cancelled;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            checkCancelled(cancelled);
+            if (to - from <= batchSize) {
+                for (int i = from; i < to; i++) {
+                    task.accept(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, batchSize, cancelled, task),
+                    new RangeTask(middle, to, batchSize, cancelled, task));
+        }
+    }
+}
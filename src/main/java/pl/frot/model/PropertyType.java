@@ -13,4 +13,19 @@ public enum  PropertyType {
     PropertyType(String s) {
         this.propertyTypeName = s;
     }
+
+    /**
+     * Region of a property, given by the second digit of its zip code.
+     */
+    public static PropertyType fromZip(String zip) {
+        return switch (zip.charAt(1)) {
+            case '0', '1' -> LOS_ANGELES_AREA;
+            case '2' -> SAN_FRANCISCO_PENINSULA;
+            case '3' -> CENTRAL_CALIFORNIA;
+            case '4' -> SAN_DIEGO_REGION;
+            case '5' -> NORTHERN_CALIFORNIA;
+            case '6' -> MOUNTAIN_NORTHEAST;
+            default -> throw new IllegalArgumentException("Invalid 2nd number in zip code");
+        };
+    }
 }
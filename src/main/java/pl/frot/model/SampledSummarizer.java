@@ -0,0 +1,128 @@
+package pl.frot.model;
+
+import pl.frot.data.PartitionIndex;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.summaries.ConfidenceInterval;
+import pl.frot.fuzzy.summaries.ConfidenceIntervals;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+/**
+ * Approximate evaluation of single-subject summaries on a random sample of rows.
+ * All summaries read the same random permutation of rows, and a summary is refined by evaluating the next
+ * rows of that permutation (doubling the sample) until its confidence intervals are within the tolerance.
+ */
+public class SampledSummarizer {
+    private static final Logger logger = Logger.getLogger(SampledSummarizer.class.getName());
+
+    private final PropertyColumns columns;
+    private final SamplingOptions options;
+    private final int[] order;
+
+    public SampledSummarizer(PropertyColumns columns, PartitionIndex<?> strata, SamplingOptions options) {
+        this.columns = columns;
+        this.options = options;
+        this.order = switch (options.strategy()) {
+            case UNIFORM -> uniformOrder(columns.size(), new Random(options.seed()));
+            case STRATIFIED -> stratifiedOrder(strata, new Random(options.seed()));
+        };
+    }
+
+    public SampledSummary summarize(Quantifier quantifier, Label qualifier, List<Label> summarizers) {
+        SummaryStatistics statistics = new SummaryStatistics(summarizers.size(), qualifier != null);
+        statistics.setPopulation(order.length);
+        double[] memberships = new double[summarizers.size()];
+
+        int sampled = 0;
+        int target = Math.min(options.initialSampleSize(), order.length);
+        Map<String, ConfidenceInterval> intervals;
+        while (true) {
+            for (; sampled < target; sampled++) {
+                int row = order[sampled];
+                for (int j = 0; j < memberships.length; j++) {
+                    memberships[j] = summarizers.get(j).membership(columns, row);
+                }
+                statistics.accept(memberships, qualifier != null ? qualifier.membership(columns, row) : 1.0);
+            }
+
+            intervals = ConfidenceIntervals.of(statistics, quantifier, options.z());
+            if (sampled == order.length || withinTolerance(intervals)) {
+                break;
+            }
+            target = (int) Math.min((long) target * 2, order.length);
+        }
+
+        logger.fine("Sampled " + sampled + " of " + order.length + " rows: " + intervals);
+        return new SampledSummary(new SingleSubjectSummary(quantifier, qualifier, summarizers, statistics), sampled, intervals);
+    }
+
+    private boolean withinTolerance(Map<String, ConfidenceInterval> intervals) {
+        return intervals.values().stream().allMatch(interval -> interval.width() <= options.tolerance());
+    }
+
+    // ==== SAMPLE ORDER ====
+
+    private static int[] uniformOrder(int size, Random random) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        shuffle(order, random);
+        return order;
+    }
+
+    /**
+     * Shuffles every stratum and interleaves them so that each prefix of the order takes rows from the strata
+     * in proportion to their sizes. Rows outside every stratum are never sampled.
+     */
+    private static <K> int[] stratifiedOrder(PartitionIndex<K> strata, Random random) {
+        if (strata == null) {
+            throw new IllegalArgumentException("Stratified sampling requires a partition index");
+        }
+
+        int strataCount = strata.partitions().size();
+        int[][] shuffled = new int[strataCount][];
+        int total = 0;
+        for (int stratum = 0; stratum < strataCount; stratum++) {
+            shuffled[stratum] = strata.rows(strata.partitions().get(stratum)).clone();
+            shuffle(shuffled[stratum], random);
+            total += shuffled[stratum].length;
+        }
+
+        int[] order = new int[total];
+        int[] taken = new int[strataCount];
+        for (int i = 0; i < total; i++) {
+            // stratum furthest behind its proportional share of the first i + 1 rows
+            int next = -1;
+            double largestDeficit = Double.NEGATIVE_INFINITY;
+            for (int stratum = 0; stratum < strataCount; stratum++) {
+                if (taken[stratum] == shuffled[stratum].length) {
+                    continue;
+                }
+                double deficit = (double) (i + 1) * shuffled[stratum].length / total - taken[stratum];
+                if (deficit > largestDeficit) {
+                    largestDeficit = deficit;
+                    next = stratum;
+                }
+            }
+            order[i] = shuffled[next][taken[next]++];
+        }
+        return order;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.summaries.ConfidenceInterval;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.util.Map;
+
+/**
+ * Summary evaluated on {@code sampleSize} rows, with confidence intervals of the sampled measures (T1, T3, T4).
+ */
+public record SampledSummary(SingleSubjectSummary summary, int sampleSize, Map<String, ConfidenceInterval> intervals) {
+
+    public boolean isExact() {
+        return intervals.values().stream().allMatch(interval -> interval.width() == 0.0);
+    }
+}
@@ -0,0 +1,24 @@
+package pl.frot.model;
+
+/**
+ * @param strategy          how sample rows are drawn
+ * @param initialSampleSize rows evaluated in the first round; the sample doubles until the intervals are narrow enough
+ * @param tolerance         maximal width of the T1, T3 and T4 confidence intervals
+ * @param z                 standard normal quantile of the confidence level (1.96 for 95%)
+ * @param seed              seed of the sample permutation, so results are reproducible
+ */
+public record SamplingOptions(SamplingStrategy strategy, int initialSampleSize, double tolerance, double z, long seed) {
+
+    public SamplingOptions {
+        if (initialSampleSize < 1) {
+            throw new IllegalArgumentException("Initial sample size must be positive");
+        }
+        if (tolerance <= 0.0) {
+            throw new IllegalArgumentException("Tolerance must be positive");
+        }
+    }
+
+    public static SamplingOptions defaults() {
+        return new SamplingOptions(SamplingStrategy.UNIFORM, 1000, 0.05, 1.96, 42);
+    }
+}
@@ -0,0 +1,6 @@
+package pl.frot.model;
+
+public enum SamplingStrategy {
+    UNIFORM,        // simple random sample of all rows
+    STRATIFIED      // proportional allocation over regions
+}
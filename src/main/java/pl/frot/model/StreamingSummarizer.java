@@ -0,0 +1,214 @@
+package pl.frot.model;
+
+import pl.frot.data.Property;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a fixed set of single-subject summaries up to date over a window of the most recent rows of an unbounded feed.
+ * Memberships of the rows in the window are kept in a ring buffer, so a row leaving a sliding window has its
+ * contribution subtracted instead of the window being rescanned; every {@code windowSize} evictions the statistics are
+ * rebuilt from the buffer, so rounding errors of the subtractions do not pile up. Whenever the degree of truth of some summaries
+ * moves by more than the threshold since their last update, the changed summaries are emitted ranked by T1.
+ */
+public class StreamingSummarizer implements Consumer<Property> {
+    private static final Logger logger = Logger.getLogger(StreamingSummarizer.class.getName());
+
+    private final List<SummarySpec> specs;
+    private final WindowType windowType;
+    private final int windowSize;
+    private final double threshold;
+    private final Consumer<List<SummaryUpdate>> listener;
+
+    private final List<Label> labels = new ArrayList<>();
+    private final int[][] summarizerSlots;
+    private final int[] qualifierSlots;
+    private final SummaryStatistics[] statistics;
+    private final double[] reportedDegreesOfTruth;
+
+    private final double[][] window; // [label][position in ring buffer]
+    private int windowRows = 0;
+    private int oldest = 0;
+    private int evictions = 0;
+    private long rowsSeen = 0;
+
+    private final double[] values = new double[PropertyColumns.NUMERIC_ATTRIBUTES.size()];
+    private final double[][] rowMemberships; // per summary, reused for every row
+
+    public StreamingSummarizer(List<SummarySpec> specs, WindowType windowType, int windowSize, double threshold,
+                               Consumer<List<SummaryUpdate>> listener) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.specs = List.copyOf(specs);
+        this.windowType = windowType;
+        this.windowSize = windowSize;
+        this.threshold = threshold;
+        this.listener = listener;
+
+        Map<Label, Integer> labelSlots = new IdentityHashMap<>();
+        this.summarizerSlots = new int[specs.size()][];
+        this.qualifierSlots = new int[specs.size()];
+        this.statistics = new SummaryStatistics[specs.size()];
+        this.reportedDegreesOfTruth = new double[specs.size()];
+        this.rowMemberships = new double[specs.size()][];
+        for (int i = 0; i < specs.size(); i++) {
+            SummarySpec spec = specs.get(i);
+            summarizerSlots[i] = spec.summarizers().stream().mapToInt(label -> slot(label, labelSlots)).toArray();
+            qualifierSlots[i] = spec.qualifier() != null ? slot(spec.qualifier(), labelSlots) : -1;
+            statistics[i] = new SummaryStatistics(spec.summarizers().size(), spec.qualifier() != null);
+            rowMemberships[i] = new double[spec.summarizers().size()];
+        }
+        this.window = new double[labels.size()][windowSize];
+    }
+
+    @Override
+    public void accept(Property property) {
+        PropertyColumns.numericValues(property, values);
+        accept(values);
+    }
+
+    /**
+     * @param values numeric attributes in {@link PropertyColumns#NUMERIC_ATTRIBUTES} order
+     */
+    public void accept(double[] values) {
+        rowsSeen++;
+        if (windowRows == windowSize) {
+            if (windowType == WindowType.SLIDING) {
+                evict(oldest);
+                oldest = (oldest + 1) % windowSize;
+                windowRows--;
+                if (++evictions == windowSize) {
+                    rebuild();
+                }
+            } else {
+                reset();
+            }
+        }
+
+        int position = (oldest + windowRows) % windowSize;
+        for (int slot = 0; slot < labels.size(); slot++) {
+            Label label = labels.get(slot);
+            window[slot][position] = label.membership(values[label.getAttributeId()]);
+        }
+        for (int i = 0; i < specs.size(); i++) {
+            statistics[i].accept(memberships(i, position), qualifierMembership(i, position));
+        }
+        windowRows++;
+
+        if (windowType == WindowType.SLIDING || windowRows == windowSize) {
+            emitChanges();
+        }
+    }
+
+    public long getRowsSeen() {
+        return rowsSeen;
+    }
+
+    /**
+     * Current state of every summary, ranked by T1.
+     */
+    public List<SummaryUpdate> snapshot() {
+        List<SummaryUpdate> updates = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            double degreeOfTruth = statistics[i].degreeOfTruth(specs.get(i).quantifier());
+            updates.add(update(i, degreeOfTruth));
+        }
+        updates.sort(Comparator.comparingDouble(SummaryUpdate::degreeOfTruth).reversed());
+        return updates;
+    }
+
+    // ==== WINDOW ====
+
+    private void evict(int position) {
+        for (int i = 0; i < specs.size(); i++) {
+            statistics[i].remove(memberships(i, position), qualifierMembership(i, position));
+        }
+    }
+
+    private void reset() {
+        clearStatistics();
+        windowRows = 0;
+        oldest = 0;
+    }
+
+    /**
+     * Statistics accumulated again over the rows in the buffer, amortized O(1) per row at one rebuild per window.
+     */
+    private void rebuild() {
+        clearStatistics();
+        for (int row = 0; row < windowRows; row++) {
+            int position = (oldest + row) % windowSize;
+            for (int i = 0; i < specs.size(); i++) {
+                statistics[i].accept(memberships(i, position), qualifierMembership(i, position));
+            }
+        }
+        evictions = 0;
+    }
+
+    private void clearStatistics() {
+        for (int i = 0; i < specs.size(); i++) {
+            SummarySpec spec = specs.get(i);
+            statistics[i] = new SummaryStatistics(spec.summarizers().size(), spec.qualifier() != null);
+        }
+    }
+
+    private void emitChanges() {
+        List<SummaryUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < specs.size(); i++) {
+            double degreeOfTruth = statistics[i].degreeOfTruth(specs.get(i).quantifier());
+            if (Math.abs(degreeOfTruth - reportedDegreesOfTruth[i]) > threshold) {
+                updates.add(update(i, degreeOfTruth));
+                reportedDegreesOfTruth[i] = degreeOfTruth;
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            updates.sort(Comparator.comparingDouble(SummaryUpdate::degreeOfTruth).reversed());
+            logger.fine("Row " + rowsSeen + ": " + updates.size() + " summaries changed");
+            listener.accept(updates);
+        }
+    }
+
+    private SummaryUpdate update(int i, double degreeOfTruth) {
+        SummarySpec spec = specs.get(i);
+        SummaryStatistics copy = new SummaryStatistics(spec.summarizers().size(), spec.qualifier() != null);
+        copy.merge(statistics[i]);
+        return new SummaryUpdate(spec, copy, reportedDegreesOfTruth[i], degreeOfTruth, rowsSeen);
+    }
+
+    // ==== UTILS ====
+
+    private double[] memberships(int i, int position) {
+        int[] slots = summarizerSlots[i];
+        double[] memberships = rowMemberships[i];
+        for (int j = 0; j < slots.length; j++) {
+            memberships[j] = window[slots[j]][position];
+        }
+        return memberships;
+    }
+
+    private double qualifierMembership(int i, int position) {
+        return qualifierSlots[i] >= 0 ? window[qualifierSlots[i]][position] : 1.0;
+    }
+
+    private int slot(Label label, Map<Label, Integer> labelSlots) {
+        if (label.getAttributeId() < 0 || label.getAttributeId() >= PropertyColumns.NUMERIC_ATTRIBUTES.size()) {
+            // derived attributes exist only in the in-memory columns
+            throw new IllegalArgumentException("No raw attribute column for label: " + label.getName());
+        }
+        return labelSlots.computeIfAbsent(label, l -> {
+            labels.add(l);
+            return labels.size() - 1;
+        });
+    }
+}
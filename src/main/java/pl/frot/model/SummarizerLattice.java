@@ -0,0 +1,202 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates summarizer combinations that share prefixes, e.g. [A], [A, B], [A, B, C], as a trie walked depth-first.
+ * The conjunction vector of every prefix is kept while its subtree is visited and extended with one min per level,
+ * so a combination costs one pass over the rows instead of one pass per summarizer.
+ * Only one vector per depth is alive at a time, so the extra memory is bounded by (depth - 1) · rows.
+ */
+public class SummarizerLattice {
+    private final LabelMembershipCache memberships;
+    private final Node root = new Node(null);
+    private final Map<List<Label>, Integer> indices = new IdentityHashMap<>();
+    private final int combinationCount;
+    private int depth;
+
+    // statistics per qualifier (null for the first form), shared by all quantifiers
+    private final Map<Label, SummaryStatistics[]> statisticsByQualifier = new IdentityHashMap<>();
+
+    /**
+     * @param combinations iterated once, e.g. decoded lazily from a {@link pl.frot.utils.CrossListCombinations};
+     *                     indices follow the iteration order
+     */
+    public SummarizerLattice(Iterable<List<Label>> combinations, LabelMembershipCache memberships) {
+        this.memberships = memberships;
+        int count = 0;
+        for (List<Label> combination : combinations) {
+            insert(combination, count++);
+        }
+        this.combinationCount = count;
+    }
+
+    /**
+     * Summary of one of the combinations the lattice was built from (compared by identity).
+     * The statistics of a qualifier are computed on its first use and then mapped through every quantifier.
+     */
+    public SingleSubjectSummary summarize(Quantifier quantifier, Label qualifier, List<Label> summarizers) {
+        int index = indexOf(summarizers);
+        if (index < 0) {
+            throw new IllegalArgumentException("Combination is not part of the lattice: " + summarizers);
+        }
+        SummaryStatistics[] statistics = statisticsByQualifier.computeIfAbsent(qualifier, this::statistics);
+        return new SingleSubjectSummary(quantifier, qualifier, summarizers, statistics[index]);
+    }
+
+    /**
+     * Statistics of every combination, indexed like the list the lattice was built from.
+     * Combinations containing the qualifier itself are left out ({@code null}).
+     *
+     * @param qualifier qualifier of the second form, {@code null} for the first form
+     */
+    public SummaryStatistics[] statistics(Label qualifier) {
+        SummaryStatistics[] statistics = new SummaryStatistics[combinationCount];
+        for (int subtree = 0; subtree < subtreeCount(); subtree++) {
+            statistics(qualifier, subtree, statistics);
+        }
+        return statistics;
+    }
+
+    /**
+     * Fills in the statistics of the combinations starting with the {@code subtree}-th first label.
+     * Subtrees are disjoint, so they can be evaluated concurrently into the same array.
+     */
+    public void statistics(Label qualifier, int subtree, SummaryStatistics[] statistics) {
+        double[] qualifierMemberships = qualifier != null ? memberships.get(qualifier) : null;
+        double[][] buffers = new double[depth][];
+        visit(root.children.get(subtree), null, 0, qualifier, qualifierMemberships, buffers,
+                (index, combination, combinationStatistics) -> {
+                    statistics[index] = combinationStatistics;
+                    return true;
+                });
+    }
+
+    /**
+     * Walks all combinations depth-first, every combination before its extensions. The visitor decides whether
+     * the extensions of a combination are visited at all. Combinations containing the qualifier are skipped
+     * together with their extensions.
+     */
+    public void walk(Label qualifier, CombinationVisitor visitor) {
+        double[] qualifierMemberships = qualifier != null ? memberships.get(qualifier) : null;
+        double[][] buffers = new double[depth][];
+        for (Node child : root.children) {
+            visit(child, null, 0, qualifier, qualifierMemberships, buffers, visitor);
+        }
+    }
+
+    public int subtreeCount() {
+        return root.children.size();
+    }
+
+    public int size() {
+        return combinationCount;
+    }
+
+    /**
+     * Position of the combination in the list the lattice was built from (compared by identity), -1 if absent.
+     */
+    public int indexOf(List<Label> combination) {
+        Integer index = indices.get(combination);
+        return index != null ? index : -1;
+    }
+
+    // ==== UTILS ====
+
+    private void visit(Node node, double[] prefix, int level, Label qualifier, double[] qualifierMemberships,
+                       double[][] buffers, CombinationVisitor visitor) {
+        int rows = memberships.size();
+        double[] labelMemberships = memberships.get(node.label);
+        double[] conjunction;
+        if (prefix == null) {
+            conjunction = labelMemberships;
+        } else {
+            if (buffers[level] == null) {
+                buffers[level] = new double[rows];
+            }
+            conjunction = buffers[level];
+            for (int row = 0; row < rows; row++) {
+                conjunction[row] = Math.min(prefix[row], labelMemberships[row]);
+            }
+        }
+
+        if (node.label == qualifier) {
+            // every extension contains the qualifier as well
+            return;
+        }
+        if (node.index >= 0) {
+            SummaryStatistics statistics = accumulate(node.combination, conjunction, qualifierMemberships, rows);
+            if (!visitor.visit(node.index, node.combination, statistics)) {
+                return;
+            }
+        }
+        for (Node child : node.children) {
+            visit(child, conjunction, level + 1, qualifier, qualifierMemberships, buffers, visitor);
+        }
+    }
+
+    private SummaryStatistics accumulate(List<Label> summarizers, double[] conjunction,
+                                         double[] qualifierMemberships, int rows) {
+        SummaryStatistics statistics = new SummaryStatistics(summarizers.size(), qualifierMemberships != null);
+        for (int row = 0; row < rows; row++) {
+            statistics.accept(conjunction[row], qualifierMemberships != null ? qualifierMemberships[row] : 1.0);
+        }
+        for (int j = 0; j < summarizers.size(); j++) {
+            statistics.addSummarizerSupport(j, memberships.supportCount(summarizers.get(j)));
+        }
+        return statistics;
+    }
+
+    private void insert(List<Label> combination, int index) {
+        Node node = root;
+        for (Label label : combination) {
+            node = node.child(label);
+        }
+        if (node.index < 0) {
+            node.index = index;
+            node.combination = combination;
+        }
+        // a repeated combination shares the statistics of its first occurrence
+        indices.put(combination, node.index);
+        depth = Math.max(depth, combination.size());
+    }
+
+    @FunctionalInterface
+    public interface CombinationVisitor {
+        /**
+         * @param index position of the combination in the list the lattice was built from
+         * @return whether the extensions of the combination should be visited
+         */
+        boolean visit(int index, List<Label> combination, SummaryStatistics statistics);
+    }
+
+    private static class Node {
+        private final Label label;
+        private final List<Node> children = new ArrayList<>();
+        private List<Label> combination;
+        private int index = -1;
+
+        Node(Label label) {
+            this.label = label;
+        }
+
+        Node child(Label label) {
+            for (Node child : children) {
+                if (child.label == label) {
+                    return child;
+                }
+            }
+            Node child = new Node(label);
+            children.add(child);
+            return child;
+        }
+    }
+}
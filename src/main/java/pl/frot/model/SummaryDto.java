@@ -3,6 +3,9 @@ package pl.frot.model;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.value.ObservableValue;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public record SummaryDto(
         String summary,
         double degreeOfTruth,
@@ -31,4 +34,24 @@ public record SummaryDto(
     public ObservableValue<Boolean> selectedProperty() {
         return selected;
     }
+
+    /**
+     * Measures by name, as {@link pl.frot.data.SummaryExporter} expects them.
+     */
+    public Map<String, Double> measures() {
+        Map<String, Double> measures = new LinkedHashMap<>();
+        measures.put("T1", degreeOfTruth);
+        measures.put("T2", degreeOfImprecision);
+        measures.put("T3", degreeOfCovering);
+        measures.put("T4", degreeOfAppropriateness);
+        measures.put("T5", summaryLength);
+        measures.put("T6", degreeOfQuantifierImprecision);
+        measures.put("T7", degreeOfQuantifierCardinality);
+        measures.put("T8", degreeOfSummarizerCardinality);
+        measures.put("T9", degreeOfQualifierImprecision);
+        measures.put("T10", degreeOfQualifierCardinality);
+        measures.put("T11", qualifierLength);
+        measures.put("T*", optimal);
+        return measures;
+    }
 }
\ No newline at end of file
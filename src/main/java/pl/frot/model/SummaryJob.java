@@ -0,0 +1,142 @@
+package pl.frot.model;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Summary generation running on its own virtual thread. Summaries are published one by one as they are evaluated
+ * ({@link Flow.Publisher}, subscribe before {@link #start()}), progress goes to the listener at most every
+ * {@link #PROGRESS_INTERVAL_NANOS}, and {@link #cancel()} stops the generation at the next summary or at the next
+ * check of the cancellation inside the body.
+ *
+ * @param <T> type of the summaries
+ */
+public class SummaryJob<T> implements Flow.Publisher<T> {
+    private static final Logger logger = Logger.getLogger(SummaryJob.class.getName());
+
+    private static final long PROGRESS_INTERVAL_NANOS = 100_000_000;
+    // delivers summaries to subscribers; blocked deliveries only park virtual threads
+    private static final ExecutorService DELIVERY = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Generation itself: evaluates the summaries and hands each one to the sink. Long computations that publish
+     * nothing for a while should poll {@code cancelled} and stop once it returns true.
+     */
+    @FunctionalInterface
+    public interface Body<T> {
+        void run(Consumer<T> sink, BooleanSupplier cancelled) throws Exception;
+    }
+
+    private final String name;
+    private final long total;
+    private final Body<T> body;
+    private final SubmissionPublisher<T> publisher = new SubmissionPublisher<>(DELIVERY, Flow.defaultBufferSize());
+    private final CompletableFuture<JobProgress> completion = new CompletableFuture<>();
+    private final AtomicLong done = new AtomicLong();
+    private volatile Consumer<JobProgress> progressListener = progress -> {};
+    private volatile boolean cancelled;
+    private volatile Thread thread;
+    private volatile long startNanos;
+    private long lastReportNanos;
+
+    /**
+     * @param total number of summaries the body will produce, -1 if not known
+     */
+    public SummaryJob(String name, long total, Body<T> body) {
+        this.name = name;
+        this.total = total;
+        this.body = body;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Called from the generating thread; a GUI listener has to hand the progress over to its own thread.
+     */
+    public SummaryJob<T> onProgress(Consumer<JobProgress> listener) {
+        this.progressListener = listener;
+        return this;
+    }
+
+    public synchronized SummaryJob<T> start() {
+        if (thread != null) {
+            throw new IllegalStateException("Job already started: " + name);
+        }
+        startNanos = System.nanoTime();
+        lastReportNanos = startNanos;
+        thread = Thread.ofVirtual().name(name).start(this::run);
+        return this;
+    }
+
+    /**
+     * Stops the generation; subscribers get {@link Flow.Subscriber#onError} with a {@link CancellationException}.
+     */
+    public void cancel() {
+        cancelled = true;
+        Thread running = thread;
+        if (running != null) {
+            running.interrupt();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Completes with the final progress once every summary is published, exceptionally if the job failed or was cancelled.
+     */
+    public CompletableFuture<JobProgress> getCompletion() {
+        return completion;
+    }
+
+    public JobProgress getProgress() {
+        long elapsed = startNanos == 0 ? 0 : System.nanoTime() - startNanos;
+        return new JobProgress(done.get(), total, elapsed);
+    }
+
+    // ==== UTILS ====
+
+    private void run() {
+        try {
+            body.run(this::publish, this::isCancelled);
+            if (cancelled) {
+                throw new CancellationException(name + " cancelled");
+            }
+            JobProgress progress = getProgress();
+            progressListener.accept(progress);
+            publisher.close();
+            completion.complete(progress);
+            logger.info(name + " finished: " + progress);
+        } catch (Throwable e) {
+            Throwable cause = cancelled ? new CancellationException(name + " cancelled") : e;
+            publisher.closeExceptionally(cause);
+            completion.completeExceptionally(cause);
+            if (cancelled) {
+                logger.info(name + " cancelled after " + getProgress());
+            } else {
+                logger.warning(name + " failed: " + e);
+            }
+        }
+    }
+
+    private void publish(T summary) {
+        if (cancelled) {
+            throw new CancellationException(name + " cancelled");
+        }
+        publisher.submit(summary);
+        done.incrementAndGet();
+
+        long now = System.nanoTime();
+        if (now - lastReportNanos >= PROGRESS_INTERVAL_NANOS) {
+            lastReportNanos = now;
+            progressListener.accept(getProgress());
+        }
+    }
+}
@@ -1,54 +1,74 @@
 package pl.frot.model;
 
 import lombok.Getter;
+import lombok.Setter;
+import pl.frot.data.ColumnarFile;
 import pl.frot.data.DataWriter;
+import pl.frot.data.ExportFormat;
 import pl.frot.data.Property;
+import pl.frot.data.NumericColumn;
+import pl.frot.data.PartitionIndex;
+import pl.frot.data.PropertyColumns;
+import pl.frot.data.PropertyCsvReader;
+import pl.frot.data.SummaryExporter;
 import pl.frot.data.TermDao;
 import pl.frot.data.DataLoader;
 import pl.frot.fuzzy.base.*;
 import pl.frot.fuzzy.summaries.*;
+import pl.frot.utils.CrossListCombinations;
 import pl.frot.utils.SetOperations;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 public class SummaryMachine {
 
     private static final Logger logger = Logger.getLogger(SummaryMachine.class.getName());
-    private final Map<String, Function<Property, Double>> attributeExtractors = new HashMap<>();
 
-    List<Property> properties = new ArrayList<>();
-    Map<PropertyType, List<Property>> propertiesByType = new EnumMap<>(PropertyType.class);
+    /**
+     * Input files read by {@link #loadData()}.
+     */
+    @Getter @Setter
+    private Path propertiesPath = Path.of("src/main/resources/property.csv");
+    @Getter @Setter
+    private Path summarizersPath = Path.of("src/main/resources/summarizers.json");
+    @Getter @Setter
+    private Path quantifiersPath = Path.of("src/main/resources/quantifiers.json");
+
+    @Getter
+    PropertyColumns columns = new PropertyColumns();
+    @Getter
+    PartitionIndex<PropertyType> regions;
+    @Getter
+    LabelMembershipCache memberships = new LabelMembershipCache(columns);
     @Getter
     List<LinguisticVariable> linguisticVariables = new ArrayList<>();
     @Getter
     List<Quantifier> quantifiers = new ArrayList<>();
 
-    private void initializeAttributeExtractors() {
-        attributeExtractors.put("soldPrice", Property::getSoldPrice);
-        attributeExtractors.put("totalInteriorLivableArea", Property::getTotalInteriorLivableArea);
-        attributeExtractors.put("lot", Property::getLot);
-        attributeExtractors.put("yearBuilt", this::getYearBuiltAsDouble);
-        attributeExtractors.put("elementarySchoolDistance", Property::getElementarySchoolDistance);
-        attributeExtractors.put("middleSchoolDistance", Property::getMiddleSchoolDistance);
-        attributeExtractors.put("highSchoolDistance", Property::getHighSchoolDistance);
-        attributeExtractors.put("annualTaxAmount", Property::getAnnualTaxAmount);
-        attributeExtractors.put("taxAssessedValue", Property::getTaxAssessedValue);
-        attributeExtractors.put("lastSoldPrice", Property::getLastSoldPrice);
-        attributeExtractors.put("listedPrice", Property::getListedPrice);
-    }
-
-    private Double getYearBuiltAsDouble(Property property) {
-        Integer yearBuilt = property.getYearBuilt();
-        return yearBuilt != null ? yearBuilt.doubleValue() : null;
-    }
+    @Getter @Setter
+    private EvaluationMode evaluationMode = EvaluationMode.IN_MEMORY;
+    private DatabaseSummarizer databaseSummarizer;
+    private InDatabaseSummarizer inDatabaseSummarizer;
+    @Getter
+    private SamplingOptions samplingOptions = SamplingOptions.defaults();
+    private SampledSummarizer sampledSummarizer;
+    private PropertyCsvReader csvReader;
+    private SummaryTracker tracker;
+    @Getter
+    private final GenerationOptions generationOptions = new GenerationOptions();
+    private final ParallelSummaryEngine engine = new ParallelSummaryEngine(generationOptions);
+    private final SummaryPlanner planner = new SummaryPlanner(generationOptions);
+    private final ReentrantLock jobLock = new ReentrantLock();
 
     public void run() {
-        initializeAttributeExtractors();
-
         if (!loadData()) {
             logger.warning("Failed to load data");
         }
@@ -58,10 +78,12 @@ public class SummaryMachine {
 
     public boolean loadData() {
         try {
-            properties = DataLoader.loadProperties("src/main/resources/property.csv");
-            logger.info(String.format("Loaded %s properties", properties.size()));
-        } catch (FileNotFoundException e) {
-            logger.warning("File 'property.csv' not found: " + e.getMessage());
+            csvReader = new PropertyCsvReader(propertiesPath);
+            List<Property> properties = csvReader.readNew();
+            columns = PropertyColumns.fromProperties(properties);
+            logger.info(String.format("Loaded %s properties", columns.size()));
+        } catch (IOException e) {
+            logger.warning("File '" + propertiesPath + "' not found: " + e.getMessage());
             return false;
         }
 
@@ -69,20 +91,21 @@ public class SummaryMachine {
 
         List<TermDao> linguisticVariablesDao;
         try {
-            linguisticVariablesDao = DataLoader.loadTerms("src/main/resources/summarizers.json");
+            linguisticVariablesDao = DataLoader.loadTerms(summarizersPath.toString());
             logger.info(String.format("Loaded %s linguistic variables", linguisticVariablesDao.size()));
         } catch (IOException e) {
-            logger.warning("File 'summarizers.json' not found: " + e.getMessage());
+            logger.warning("File '" + summarizersPath + "' not found: " + e.getMessage());
             return false;
         }
         loadLinguisticVariables(linguisticVariablesDao);
+        cacheMemberships();
 
         List<TermDao> quantifiersDao;
         try {
-            quantifiersDao = DataLoader.loadTerms("src/main/resources/quantifiers.json");
+            quantifiersDao = DataLoader.loadTerms(quantifiersPath.toString());
             logger.info(String.format("Loaded %s quantifiers", quantifiersDao.size()));
         } catch (IOException e) {
-            logger.warning("File 'quantifiers.json' not found: " + e.getMessage());
+            logger.warning("File '" + quantifiersPath + "' not found: " + e.getMessage());
             return false;
         }
         loadQuantifiers(quantifiersDao);
@@ -91,65 +114,123 @@ public class SummaryMachine {
         return true;
     }
 
-    private void checkProperties() {
-        for (PropertyType propertyType : PropertyType.values()) {
-            propertiesByType.put(propertyType, new ArrayList<>());
-        }
-
-        int[] counts = new int[7];
-        for (Property property : properties) {
-            char c = property.getZip().charAt(1);
-            int i = c - '0';
-            counts[i] += 1;
-            switch (c) {
-                case '0', '1':
-                    propertiesByType.get(PropertyType.LOS_ANGELES_AREA).add(property);
-                    break;
-                case '2':
-                    propertiesByType.get(PropertyType.SAN_FRANCISCO_PENINSULA).add(property);
-                    break;
-                case '3':
-                    propertiesByType.get(PropertyType.CENTRAL_CALIFORNIA).add(property);
-                    break;
-                case '4':
-                    propertiesByType.get(PropertyType.SAN_DIEGO_REGION).add(property);
-                    break;
-                case '5':
-                    propertiesByType.get(PropertyType.NORTHERN_CALIFORNIA).add(property);
-                    break;
-                case '6':
-                    propertiesByType.get(PropertyType.MOUNTAIN_NORTHEAST).add(property);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Invalid 2nd number in zip code");
+    /**
+     * Out-of-core alternative to {@link #loadData()}: loads only the linguistic variables and quantifiers, with the
+     * columns of a columnar file as label universes, so no rows are read into memory. Variables of derived
+     * attributes are skipped, the file holds the raw attributes only.
+     */
+    public boolean loadTerms(Path columnarFile) {
+        List<TermDao> linguisticVariablesDao;
+        List<TermDao> quantifiersDao;
+        try {
+            linguisticVariablesDao = DataLoader.loadTerms(summarizersPath.toString());
+            quantifiersDao = DataLoader.loadTerms(quantifiersPath.toString());
+        } catch (IOException e) {
+            logger.warning("Failed to load terms: " + e.getMessage());
+            return false;
+        }
+
+        linguisticVariables.clear();
+        quantifiers.clear();
+        try (ColumnarFile file = ColumnarFile.open(columnarFile)) {
+            for (TermDao linguisticVariableDao : linguisticVariablesDao) {
+                String attributeName = linguisticVariableDao.name();
+                if (linguisticVariableDao.expression() != null) {
+                    logger.info("Skipping derived attribute: " + attributeName);
+                    continue;
+                }
+                int attributeId = PropertyColumns.NUMERIC_ATTRIBUTES.indexOf(attributeName);
+                if (attributeId < 0) {
+                    throw new IllegalStateException("Unknown attribute: " + attributeName);
+                }
+                linguisticVariables.add(linguisticVariable(linguisticVariableDao, attributeId, file.column(attributeId)));
+            }
+            logger.info(String.format("Loaded %s linguistic variables over %s", linguisticVariables.size(), file));
+        } catch (IOException e) {
+            logger.warning("File '" + columnarFile + "' not readable: " + e.getMessage());
+            return false;
+        }
+        loadQuantifiers(quantifiersDao);
+        return true;
+    }
+
+    /**
+     * Parses only the rows appended to the CSV file since the last load or append, adds them to the columns and the
+     * region index, and updates the tracked summaries incrementally. Waits for a running job, so no job sees
+     * half-appended columns.
+     *
+     * @return number of appended properties
+     */
+    public int appendData() throws IOException {
+        if (csvReader == null) {
+            throw new IllegalStateException("Data must be loaded before appending");
+        }
+
+        jobLock.lock();
+        try {
+            List<Property> properties = csvReader.readNew();
+            for (Property property : properties) {
+                columns.addProperty(property);
+            }
+            regions.update();
+            memberships.update();
+            if (tracker != null) {
+                tracker.update();
             }
+
+            logger.info(String.format("Appended %s properties, %s in total", properties.size(), columns.size()));
+            return properties.size();
+        } finally {
+            jobLock.unlock();
         }
+    }
+
+    private void checkProperties() {
+        regions = PartitionIndex.of(columns.zipColumn(), List.of(PropertyType.values()), PropertyType::fromZip);
+
         logger.info("""
-                Created properties by type map.
-                Zip codes distribution: %s
-                Zip codes sum: %s
-                """.formatted(Arrays.toString(counts), Arrays.stream(counts).sum()));
+                Created properties by type index.
+                Regions distribution: %s
+                Regions sum: %s
+                """.formatted(Arrays.toString(regions.counts()), Arrays.stream(regions.counts()).sum()));
+    }
+
+    private void cacheMemberships() {
+        memberships = new LabelMembershipCache(columns);
+        // tracked summaries read the replaced cache, so they end with the data they were tracked on
+        tracker = null;
+        List<Label> labels = new ArrayList<>();
+        for (LinguisticVariable linguisticVariable : linguisticVariables) {
+            labels.addAll(linguisticVariable.labels());
+        }
+        memberships.build(labels);
     }
 
     private void loadLinguisticVariables(List<TermDao> linguisticVariablesDaoList) {
         for (TermDao linguisticVariableDao : linguisticVariablesDaoList) {
             String attributeName = linguisticVariableDao.name();
-            Map<String, List<Double>> ranges = linguisticVariableDao.ranges();
-            List<Double> uod = properties.stream()
-                    .map(p -> attributeExtractors.get(attributeName).apply(p))
-                    .toList();
+            int attributeId = linguisticVariableDao.expression() != null
+                    ? columns.addDerivedColumn(attributeName, linguisticVariableDao.expression())
+                    : columns.attributeId(attributeName);
+            if (attributeId < 0) {
+                throw new IllegalStateException("Unknown attribute: " + attributeName);
+            }
+            linguisticVariables.add(linguisticVariable(linguisticVariableDao, attributeId, columnValues(attributeId)));
+        }
+    }
 
-            List<Label> labels = new ArrayList<>();
-            for (Map.Entry<String, List<Double>> entry : ranges.entrySet()) {
-                String labelValue = entry.getKey();
-                FuzzySet<Double> fuzzySet = new FuzzySet<>(
-                        new DiscreteUniverse<>(uod),
-                        getMembershipFunction(entry.getValue()));
+    private LinguisticVariable linguisticVariable(TermDao linguisticVariableDao, int attributeId, List<Double> uod) {
+        String attributeName = linguisticVariableDao.name();
+        List<Label> labels = new ArrayList<>();
+        for (Map.Entry<String, List<Double>> entry : linguisticVariableDao.ranges().entrySet()) {
+            String labelValue = entry.getKey();
+            FuzzySet<Double> fuzzySet = new FuzzySet<>(
+                    new DiscreteUniverse<>(uod),
+                    getMembershipFunction(entry.getValue()));
 
-                labels.add(new Label(labelValue, fuzzySet, attributeName));
-            }
-            linguisticVariables.add(new LinguisticVariable(attributeName, labels));
+            labels.add(new Label(labelValue, fuzzySet, attributeName, attributeId));
         }
+        return new LinguisticVariable(attributeName, labels);
     }
 
     private void loadQuantifiers(List<TermDao> quantifiersDaoList) {
@@ -189,44 +270,460 @@ public class SummaryMachine {
             List<Label> qualifiers,
             List<List<Label>> summarizers) {
 
-        List<SingleSubjectSummary> allSummaries = createFirstTypeSingleSubjectSummaries(quantifiers, summarizers);
+        List<SummarySpec> specs = new ArrayList<>();
+        generateSingleSubjectSummaries(quantifiers, qualifiers, summarizers, SummarySpec::new, specs::add);
+        return summarize(specs);
+    }
+
+    public List<SingleSubjectSummary> createFirstTypeSingleSubjectSummaries(List<Quantifier> chosenQuantifiers, List<List<Label>> chosenLabels) {
+        List<SummarySpec> specs = new ArrayList<>();
+        generateFirstTypeSingleSubjectSummaries(chosenQuantifiers, summarizerCombinations(chosenLabels), SummarySpec::new, specs::add);
+        return summarize(specs);
+    }
+
+    public List<SingleSubjectSummary> createSecondTypeSingleSubjectSummaries(
+            List<Quantifier> chosenQuantifiers,
+            List<Label> chosenQualifiers,
+            List<List<Label>> chosenLabels) {
+
+        List<SummarySpec> specs = new ArrayList<>();
+        generateSecondTypeSingleSubjectSummaries(chosenQuantifiers, chosenQualifiers, allCombinations(chosenLabels),
+                SummarySpec::new, specs::add);
+        return summarize(specs);
+    }
+
+    /**
+     * Same summaries, in the same order, as {@link #createSingleSubjectSummaries}, handed to the sink
+     * as soon as each one is evaluated instead of being collected. The combinations are decoded one at a time
+     * (see {@link #lazyCombinations}) and every summary is evaluated on its own, so memory does not grow
+     * with the number of summaries.
+     */
+    public void generateSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            Consumer<SingleSubjectSummary> sink) {
+
+        generateFirstTypeSingleSubjectSummaries(quantifiers, lazyCombinations(summarizers, true), this::createSummary, sink);
 
         if (!qualifiers.isEmpty()) {
-            allSummaries.addAll(createSecondTypeSingleSubjectSummaries(quantifiers, qualifiers, summarizers));
+            generateSecondTypeSingleSubjectSummaries(quantifiers, qualifiers, lazyCombinations(summarizers, false),
+                    this::createSummary, sink);
         }
+    }
 
-        return allSummaries;
+    /**
+     * Approximate ranking for large datasets: every summary is evaluated on a sample (see {@link #getSamplingOptions()})
+     * and ranked by T*; the {@code exactTopK} best are then evaluated exactly on all rows and the list is re-ranked.
+     * Only the {@code k} best summaries are returned, and only {@code k + exactTopK} are kept while ranking.
+     */
+    public List<SampledSummary> rankSampledSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            int k,
+            int exactTopK) {
+
+        return rankSampledSingleSubjectSummaries(quantifiers, qualifiers, summarizers, k, exactTopK, () -> false);
     }
 
-    public List<SingleSubjectSummary> createFirstTypeSingleSubjectSummaries(List<Quantifier> chosenQuantifiers, List<List<Label>> chosenLabels) {
-        List<SingleSubjectSummary> summaries = new ArrayList<>();
-        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, 3);
+    private List<SampledSummary> rankSampledSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            int k,
+            int exactTopK,
+            BooleanSupplier cancelled) {
 
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive, got: " + k);
+        }
+
+        // exact evaluation can move up to exactTopK summaries down, so the next k by the sample must be kept as well
+        int exact = Math.max(exactTopK, 0);
+        BestSummaries<SampledSummary> best = new BestSummaries<>(k + exact);
+        generateSingleSubjectSummaries(quantifiers, qualifiers, summarizers, sampledSummarizer()::summarize,
+                cancellable((SampledSummary sampled) -> best.offer(sampled, sampled.summary().getMeasure("T*")),
+                        cancelled));
+        List<SampledSummary> ranked = new ArrayList<>(best.ranked());
+
+        for (int i = 0; i < Math.min(exact, ranked.size()); i++) {
+            SingleSubjectSummary approximate = ranked.get(i).summary();
+            SingleSubjectSummary exactSummary = exactSummary(approximate.getQuantifier(),
+                    approximate.getQualifier(), approximate.getSummarizers());
+            Map<String, ConfidenceInterval> intervals = new LinkedHashMap<>();
+            for (String measure : ranked.get(i).intervals().keySet()) {
+                intervals.put(measure, ConfidenceInterval.exact(exactSummary.getMeasures().get(measure)));
+            }
+            ranked.set(i, new SampledSummary(exactSummary, columns.size(), intervals));
+        }
+        ranked.sort(Comparator.comparingDouble((SampledSummary sampled) -> sampled.summary().getMeasure("T*")).reversed());
+
+        logger.info("Ranked " + best.offered() + " sampled summaries, " + Math.min(exact, ranked.size()) + " evaluated exactly");
+        return ranked.subList(0, Math.min(k, ranked.size()));
+    }
+
+    /**
+     * Exact number and estimated cost of the summaries {@link #createSingleSubjectSummaries} would create
+     * in the current evaluation mode, with the strategy {@link #generatePlannedSingleSubjectSummaries} will use
+     * for them. The summaries are handed over one by one, so streaming may be chosen.
+     */
+    public SummaryPlan planSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers) {
+
+        return planSingleSubjectSummaries(quantifiers, qualifiers, summarizers, false);
+    }
+
+    /**
+     * @param accumulated whether the caller keeps every summary it receives (e.g. in a table); streaming saves
+     *                    no memory then and is replaced with the top K
+     */
+    public SummaryPlan planSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            boolean accumulated) {
+
+        // sampled evaluation reads at least the initial sample, usually not much more
+        int rows = evaluationMode == EvaluationMode.SAMPLED
+                ? Math.min(columns.size(), samplingOptions.initialSampleSize())
+                : columns.size();
+        return planner.plan(quantifiers, qualifiers, summarizers, rows, evaluationMode, accumulated);
+    }
+
+    /**
+     * Generates the selection within the budget set in {@link #getGenerationOptions()}: all summaries when they fit,
+     * otherwise streamed one by one, the top K by the ranking measure or the top K of a sampled ranking, as configured.
+     */
+    public SummaryPlan generatePlannedSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            Consumer<SingleSubjectSummary> sink) {
+
+        SummaryPlan plan = planSingleSubjectSummaries(quantifiers, qualifiers, summarizers);
+        generatePlannedSingleSubjectSummaries(plan, quantifiers, qualifiers, summarizers, sink, () -> false);
+        return plan;
+    }
+
+    private void generatePlannedSingleSubjectSummaries(
+            SummaryPlan plan,
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            Consumer<SingleSubjectSummary> sink,
+            BooleanSupplier cancelled) {
+
+        int topK = generationOptions.getTopK();
+        switch (plan.strategy()) {
+            case EXHAUSTIVE -> {
+                List<SummarySpec> specs = new ArrayList<>();
+                generateSingleSubjectSummaries(quantifiers, qualifiers, summarizers, SummarySpec::new, specs::add);
+                summarize(specs, cancelled, sink);
+            }
+            case STREAMING -> generateSingleSubjectSummaries(quantifiers, qualifiers, summarizers,
+                    cancellable(sink, cancelled));
+            case TOP_K -> findTopSingleSubjectSummaries(quantifiers, qualifiers, summarizers, topK,
+                    generationOptions.getRankingMeasure(), cancelled).forEach(sink);
+            case SAMPLED -> rankSampledSingleSubjectSummaries(quantifiers, qualifiers, summarizers, topK, topK, cancelled)
+                    .stream()
+                    .map(SampledSummary::summary)
+                    .forEach(sink);
+        }
+    }
+
+    // ==== JOBS ====
+
+    /**
+     * {@link #generatePlannedSingleSubjectSummaries} as a background job. The job is not started yet,
+     * so the caller can subscribe to it first. The subscriber is assumed to keep the summaries, e.g. in a table,
+     * so selections over the budget are never streamed.
+     */
+    public SummaryJob<SingleSubjectSummary> createSingleSubjectSummaryJob(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers) {
+
+        return createSingleSubjectSummaryJob(quantifiers, qualifiers, summarizers, true);
+    }
+
+    /**
+     * @param accumulated whether the subscriber keeps every summary, see {@link #planSingleSubjectSummaries(List, List, List, boolean)}
+     */
+    public SummaryJob<SingleSubjectSummary> createSingleSubjectSummaryJob(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            boolean accumulated) {
+
+        SummaryPlan plan = planSingleSubjectSummaries(quantifiers, qualifiers, summarizers, accumulated);
+        long total = switch (plan.strategy()) {
+            // pruning by coverage leaves the count unknown until the combinations are mined
+            case EXHAUSTIVE, STREAMING -> generationOptions.getMinCoverage() > 0.0 ? -1 : plan.summaryCount();
+            case TOP_K, SAMPLED -> Math.min(plan.summaryCount(), generationOptions.getTopK());
+        };
+        return new SummaryJob<>("single-subject-summaries", total, exclusive((sink, cancelled) ->
+                generatePlannedSingleSubjectSummaries(plan, quantifiers, qualifiers, summarizers, sink, cancelled)));
+    }
+
+    /**
+     * {@link #createMultisubjectSummaries} as a background job, not started yet.
+     */
+    public SummaryJob<MultisubjectSummary> createMultisubjectSummaryJob(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers) {
+
+        return new SummaryJob<>("multisubject-summaries", -1, exclusive((sink, cancelled) ->
+                generateMultisubjectSummaries(quantifiers, qualifiers, summarizers, sink, cancelled)));
+    }
+
+    /**
+     * Jobs of one machine share its evaluators and caches, so they run one at a time: a job started while
+     * a cancelled one is still winding down waits for it to finish.
+     */
+    private <T> SummaryJob.Body<T> exclusive(SummaryJob.Body<T> body) {
+        return (sink, cancelled) -> {
+            jobLock.lockInterruptibly();
+            try {
+                body.run(sink, cancelled);
+            } finally {
+                jobLock.unlock();
+            }
+        };
+    }
+
+    /**
+     * The {@code k} best of the summaries {@link #createSingleSubjectSummaries} would create, ranked by
+     * {@code measure} ("T1" or "T*"). In memory they are found without evaluating all of them
+     * (see {@link TopKSummarizer}); other evaluation modes evaluate every summary and keep only the best.
+     */
+    public List<SingleSubjectSummary> findTopSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            int k,
+            String measure) {
+
+        return findTopSingleSubjectSummaries(quantifiers, qualifiers, summarizers, k, measure, () -> false);
+    }
+
+    private List<SingleSubjectSummary> findTopSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            int k,
+            String measure,
+            BooleanSupplier cancelled) {
+
+        if (evaluationMode != EvaluationMode.IN_MEMORY) {
+            return scanTopSingleSubjectSummaries(quantifiers, qualifiers, summarizers, k, measure, cancelled);
+        }
+        Iterable<List<Label>> combinations = lazyCombinations(summarizers, true);
+        Iterable<List<Label>> qualifiedCombinations = generationOptions.getMinCoverage() > 0.0
+                ? lazyCombinations(summarizers, false)
+                : combinations;
+        return new TopKSummarizer(memberships, k, measure)
+                .search(quantifiers, qualifiers, combinations, qualifiedCombinations, cancelled);
+    }
+
+    /**
+     * Top K in evaluation modes the bounds of {@link TopKSummarizer} do not apply to: every summary is evaluated
+     * in the current mode and only the best are kept, ties in generation order.
+     */
+    private List<SingleSubjectSummary> scanTopSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            int k,
+            String measure,
+            BooleanSupplier cancelled) {
+
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive, got: " + k);
+        }
+        if (!TopKSummarizer.MEASURES.contains(measure)) {
+            throw new IllegalArgumentException("Top-K search supports " + TopKSummarizer.MEASURES + ", got: " + measure);
+        }
+
+        BestSummaries<SingleSubjectSummary> best = new BestSummaries<>(k);
+        generateSingleSubjectSummaries(quantifiers, qualifiers, summarizers,
+                cancellable(summary -> best.offer(summary, summary.getMeasure(measure)), cancelled));
+
+        logger.info("Top-" + k + ": evaluated " + best.offered() + " summaries in " + evaluationMode + " mode");
+        return best.ranked();
+    }
+
+    /**
+     * The K best of the offered summaries by score, kept in a heap with the worst of them at the head.
+     * Ties go to the summary offered first, as in a stable sort of all of them.
+     */
+    private static final class BestSummaries<T> {
+        private record Ranked<T>(T summary, double score, long order) {
+        }
+
+        private final int k;
+        private final PriorityQueue<Ranked<T>> best;
+        private long offered;
+
+        BestSummaries(int k) {
+            this.k = k;
+            this.best = new PriorityQueue<>(Comparator.comparingDouble((Ranked<T> ranked) -> ranked.score())
+                    .thenComparing(Comparator.comparingLong((Ranked<T> ranked) -> ranked.order()).reversed()));
+        }
+
+        void offer(T summary, double score) {
+            Ranked<T> ranked = new Ranked<>(summary, score, offered++);
+            if (best.size() < k) {
+                best.add(ranked);
+            } else if (best.comparator().compare(ranked, best.peek()) > 0) {
+                best.poll();
+                best.add(ranked);
+            }
+        }
+
+        long offered() {
+            return offered;
+        }
+
+        /**
+         * Kept summaries, best first.
+         */
+        List<T> ranked() {
+            List<Ranked<T>> ranked = new ArrayList<>(best);
+            ranked.sort(best.comparator().reversed());
+            return ranked.stream().map(Ranked::summary).toList();
+        }
+    }
+
+    /**
+     * Out-of-core evaluation: the same summaries as {@link #createSingleSubjectSummaries}, computed in one chunked
+     * scan of a columnar file instead of the in-memory columns; pruning by minimum coverage is counted over the file
+     * as well. Load the labels with {@link #loadTerms(Path)} so the CSV is not read into memory.
+     */
+    public List<SingleSubjectSummary> createSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            Path columnarFile) throws IOException {
+
+        try (ColumnarFile file = ColumnarFile.open(columnarFile)) {
+            List<List<Label>> allCombinations = allCombinations(summarizers);
+            List<List<Label>> labelCombinations = generationOptions.getMinCoverage() > 0.0
+                    ? FrequentCombinations.mine(summarizers, generationOptions.getMaxSummarizers(),
+                    generationOptions.getMinCoverage(), file)
+                    : allCombinations;
+
+            List<SummarySpec> specs = new ArrayList<>();
+            generateFirstTypeSingleSubjectSummaries(quantifiers, labelCombinations, SummarySpec::new, specs::add);
+            if (!qualifiers.isEmpty()) {
+                generateSecondTypeSingleSubjectSummaries(quantifiers, qualifiers, allCombinations, SummarySpec::new, specs::add);
+            }
+            return new ChunkedSummarizer(file).summarize(specs);
+        }
+    }
+
+    /**
+     * Creates the same summaries as {@link #createSingleSubjectSummaries} and keeps them up to date on {@link #appendData()};
+     * current values are available from {@link #getTrackedSummaries()}.
+     */
+    public List<SingleSubjectSummary> trackSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers) {
+
+        if (tracker == null) {
+            tracker = new SummaryTracker(memberships, regions);
+        }
+        generateSingleSubjectSummaries(quantifiers, qualifiers, summarizers, SummarySpec::new, tracker::track);
+        return tracker.summaries();
+    }
+
+    public List<SingleSubjectSummary> getTrackedSummaries() {
+        return tracker != null ? tracker.summaries() : List.of();
+    }
+
+    /**
+     * Streaming engine for the same summaries as {@link #createSingleSubjectSummaries}; feed it properties,
+     * e.g. from {@link pl.frot.data.PropertyFeeds}, and it reports summaries whose T1 moved by more than the threshold.
+     */
+    public StreamingSummarizer createStreamingSummarizer(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            WindowType windowType,
+            int windowSize,
+            double threshold,
+            Consumer<List<SummaryUpdate>> listener) {
+
+        List<SummarySpec> specs = new ArrayList<>();
+        generateSingleSubjectSummaries(quantifiers, qualifiers, summarizers, SummarySpec::new, specs::add);
+        return new StreamingSummarizer(specs, windowType, windowSize, threshold, listener);
+    }
+
+    public synchronized void setSamplingOptions(SamplingOptions samplingOptions) {
+        this.samplingOptions = samplingOptions;
+        this.sampledSummarizer = null;
+    }
+
+    // created on first use, possibly from a job thread
+    private synchronized SampledSummarizer sampledSummarizer() {
+        if (sampledSummarizer == null) {
+            sampledSummarizer = new SampledSummarizer(columns, regions, samplingOptions);
+        }
+        return sampledSummarizer;
+    }
+
+    private synchronized DatabaseSummarizer databaseSummarizer() {
+        if (databaseSummarizer == null) {
+            databaseSummarizer = new DatabaseSummarizer();
+        }
+        return databaseSummarizer;
+    }
+
+    private synchronized InDatabaseSummarizer inDatabaseSummarizer() {
+        if (inDatabaseSummarizer == null) {
+            inDatabaseSummarizer = new InDatabaseSummarizer();
+        }
+        return inDatabaseSummarizer;
+    }
+
+    private <T> void generateSingleSubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            SummaryEvaluator<T> evaluator,
+            Consumer<T> sink) {
+
+        List<List<Label>> labelCombinations = summarizerCombinations(summarizers);
         logger.info("🔄 Generated " + labelCombinations.size() + " label combinations");
+        generateFirstTypeSingleSubjectSummaries(quantifiers, labelCombinations, evaluator, sink);
+
+        if (!qualifiers.isEmpty()) {
+            List<List<Label>> qualifiedCombinations = generationOptions.getMinCoverage() > 0.0
+                    ? allCombinations(summarizers)
+                    : labelCombinations;
+            generateSecondTypeSingleSubjectSummaries(quantifiers, qualifiers, qualifiedCombinations, evaluator, sink);
+        }
+    }
 
+    private <T> void generateFirstTypeSingleSubjectSummaries(List<Quantifier> chosenQuantifiers, Iterable<List<Label>> labelCombinations,
+                                                             SummaryEvaluator<T> evaluator, Consumer<T> sink) {
         for (Quantifier quantifier : chosenQuantifiers) {
             for (List<Label> labelCombination : labelCombinations) {
-                SingleSubjectSummary summary = new SingleSubjectSummary(
-                        quantifier,
-                        null,
-                        labelCombination,
-                        properties,
-                        attributeExtractors
-                );
-
-                summaries.add(summary);
+                sink.accept(evaluator.evaluate(quantifier, null, labelCombination));
             }
         }
-        return summaries;
     }
 
-    public List<SingleSubjectSummary> createSecondTypeSingleSubjectSummaries(
+    private <T> void generateSecondTypeSingleSubjectSummaries(
             List<Quantifier> chosenQuantifiers,
             List<Label> chosenQualifiers,
-            List<List<Label>> chosenLabels) {
-
-        List<SingleSubjectSummary> summaries = new ArrayList<>();
-        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, 3);
+            Iterable<List<Label>> labelCombinations,
+            SummaryEvaluator<T> evaluator,
+            Consumer<T> sink) {
 
         for (Quantifier quantifier : chosenQuantifiers) {
             if (quantifier.type() == QuantifierType.ABSOLUTE) {
@@ -239,22 +736,138 @@ public class SummaryMachine {
                         continue;
                     }
 
-                    SingleSubjectSummary summary = new SingleSubjectSummary(
-                            quantifier,
-                            qualifier,
-                            summarizers,
-                            properties,
-                            attributeExtractors
-                    );
-
-                    summaries.add(summary);
+                    sink.accept(evaluator.evaluate(quantifier, qualifier, summarizers));
                 }
             }
         }
+    }
 
+    /**
+     * Summarizer combinations of first-form summaries. With a minimum coverage set in {@link #getGenerationOptions()}
+     * only combinations covering enough objects are kept, see {@link FrequentCombinations}.
+     */
+    private List<List<Label>> summarizerCombinations(List<List<Label>> chosenLabels) {
+        if (generationOptions.getMinCoverage() > 0.0) {
+            return FrequentCombinations.mine(chosenLabels, generationOptions.getMaxSummarizers(),
+                    generationOptions.getMinCoverage(), memberships);
+        }
+        return allCombinations(chosenLabels);
+    }
+
+    /**
+     * Every cross-list combination; second-form summaries always use these, since the coverage of the whole
+     * dataset says nothing about the share of the objects matching a qualifier.
+     */
+    private List<List<Label>> allCombinations(List<List<Label>> chosenLabels) {
+        return SetOperations.getCrossListCombinations(chosenLabels, generationOptions.getMaxSummarizers());
+    }
+
+    /**
+     * Same combinations as {@link #summarizerCombinations} ({@code pruned}) or {@link #allCombinations}, decoded
+     * one at a time from a {@link CrossListCombinations} on every iteration instead of being materialized.
+     * Pruned combinations are mined up front, and lists too large to pack into a {@code long} fall back to
+     * the materialized list.
+     */
+    private Iterable<List<Label>> lazyCombinations(List<List<Label>> chosenLabels, boolean pruned) {
+        int maxLength = generationOptions.getMaxSummarizers();
+        if (pruned && generationOptions.getMinCoverage() > 0.0) {
+            return summarizerCombinations(chosenLabels);
+        }
+        if (!CrossListCombinations.fits(chosenLabels, maxLength)) {
+            return allCombinations(chosenLabels);
+        }
+        CrossListCombinations<Label> combinations = SetOperations.crossListCombinations(chosenLabels, maxLength);
+        return () -> combinations.stream(false).mapToObj(combinations::decode).iterator();
+    }
+
+    /**
+     * In memory the summaries are evaluated in parallel (see {@link #getGenerationOptions()}), other modes evaluate
+     * them one by one. Either way the result follows the order of the specs.
+     */
+    private List<SingleSubjectSummary> summarize(List<SummarySpec> specs) {
+        List<SingleSubjectSummary> summaries = new ArrayList<>(specs.size());
+        summarize(specs, () -> false, summaries::add);
         return summaries;
     }
 
+    private void summarize(List<SummarySpec> specs, BooleanSupplier cancelled, Consumer<SingleSubjectSummary> sink) {
+        if (evaluationMode == EvaluationMode.IN_MEMORY) {
+            engine.summarize(specs, memberships, cancelled, sink);
+            return;
+        }
+        SummaryEvaluator<SingleSubjectSummary> evaluator = evaluationMode == EvaluationMode.SAMPLED
+                ? this::createSummary
+                : sharedStatisticsEvaluator();
+        Consumer<SingleSubjectSummary> checked = cancellable(sink, cancelled);
+        for (SummarySpec spec : specs) {
+            checked.accept(evaluator.evaluate(spec.quantifier(), spec.qualifier(), spec.summarizers()));
+        }
+    }
+
+    /**
+     * Sink that throws a {@link CancellationException} instead of accepting once {@code cancelled} returns true.
+     */
+    private static <T> Consumer<T> cancellable(Consumer<T> sink, BooleanSupplier cancelled) {
+        return summary -> {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Generation cancelled");
+            }
+            sink.accept(summary);
+        };
+    }
+
+    /**
+     * Labels over derived attributes (e.g. age) exist only in memory, so their summaries fall back to the cached
+     * memberships in the database modes.
+     */
+    private SingleSubjectSummary createSummary(Quantifier quantifier, Label qualifier, List<Label> summarizers) {
+        EvaluationMode mode = evaluationMode;
+        boolean stored = (qualifier == null || DatabaseSummarizer.isStored(qualifier))
+                && summarizers.stream().allMatch(DatabaseSummarizer::isStored);
+        if (!stored && (mode == EvaluationMode.SUPPORT_PUSHDOWN || mode == EvaluationMode.IN_DATABASE)) {
+            mode = EvaluationMode.IN_MEMORY;
+        }
+        return switch (mode) {
+            case IN_MEMORY -> new SingleSubjectSummary(quantifier, qualifier, summarizers, memberships);
+            case SUPPORT_PUSHDOWN -> databaseSummarizer().summarize(quantifier, qualifier, summarizers);
+            case IN_DATABASE -> inDatabaseSummarizer().summarize(quantifier, qualifier, summarizers);
+            case SAMPLED -> sampledSummarizer().summarize(quantifier, qualifier, summarizers).summary();
+        };
+    }
+
+    /**
+     * Summary over all rows: in the database in the database modes, from the cached memberships otherwise.
+     */
+    private SingleSubjectSummary exactSummary(Quantifier quantifier, Label qualifier, List<Label> summarizers) {
+        return switch (evaluationMode) {
+            case IN_MEMORY, SAMPLED -> new SingleSubjectSummary(quantifier, qualifier, summarizers, memberships);
+            case SUPPORT_PUSHDOWN, IN_DATABASE -> createSummary(quantifier, qualifier, summarizers);
+        };
+    }
+
+    /**
+     * Evaluates each (qualifier, summarizers) pair once and builds the summaries of the other quantifiers from
+     * the same statistics. Sampled summaries are excluded: their sample size depends on the quantifier.
+     */
+    private SummaryEvaluator<SingleSubjectSummary> sharedStatisticsEvaluator() {
+        Map<Label, Map<List<Label>, SummaryStatistics>> statistics = new IdentityHashMap<>();
+        return (quantifier, qualifier, summarizers) -> {
+            Map<List<Label>, SummaryStatistics> byCombination = statistics.computeIfAbsent(qualifier, q -> new IdentityHashMap<>());
+            SummaryStatistics shared = byCombination.get(summarizers);
+            if (shared != null) {
+                return new SingleSubjectSummary(quantifier, qualifier, summarizers, shared);
+            }
+            SingleSubjectSummary summary = createSummary(quantifier, qualifier, summarizers);
+            byCombination.put(summarizers, summary.getStatistics());
+            return summary;
+        };
+    }
+
+    @FunctionalInterface
+    private interface SummaryEvaluator<T> {
+        T evaluate(Quantifier quantifier, Label qualifier, List<Label> summarizers);
+    }
+
     // ==== MULTISUBJECT SUMMARIZING ====
 
     public List<MultisubjectSummary> createMultisubjectSummaries(
@@ -274,9 +887,37 @@ public class SummaryMachine {
         return allSummaries;
     }
 
+    /**
+     * Same summaries, in the same order, as {@link #createMultisubjectSummaries}, evaluated range by range;
+     * every finished range goes to the sink. Stops with a {@link CancellationException} once {@code cancelled} returns true.
+     */
+    private void generateMultisubjectSummaries(
+            List<Quantifier> quantifiers,
+            List<Label> qualifiers,
+            List<List<Label>> summarizers,
+            Consumer<MultisubjectSummary> sink,
+            BooleanSupplier cancelled) {
+
+        engine.evaluate(firstTypeMultisubjectSummaries(quantifiers, summarizers), cancelled, sink);
+
+        if (!qualifiers.isEmpty()) {
+            engine.evaluate(secondTypeMultisubjectSummaries(quantifiers, qualifiers, summarizers), cancelled, sink);
+            engine.evaluate(thirdTypeMultisubjectSummaries(quantifiers, qualifiers, summarizers), cancelled, sink);
+        }
+
+        engine.evaluate(fourthTypeMultisubjectSummaries(summarizers), cancelled, sink);
+    }
+
     public List<MultisubjectSummary> createFirstTypeMultisubjectSummaries(List<Quantifier> chosenQuantifiers, List<List<Label>> chosenLabels) {
+        List<MultisubjectSummary> summaries = firstTypeMultisubjectSummaries(chosenQuantifiers, chosenLabels);
+        engine.evaluate(summaries);
+        logger.info("🔄 Generated " + summaries.size() + " Form 1 multisubject summaries (bidirectional)");
+        return summaries;
+    }
+
+    private List<MultisubjectSummary> firstTypeMultisubjectSummaries(List<Quantifier> chosenQuantifiers, List<List<Label>> chosenLabels) {
         List<MultisubjectSummary> summaries = new ArrayList<>();
-        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, 3);
+        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, generationOptions.getMaxSummarizers());
 
         // Create all possible pairs of property types - BOTH DIRECTIONS
         PropertyType[] types = PropertyType.values();
@@ -286,7 +927,7 @@ public class SummaryMachine {
                 PropertyType type2 = types[j];
 
                 // Skip if either population is empty
-                if (propertiesByType.get(type1).isEmpty() || propertiesByType.get(type2).isEmpty()) {
+                if (regions.count(type1) == 0 || regions.count(type2) == 0) {
                     continue;
                 }
 
@@ -304,8 +945,8 @@ public class SummaryMachine {
                                 labelCombination,
                                 type1,
                                 type2,
-                                propertiesByType,
-                                attributeExtractors,
+                                memberships,
+                                regions,
                                 false  // qualifierAppliesTo1 (not relevant when no qualifier)
                         );
                         summaries.add(summary1);
@@ -317,8 +958,8 @@ public class SummaryMachine {
                                 labelCombination,
                                 type2,  // Switched
                                 type1,  // Switched
-                                propertiesByType,
-                                attributeExtractors,
+                                memberships,
+                                regions,
                                 false  // qualifierAppliesTo1 (not relevant when no qualifier)
                         );
                         summaries.add(summary2);
@@ -327,18 +968,28 @@ public class SummaryMachine {
             }
         }
 
-        logger.info("🔄 Generated " + summaries.size() + " Form 1 multisubject summaries (bidirectional)");
         return summaries;
     }
 
-    // Modified version of createSecondTypeMultisubjectSummaries
     public List<MultisubjectSummary> createSecondTypeMultisubjectSummaries(
             List<Quantifier> chosenQuantifiers,
             List<Label> chosenQualifiers,
             List<List<Label>> chosenLabels) {
 
+        List<MultisubjectSummary> summaries = secondTypeMultisubjectSummaries(chosenQuantifiers, chosenQualifiers, chosenLabels);
+        engine.evaluate(summaries);
+        logger.info("🔄 Generated " + summaries.size() + " Form 2 multisubject summaries (bidirectional)");
+        return summaries;
+    }
+
+    // Modified version of createSecondTypeMultisubjectSummaries
+    private List<MultisubjectSummary> secondTypeMultisubjectSummaries(
+            List<Quantifier> chosenQuantifiers,
+            List<Label> chosenQualifiers,
+            List<List<Label>> chosenLabels) {
+
         List<MultisubjectSummary> summaries = new ArrayList<>();
-        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, 3);
+        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, generationOptions.getMaxSummarizers());
 
         // Create all possible pairs of property types - BOTH DIRECTIONS
         PropertyType[] types = PropertyType.values();
@@ -347,7 +998,7 @@ public class SummaryMachine {
                 PropertyType type1 = types[i];
                 PropertyType type2 = types[j];
 
-                if (propertiesByType.get(type1).isEmpty() || propertiesByType.get(type2).isEmpty()) {
+                if (regions.count(type1) == 0 || regions.count(type2) == 0) {
                     continue;
                 }
 
@@ -369,8 +1020,8 @@ public class SummaryMachine {
                                     labelCombination,
                                     type1,
                                     type2,
-                                    propertiesByType,
-                                    attributeExtractors,
+                                    memberships,
+                                    regions,
                                     false  // Form 2: qualifier applies to P₂
                             );
                             summaries.add(summary1);
@@ -382,8 +1033,8 @@ public class SummaryMachine {
                                     labelCombination,
                                     type2,  // Switched
                                     type1,  // Switched
-                                    propertiesByType,
-                                    attributeExtractors,
+                                    memberships,
+                                    regions,
                                     false  // Form 2: qualifier applies to P₂ (now the switched type2)
                             );
                             summaries.add(summary2);
@@ -393,7 +1044,6 @@ public class SummaryMachine {
             }
         }
 
-        logger.info("🔄 Generated " + summaries.size() + " Form 2 multisubject summaries (bidirectional)");
         return summaries;
     }
 
@@ -402,8 +1052,19 @@ public class SummaryMachine {
             List<Label> chosenQualifiers,
             List<List<Label>> chosenLabels) {
 
+        List<MultisubjectSummary> summaries = thirdTypeMultisubjectSummaries(chosenQuantifiers, chosenQualifiers, chosenLabels);
+        engine.evaluate(summaries);
+        logger.info("🔄 Generated " + summaries.size() + " Form 3 multisubject summaries (bidirectional)");
+        return summaries;
+    }
+
+    private List<MultisubjectSummary> thirdTypeMultisubjectSummaries(
+            List<Quantifier> chosenQuantifiers,
+            List<Label> chosenQualifiers,
+            List<List<Label>> chosenLabels) {
+
         List<MultisubjectSummary> summaries = new ArrayList<>();
-        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, 3);
+        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, generationOptions.getMaxSummarizers());
 
         // Create all possible pairs of property types - BOTH DIRECTIONS
         PropertyType[] types = PropertyType.values();
@@ -412,7 +1073,7 @@ public class SummaryMachine {
                 PropertyType type1 = types[i];
                 PropertyType type2 = types[j];
 
-                if (propertiesByType.get(type1).isEmpty() || propertiesByType.get(type2).isEmpty()) {
+                if (regions.count(type1) == 0 || regions.count(type2) == 0) {
                     continue;
                 }
 
@@ -434,8 +1095,8 @@ public class SummaryMachine {
                                     labelCombination,
                                     type1,
                                     type2,
-                                    propertiesByType,
-                                    attributeExtractors,
+                                    memberships,
+                                    regions,
                                     true  // Form 3: qualifier applies to P₁
                             );
                             summaries.add(summary1);
@@ -447,8 +1108,8 @@ public class SummaryMachine {
                                     labelCombination,
                                     type2,  // Switched
                                     type1,  // Switched
-                                    propertiesByType,
-                                    attributeExtractors,
+                                    memberships,
+                                    regions,
                                     true  // Form 3: qualifier applies to P₁ (now the switched type2)
                             );
                             summaries.add(summary2);
@@ -458,13 +1119,19 @@ public class SummaryMachine {
             }
         }
 
-        logger.info("🔄 Generated " + summaries.size() + " Form 3 multisubject summaries (bidirectional)");
         return summaries;
     }
 
     public List<MultisubjectSummary> createFourthTypeMultisubjectSummaries(List<List<Label>> chosenLabels) {
+        List<MultisubjectSummary> summaries = fourthTypeMultisubjectSummaries(chosenLabels);
+        engine.evaluate(summaries);
+        logger.info("🔄 Generated " + summaries.size() + " Form 4 multisubject summaries (bidirectional)");
+        return summaries;
+    }
+
+    private List<MultisubjectSummary> fourthTypeMultisubjectSummaries(List<List<Label>> chosenLabels) {
         List<MultisubjectSummary> summaries = new ArrayList<>();
-        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, 3);
+        List<List<Label>> labelCombinations = SetOperations.getCrossListCombinations(chosenLabels, generationOptions.getMaxSummarizers());
 
         PropertyType[] types = PropertyType.values();
         for (int i = 0; i < types.length; i++) {
@@ -472,7 +1139,7 @@ public class SummaryMachine {
                 PropertyType type1 = types[i];
                 PropertyType type2 = types[j];
 
-                if (propertiesByType.get(type1).isEmpty() || propertiesByType.get(type2).isEmpty()) {
+                if (regions.count(type1) == 0 || regions.count(type2) == 0) {
                     continue;
                 }
 
@@ -484,8 +1151,8 @@ public class SummaryMachine {
                             labelCombination,
                             type1,
                             type2,
-                            propertiesByType,
-                            attributeExtractors,
+                            memberships,
+                            regions,
                             false
                     );
                     summaries.add(summary1);
@@ -497,8 +1164,8 @@ public class SummaryMachine {
                             labelCombination,
                             type2,  // Switched
                             type1,  // Switched
-                            propertiesByType,
-                            attributeExtractors,
+                            memberships,
+                            regions,
                             false
                     );
                     summaries.add(summary2);
@@ -506,7 +1173,6 @@ public class SummaryMachine {
             }
         }
 
-        logger.info("🔄 Generated " + summaries.size() + " Form 4 multisubject summaries (bidirectional)");
         return summaries;
     }
 
@@ -545,8 +1211,8 @@ public class SummaryMachine {
 
             if (labelType == LabelType.QUANTIFIER_ABSOLUTE
                     && (fuzzySet.getUniverse().getSamples().getFirst() != 1
-                    || fuzzySet.getUniverse().getSamples().getLast() != properties.size())) {
-                logger.warning("Absolute quantifier must have UoD of [1, size] | size=" + properties.size());
+                    || fuzzySet.getUniverse().getSamples().getLast() != columns.size())) {
+                logger.warning("Absolute quantifier must have UoD of [1, size] | size=" + columns.size());
                 throw new IllegalArgumentException("Absolute quantifier must have UoD of properties size");
             }
         }
@@ -557,16 +1223,65 @@ public class SummaryMachine {
     private Universe<Double> createUniverse(LabelType labelType, String lvName) {
         return switch (labelType) {
             case QUANTIFIER_RELATIVE -> new ContinousUniverse(0, 1, 0.01);
-            case QUANTIFIER_ABSOLUTE -> new ContinousUniverse(1, properties.size(), 1);
-            case QUALIFIER, SUMMARIZER -> {
-                Function<Property, Double> attributeExtractor = attributeExtractors.get(lvName);
-                List<Double> uod = properties.stream().map(attributeExtractor).toList();
-                yield new DiscreteUniverse<>(uod);
-            }
+            case QUANTIFIER_ABSOLUTE -> new ContinousUniverse(1, columns.size(), 1);
+            case QUALIFIER, SUMMARIZER -> new DiscreteUniverse<>(columnValues(columns.attributeId(lvName)));
         };
     }
 
-    public void saveToFile(List<String> strings) {
-        DataWriter.saveToFile(strings);
+    /**
+     * Creates a label bound to the column of the given linguistic variable.
+     */
+    public Label createLabel(String name, FuzzySet<Double> fuzzySet, String lvName) {
+        Label label = new Label(name, fuzzySet, lvName, columns.attributeId(lvName));
+        // custom labels stay selectable until the data is reloaded, so their vectors are cached like the loaded ones
+        memberships.build(List.of(label));
+        return label;
+    }
+
+    /**
+     * Universe of a variable: the values of its column, without missing ones (NaN of derived columns), which
+     * would otherwise turn the universe length and sigma-counts, and so T2 and T8-T10, into NaN.
+     */
+    private List<Double> columnValues(int attributeId) {
+        NumericColumn column = columns.column(attributeId);
+        List<Double> values = new ArrayList<>(columns.size());
+        for (int row = 0; row < columns.size(); row++) {
+            double value = column.get(row);
+            if (!Double.isNaN(value)) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes summaries, e.g. the ones selected in the GUI, through a {@link SummaryExporter} on a background thread.
+     *
+     * @param rows hands the summaries to the exporter, called on the export thread
+     * @return completes with the number of exported summaries, exceptionally if the export failed
+     */
+    public CompletableFuture<Long> exportSummaries(Path path, ExportFormat format, Consumer<SummaryExporter> rows) {
+        return DataWriter.exportAsync(path, format, rows);
+    }
+
+    /**
+     * Generates single subject summaries and streams them with all measures to the given file,
+     * without keeping them in memory.
+     *
+     * @return number of exported summaries, or -1 if the export failed
+     */
+    public long exportSingleSubjectSummaries(List<Quantifier> quantifiers, List<Label> qualifiers,
+                                             List<List<Label>> summarizers, Path path, ExportFormat format) {
+        try {
+            SummaryExporter exporter = DataWriter.openExporter(path, format);
+            try (exporter) {
+                generateSingleSubjectSummaries(quantifiers, qualifiers, summarizers,
+                        summary -> exporter.export(summary.toString(), summary.getMeasures()));
+            }
+            return exporter.getExported();
+        } catch (IOException e) {
+            logger.warning("Failed to export summaries: " + e.getMessage());
+            return -1;
+        }
     }
 }
\ No newline at end of file
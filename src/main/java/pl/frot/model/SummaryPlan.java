@@ -0,0 +1,21 @@
+package pl.frot.model;
+
+/**
+ * Size and estimated cost of a single-subject summary selection, computed before anything is evaluated.
+ *
+ * @param combinationCount summarizer combinations (an upper bound when combinations are pruned by coverage)
+ * @param summaryCount     summaries the selection creates
+ * @param rowPasses        conjunctions evaluated over all rows, one per (qualifier, combination) pair
+ * @param cpuNanos         estimated CPU time of the evaluation, summed over all threads
+ * @param memoryBytes      estimated memory taken by the summaries if all of them are kept
+ * @param strategy         how the selection will be generated
+ */
+public record SummaryPlan(long combinationCount, long summaryCount, long rowPasses, long cpuNanos, long memoryBytes,
+                          GenerationStrategy strategy) {
+
+    @Override
+    public String toString() {
+        return String.format("%d summaries over %d combinations, ~%d ms CPU, ~%d MB: %s",
+                summaryCount, combinationCount, cpuNanos / 1_000_000, memoryBytes >> 20, strategy);
+    }
+}
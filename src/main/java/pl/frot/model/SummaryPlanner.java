@@ -0,0 +1,109 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.utils.SetOperations;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Counts the summaries of a selection exactly and estimates their cost from the list sizes alone, then picks
+ * a {@link GenerationStrategy}: the one set in {@link GenerationOptions} if any, else exhaustive generation within
+ * the budget and the configured over-budget strategy otherwise. Streaming is not chosen for callers that keep
+ * every summary.
+ */
+public class SummaryPlanner {
+    private static final Logger logger = Logger.getLogger(SummaryPlanner.class.getName());
+
+    // rough costs on a current JVM: one min + accumulate per row (in memory, rows fetched from H2,
+    // membership functions called by H2), a kept summary with its measures,
+    // statistics shared by the quantifiers of one (qualifier, combination) pair, a combination list
+    private static final long ROW_NANOS = 2;
+    private static final long FETCHED_ROW_NANOS = 20;
+    private static final long DATABASE_ROW_NANOS = 50;
+    private static final long SUMMARY_BYTES = 512;
+    private static final long STATISTICS_BYTES = 128;
+    private static final long COMBINATION_BYTES = 64;
+
+    private final GenerationOptions options;
+
+    public SummaryPlanner(GenerationOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Plan of the summaries {@link SummaryMachine#createSingleSubjectSummaries} would create over {@code rows} objects
+     * evaluated in the given mode.
+     *
+     * @param accumulated whether the caller keeps every summary, so streaming would save nothing
+     */
+    public SummaryPlan plan(List<Quantifier> quantifiers, List<Label> qualifiers, List<List<Label>> summarizers, int rows,
+                            EvaluationMode mode, boolean accumulated) {
+        int maxLength = options.getMaxSummarizers();
+        if (maxLength < 1) {
+            throw new IllegalArgumentException("Max summarizers must be positive, got: " + maxLength);
+        }
+        long relative = quantifiers.stream().filter(q -> q.type() != QuantifierType.ABSOLUTE).count();
+
+        long combinations;
+        long summaries;
+        long rowPasses;
+        long memory;
+        try {
+            combinations = SetOperations.countCrossListCombinations(listSizes(summarizers, null), maxLength);
+            // the second form skips combinations containing the qualifier
+            long qualifiedCombinations = 0;
+            for (Label qualifier : qualifiers) {
+                qualifiedCombinations = Math.addExact(qualifiedCombinations,
+                        SetOperations.countCrossListCombinations(listSizes(summarizers, qualifier), maxLength));
+            }
+
+            summaries = Math.addExact(Math.multiplyExact(quantifiers.size(), combinations),
+                    Math.multiplyExact(relative, qualifiedCombinations));
+            long statistics = relative > 0 ? Math.addExact(combinations, qualifiedCombinations) : combinations;
+            rowPasses = Math.multiplyExact(statistics, rows);
+            memory = Math.addExact(Math.multiplyExact(summaries, SUMMARY_BYTES),
+                    Math.addExact(Math.multiplyExact(statistics, STATISTICS_BYTES),
+                            Math.multiplyExact(combinations, COMBINATION_BYTES)));
+        } catch (ArithmeticException e) {
+            combinations = summaries = rowPasses = memory = Long.MAX_VALUE;
+        }
+        long rowNanos = switch (mode) {
+            case IN_MEMORY, SAMPLED -> ROW_NANOS;
+            case SUPPORT_PUSHDOWN -> FETCHED_ROW_NANOS;
+            case IN_DATABASE -> DATABASE_ROW_NANOS;
+        };
+        long cpuNanos = rowPasses > Long.MAX_VALUE / rowNanos ? Long.MAX_VALUE : rowPasses * rowNanos;
+
+        boolean overBudget = summaries > options.getSummaryBudget() || memory > options.getMemoryBudget();
+        GenerationStrategy strategy = options.getStrategy() != null ? options.getStrategy()
+                : overBudget ? options.getOverBudgetStrategy() : GenerationStrategy.EXHAUSTIVE;
+        if (strategy == GenerationStrategy.STREAMING && accumulated) {
+            strategy = GenerationStrategy.TOP_K;
+        }
+        SummaryPlan plan = new SummaryPlan(combinations, summaries, rowPasses, cpuNanos, memory, strategy);
+        if (overBudget && strategy != GenerationStrategy.EXHAUSTIVE) {
+            logger.warning("Selection exceeds the generation budget, " + plan);
+        } else {
+            logger.info(plan.toString());
+        }
+        return plan;
+    }
+
+    /**
+     * Sizes of the summarizer lists, without the occurrences of {@code excluded} if given.
+     */
+    private static long[] listSizes(List<List<Label>> summarizers, Label excluded) {
+        long[] sizes = new long[summarizers.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            for (Label label : summarizers.get(i)) {
+                if (label != excluded) {
+                    sizes[i]++;
+                }
+            }
+        }
+        return sizes;
+    }
+}
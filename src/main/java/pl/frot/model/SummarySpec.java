@@ -0,0 +1,12 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+
+import java.util.List;
+
+/**
+ * Summary to be evaluated: quantifier, optional qualifier (null for the first form) and summarizers.
+ */
+public record SummarySpec(Quantifier quantifier, Label qualifier, List<Label> summarizers) {
+}
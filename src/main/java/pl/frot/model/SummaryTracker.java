@@ -0,0 +1,132 @@
+package pl.frot.model;
+
+import pl.frot.data.PartitionIndex;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Keeps single-subject summaries up to date while rows are appended to the columns.
+ * Every tracked summary holds sufficient statistics (sigma, support and nfo-counts) per region; after an append
+ * only the new rows are evaluated and added, and T1-T4 are re-derived from the merged statistics.
+ * Membership vectors are read from the shared {@link LabelMembershipCache}, which must be updated before the tracker.
+ */
+public class SummaryTracker {
+    private static final Logger logger = Logger.getLogger(SummaryTracker.class.getName());
+
+    private final LabelMembershipCache memberships;
+    private final PartitionIndex<PropertyType> regions;
+
+    private final List<SummarySpec> specs = new ArrayList<>();
+    // per summary: statistics of each region, last slot for rows outside every region
+    private final List<SummaryStatistics[]> regionStatistics = new ArrayList<>();
+    private int processedRows;
+
+    public SummaryTracker(LabelMembershipCache memberships, PartitionIndex<PropertyType> regions) {
+        this.memberships = memberships;
+        this.regions = regions;
+        this.processedRows = memberships.size();
+    }
+
+    /**
+     * Starts tracking a summary; its statistics are computed over all rows processed so far.
+     * Its labels are added to the cache, so their vectors are extended on every append instead of re-evaluated.
+     */
+    public void track(SummarySpec spec) {
+        List<Label> labels = new ArrayList<>(spec.summarizers());
+        if (spec.qualifier() != null) {
+            labels.add(spec.qualifier());
+        }
+        memberships.build(labels);
+
+        SummaryStatistics[] statistics = new SummaryStatistics[regions.partitions().size() + 1];
+        for (int region = 0; region < statistics.length; region++) {
+            statistics[region] = new SummaryStatistics(spec.summarizers().size(), spec.qualifier() != null);
+        }
+        accumulate(spec, statistics, 0, processedRows);
+
+        specs.add(spec);
+        regionStatistics.add(statistics);
+    }
+
+    /**
+     * Processes rows appended since the last update. The region index and the membership cache must already cover them.
+     *
+     * @return number of new rows
+     */
+    public int update() {
+        int from = processedRows;
+        int to = memberships.size();
+        if (from == to) {
+            return 0;
+        }
+
+        processedRows = to;
+        for (int i = 0; i < specs.size(); i++) {
+            accumulate(specs.get(i), regionStatistics.get(i), from, to);
+        }
+
+        logger.info("Updated " + specs.size() + " tracked summaries with " + (to - from) + " new rows");
+        return to - from;
+    }
+
+    /**
+     * Tracked summaries with measures re-derived from the current statistics, in tracking order.
+     */
+    public List<SingleSubjectSummary> summaries() {
+        List<SingleSubjectSummary> summaries = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            SummarySpec spec = specs.get(i);
+            summaries.add(new SingleSubjectSummary(spec.quantifier(), spec.qualifier(), spec.summarizers(), statistics(i)));
+        }
+        return summaries;
+    }
+
+    /**
+     * Statistics of the i-th tracked summary over all rows.
+     */
+    public SummaryStatistics statistics(int i) {
+        SummarySpec spec = specs.get(i);
+        SummaryStatistics total = new SummaryStatistics(spec.summarizers().size(), spec.qualifier() != null);
+        for (SummaryStatistics region : regionStatistics.get(i)) {
+            total.merge(region);
+        }
+        return total;
+    }
+
+    /**
+     * Statistics of the i-th tracked summary restricted to one region.
+     */
+    public SummaryStatistics statistics(int i, PropertyType region) {
+        return regionStatistics.get(i)[regions.partitions().indexOf(region)];
+    }
+
+    public int size() {
+        return specs.size();
+    }
+
+    // ==== UTILS ====
+
+    private void accumulate(SummarySpec spec, SummaryStatistics[] statistics, int from, int to) {
+        double[][] summarizerMemberships = new double[spec.summarizers().size()][];
+        for (int j = 0; j < summarizerMemberships.length; j++) {
+            summarizerMemberships[j] = memberships.get(spec.summarizers().get(j));
+        }
+        double[] qualifierMemberships = spec.qualifier() != null ? memberships.get(spec.qualifier()) : null;
+
+        int outside = statistics.length - 1;
+        double[] rowMemberships = new double[summarizerMemberships.length];
+        for (int row = from; row < to; row++) {
+            for (int j = 0; j < rowMemberships.length; j++) {
+                rowMemberships[j] = summarizerMemberships[j][row];
+            }
+            int region = regions.partitionOf(row);
+            statistics[region >= 0 ? region : outside]
+                    .accept(rowMemberships, qualifierMemberships != null ? qualifierMemberships[row] : 1.0);
+        }
+    }
+}
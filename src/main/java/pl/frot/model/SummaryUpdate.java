@@ -0,0 +1,17 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+/**
+ * Change of a streamed summary's degree of truth. Full measures are computed only when {@link #summary()} is called.
+ *
+ * @param rowsSeen rows received by the stream when the update was emitted
+ */
+public record SummaryUpdate(SummarySpec spec, SummaryStatistics statistics, double previousDegreeOfTruth,
+                            double degreeOfTruth, long rowsSeen) {
+
+    public SingleSubjectSummary summary() {
+        return new SingleSubjectSummary(spec.quantifier(), spec.qualifier(), spec.summarizers(), statistics);
+    }
+}
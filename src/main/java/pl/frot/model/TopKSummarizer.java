@@ -0,0 +1,258 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.base.GaussianFunction;
+import pl.frot.fuzzy.base.MembershipFunction;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.base.TriangularFunction;
+import pl.frot.fuzzy.summaries.*;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Finds the K best single-subject summaries by T1 or T* without evaluating all of them (branch and bound).
+ * Combinations are walked through a {@link SummarizerLattice}, every combination before its extensions. Adding
+ * a summarizer can only shrink the conjunction, so the statistics of a combination bound the measures of all its
+ * extensions; extensions whose bound is below the current K-th best are not visited.
+ * The result is exactly the first K summaries of the full list sorted by the measure, ties in generation order.
+ */
+public class TopKSummarizer {
+    private static final Logger logger = Logger.getLogger(TopKSummarizer.class.getName());
+
+    public static final List<String> MEASURES = List.of("T1", "T*");
+    // bounds are summed in a different order than the measures themselves, allow for the rounding
+    private static final double BOUND_SLACK = 1e-9;
+
+    private final LabelMembershipCache memberships;
+    private final int k;
+    private final boolean optimal;
+
+    // the worst of the K best at the head
+    private final PriorityQueue<Candidate> best = new PriorityQueue<>(
+            Comparator.comparingDouble(Candidate::score).thenComparing(Comparator.comparingLong(Candidate::order).reversed()));
+    private double summarizerBound;
+    private long visited;
+    private BooleanSupplier cancelled;
+
+    public TopKSummarizer(LabelMembershipCache memberships, int k, String measure) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive, got: " + k);
+        }
+        if (!MEASURES.contains(measure)) {
+            throw new IllegalArgumentException("Top-K search supports " + MEASURES + ", got: " + measure);
+        }
+        this.memberships = memberships;
+        this.k = k;
+        this.optimal = measure.equals("T*");
+    }
+
+    /**
+     * Same candidates as {@link SummaryMachine#createSingleSubjectSummaries}: the first form for every quantifier,
+     * the second form for relative quantifiers and every qualifier not among the summarizers.
+     *
+     * @return the K best summaries, best first
+     */
+    public List<SingleSubjectSummary> search(List<Quantifier> quantifiers, List<Label> qualifiers,
+                                             Iterable<List<Label>> combinations) {
+        return search(quantifiers, qualifiers, combinations, () -> false);
+    }
+
+    /**
+     * {@link #search(List, List, Iterable)} that stops with a {@link CancellationException} once {@code cancelled}
+     * returns true; checked at every visited combination.
+     */
+    public List<SingleSubjectSummary> search(List<Quantifier> quantifiers, List<Label> qualifiers,
+                                             Iterable<List<Label>> combinations, BooleanSupplier cancelled) {
+        return search(quantifiers, qualifiers, combinations, combinations, cancelled);
+    }
+
+    /**
+     * {@link #search(List, List, Iterable, BooleanSupplier)} with separate combinations for the second form,
+     * e.g. when only the first form is pruned by coverage.
+     */
+    public List<SingleSubjectSummary> search(List<Quantifier> quantifiers, List<Label> qualifiers,
+                                             Iterable<List<Label>> firstFormCombinations,
+                                             Iterable<List<Label>> secondFormCombinations, BooleanSupplier cancelled) {
+        best.clear();
+        visited = 0;
+        this.cancelled = cancelled;
+        summarizerBound = qualifiers.isEmpty()
+                ? summarizerBound(firstFormCombinations)
+                : Math.max(summarizerBound(firstFormCombinations), summarizerBound(secondFormCombinations));
+
+        // generation order: first form by (quantifier, combination), then second form by (quantifier, qualifier, combination)
+        SummarizerLattice lattice = new SummarizerLattice(firstFormCombinations, memberships);
+        long combinationCount = lattice.size();
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < quantifiers.size(); i++) {
+            all.add(i);
+        }
+        walk(lattice, quantifiers, all, null, 0, combinationCount);
+
+        List<Quantifier> relative = new ArrayList<>();
+        List<Integer> relativeIndices = new ArrayList<>();
+        for (int i = 0; i < quantifiers.size(); i++) {
+            if (quantifiers.get(i).type() != QuantifierType.ABSOLUTE) {
+                relative.add(quantifiers.get(i));
+                relativeIndices.add(i);
+            }
+        }
+        if (!relative.isEmpty() && !qualifiers.isEmpty()) {
+            long secondForm = quantifiers.size() * combinationCount;
+            SummarizerLattice qualifiedLattice = secondFormCombinations == firstFormCombinations
+                    ? lattice
+                    : new SummarizerLattice(secondFormCombinations, memberships);
+            long qualifiedCount = qualifiedLattice.size();
+            for (int w = 0; w < qualifiers.size(); w++) {
+                walk(qualifiedLattice, relative, relativeIndices, qualifiers.get(w),
+                        secondForm + w * qualifiedCount, qualifiers.size() * qualifiedCount);
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble(Candidate::score).reversed().thenComparingLong(Candidate::order));
+        logger.info("Top-" + k + ": evaluated " + visited + " summaries");
+        return ranked.stream().map(Candidate::summary).toList();
+    }
+
+    // ==== SEARCH ====
+
+    /**
+     * @param indices          position of each quantifier in the list given by the caller, for the generation order
+     * @param quantifierStride distance in generation order between two quantifiers of the same combination
+     */
+    private void walk(SummarizerLattice lattice, List<Quantifier> quantifiers, List<Integer> indices, Label qualifier,
+                      long offset, long quantifierStride) {
+        lattice.walk(qualifier, (index, combination, statistics) -> {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("Top-" + k + " search cancelled");
+            }
+            double bound = Double.NEGATIVE_INFINITY;
+            for (int q = 0; q < quantifiers.size(); q++) {
+                SingleSubjectSummary summary = new SingleSubjectSummary(quantifiers.get(q), qualifier, combination, statistics);
+                offer(summary, offset + indices.get(q) * quantifierStride + index);
+                bound = Math.max(bound, bound(summary));
+            }
+            visited += quantifiers.size();
+
+            return best.size() < k || bound + BOUND_SLACK >= best.peek().score();
+        });
+    }
+
+    private void offer(SingleSubjectSummary summary, long order) {
+        Candidate candidate = new Candidate(summary, score(summary), order);
+        if (best.size() < k) {
+            best.add(candidate);
+        } else if (best.comparator().compare(candidate, best.peek()) > 0) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+
+    private double score(SingleSubjectSummary summary) {
+        return summary.getMeasure(optimal ? "T*" : "T1");
+    }
+
+    // ==== BOUNDS ====
+
+    /**
+     * Upper bound of the measure over the summary and every summary extending its summarizers.
+     */
+    private double bound(SingleSubjectSummary summary) {
+        double truth = truthBound(summary.getQuantifier(), summary.getStatistics());
+        if (!optimal) {
+            return truth;
+        }
+
+        // T3 only shrinks with more summarizers, |Π r_j - T3| stays below the larger of the two,
+        // T5 shrinks with the length, T6, T7 and T9 - T11 do not depend on the summarizers
+        SummaryStatistics statistics = summary.getStatistics();
+        double covering = summary.getMeasure("T3");
+        double supportProduct = 1.0;
+        for (long support : statistics.getSummarizerSupports()) {
+            supportProduct *= statistics.getCount() == 0 ? 0.0 : (double) support / statistics.getCount();
+        }
+
+        List<Double> wages = SingleSubjectSummary.DEFAULT_WAGES;
+        return wages.get(0) * truth
+                + wages.get(1) * summarizerBound
+                + wages.get(2) * covering
+                + wages.get(3) * Math.max(supportProduct, covering)
+                + wages.get(4) * summary.getMeasure("T5")
+                + wages.get(5) * summary.getMeasure("T6")
+                + wages.get(6) * summary.getMeasure("T7")
+                + wages.get(7) * summarizerBound
+                + wages.get(8) * summary.getMeasure("T9")
+                + wages.get(9) * summary.getMeasure("T10")
+                + wages.get(10) * summary.getMeasure("T11");
+    }
+
+    /**
+     * T1 of the extensions is Q(x') with x' between 0 and the x of the summary itself.
+     */
+    private static double truthBound(Quantifier quantifier, SummaryStatistics statistics) {
+        if (statistics.getCount() == 0) {
+            return 0.0;
+        }
+        double x;
+        if (statistics.isQualified()) {
+            if (statistics.getSigmaW() == 0.0) {
+                return 0.0;
+            }
+            x = statistics.getSigmaSW() / statistics.getSigmaW();
+        } else {
+            x = quantifier.type() == QuantifierType.RELATIVE
+                    ? statistics.getSigmaS() / statistics.getCount()
+                    : statistics.getSigmaS();
+        }
+        return maxMembership(quantifier.fuzzySet().getMembershipFunction(), 0.0, x);
+    }
+
+    /**
+     * Maximum of the function on [lo, hi]. The supported functions rise up to their peak and fall after it,
+     * so the maximum is 1 if the interval reaches the peak and the value at the nearer end otherwise.
+     */
+    static double maxMembership(MembershipFunction<Double> function, double lo, double hi) {
+        return switch (function) {
+            case TrapezoidalFunction trapezoidal -> unimodalMax(function, lo, hi, trapezoidal.getB(), trapezoidal.getC());
+            case TriangularFunction triangular -> unimodalMax(function, lo, hi, triangular.getB(), triangular.getB());
+            case GaussianFunction gaussian -> unimodalMax(function, lo, hi, gaussian.getCenter(), gaussian.getCenter());
+            default -> 1.0;
+        };
+    }
+
+    private static double unimodalMax(MembershipFunction<Double> function, double lo, double hi,
+                                      double peakFrom, double peakTo) {
+        if (hi < peakFrom) {
+            return function.apply(hi);
+        }
+        if (lo > peakTo) {
+            return function.apply(lo);
+        }
+        return 1.0;
+    }
+
+    /**
+     * T2 and T8 are 1 minus a geometric mean of per-summarizer ratios, so neither exceeds
+     * 1 minus the smallest ratio of any summarizer in the combinations.
+     */
+    private static double summarizerBound(Iterable<List<Label>> combinations) {
+        double smallest = 1.0;
+        Set<Label> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<Label> combination : combinations) {
+            for (Label label : combination) {
+                if (seen.add(label)) {
+                    FuzzySetStatistics statistics = FuzzySetStatistics.of(label.getFuzzySet());
+                    double ratio = statistics.length() == 0 ? 0.0 : statistics.degreeOfFuzziness();
+                    smallest = Math.min(smallest, Math.max(ratio, 0.0));
+                }
+            }
+        }
+        return 1.0 - smallest;
+    }
+
+    private record Candidate(SingleSubjectSummary summary, double score, long order) {
+    }
+}
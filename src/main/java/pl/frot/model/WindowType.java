@@ -0,0 +1,6 @@
+package pl.frot.model;
+
+public enum WindowType {
+    SLIDING,    // last N rows, updated after every row
+    TUMBLING    // consecutive, non-overlapping blocks of N rows, updated when a block is complete
+}
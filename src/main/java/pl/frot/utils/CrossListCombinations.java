@@ -0,0 +1,320 @@
+package pl.frot.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy view of {@link SetOperations#getCrossListCombinations}: the same combinations in the same order,
+ * without materializing them. A combination is packed into a {@code long} as element ids (position in the
+ * concatenation of all lists, plus one) in fixed-width slots, first element in the lowest bits.
+ * <p>
+ * Combinations are ranked in generation order, so any one of them can be decoded directly with {@link #unrank(long)}
+ * and a rank range splits in O(1), which makes {@link #spliterator()} suitable for parallel streams.
+ *
+ * @param <T> element type
+ */
+public class CrossListCombinations<T> {
+    private final List<List<T>> lists;
+    private final int maxLength;
+    private final int[] sizes;
+    private final int[] offsets;
+    private final int bitsPerSlot;
+    private final long slotMask;
+    // weights[length][start]: number of combinations of the given length using only lists start..n-1
+    private final long[][] weights;
+    private final long[] lengthStarts;
+    private final long size;
+
+    public CrossListCombinations(List<List<T>> lists, int maxLength) {
+        this.lists = lists;
+        int n = lists.size();
+        this.maxLength = Math.max(0, Math.min(maxLength, n));
+        this.sizes = new int[n];
+        this.offsets = new int[n + 1];
+        for (int list = 0; list < n; list++) {
+            sizes[list] = lists.get(list).size();
+            offsets[list + 1] = offsets[list] + sizes[list];
+        }
+
+        this.bitsPerSlot = Math.max(1, 32 - Integer.numberOfLeadingZeros(offsets[n]));
+        if ((long) bitsPerSlot * this.maxLength > Long.SIZE) {
+            throw new IllegalArgumentException("Combinations of " + this.maxLength + " out of " + offsets[n]
+                    + " elements do not fit into a long");
+        }
+        this.slotMask = (1L << bitsPerSlot) - 1;
+
+        this.weights = new long[this.maxLength + 1][n + 1];
+        for (int start = 0; start <= n; start++) {
+            weights[0][start] = 1;
+        }
+        for (int length = 1; length <= this.maxLength; length++) {
+            for (int start = n - 1; start >= 0; start--) {
+                weights[length][start] = Math.addExact(weights[length][start + 1],
+                        Math.multiplyExact(sizes[start], weights[length - 1][start + 1]));
+            }
+        }
+
+        this.lengthStarts = new long[this.maxLength + 2];
+        for (int length = 1; length <= this.maxLength; length++) {
+            lengthStarts[length + 1] = lengthStarts[length] + weights[length][0];
+        }
+        this.size = lengthStarts[this.maxLength + 1];
+    }
+
+    /**
+     * Whether combinations of the lists can be packed into a {@code long}.
+     */
+    public static boolean fits(List<? extends List<?>> lists, int maxLength) {
+        int elements = 0;
+        for (List<?> list : lists) {
+            elements += list.size();
+        }
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(elements));
+        return (long) bits * Math.min(maxLength, lists.size()) <= Long.SIZE;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Packed combination at the given position of the generation order.
+     */
+    public long unrank(long rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of " + size);
+        }
+        int length = 1;
+        while (rank >= lengthStarts[length + 1]) {
+            length++;
+        }
+        rank -= lengthStarts[length];
+
+        // choose the lists: combinations of lists are the outer loop, so the block of a list is weighted by the
+        // product of the sizes chosen so far times everything that can follow it
+        int[] chosen = new int[length];
+        long multiplier = 1;
+        int start = 0;
+        for (int slot = 0; slot < length; slot++) {
+            int remaining = length - slot - 1;
+            for (int list = start; ; list++) {
+                long block = multiplier * sizes[list] * weights[remaining][list + 1];
+                if (rank < block) {
+                    chosen[slot] = list;
+                    multiplier *= sizes[list];
+                    start = list + 1;
+                    break;
+                }
+                rank -= block;
+            }
+        }
+
+        // remaining rank is the position in the cartesian product, last list varying fastest
+        long packed = 0;
+        for (int slot = length - 1; slot >= 0; slot--) {
+            int list = chosen[slot];
+            int element = (int) (rank % sizes[list]);
+            rank /= sizes[list];
+            packed |= (long) (offsets[list] + element + 1) << (slot * bitsPerSlot);
+        }
+        return packed;
+    }
+
+    /**
+     * Position of the packed combination in the generation order; inverse of {@link #unrank(long)}.
+     */
+    public long rank(long packed) {
+        int length = length(packed);
+        int[] chosen = new int[length];
+        int[] elements = new int[length];
+        for (int slot = 0; slot < length; slot++) {
+            int id = elementId(packed, slot);
+            chosen[slot] = listOf(id);
+            elements[slot] = id - offsets[chosen[slot]];
+        }
+
+        long rank = lengthStarts[length];
+        long multiplier = 1;
+        int start = 0;
+        for (int slot = 0; slot < length; slot++) {
+            int remaining = length - slot - 1;
+            for (int list = start; list < chosen[slot]; list++) {
+                rank += multiplier * sizes[list] * weights[remaining][list + 1];
+            }
+            multiplier *= sizes[chosen[slot]];
+            start = chosen[slot] + 1;
+        }
+
+        long position = 0;
+        for (int slot = 0; slot < length; slot++) {
+            position = position * sizes[chosen[slot]] + elements[slot];
+        }
+        return rank + position;
+    }
+
+    public int length(long packed) {
+        int length = 0;
+        while (length < maxLength && elementId(packed, length) >= 0) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Position of the slot's element in the concatenation of all lists, or -1 past the end of the combination.
+     */
+    public int elementId(long packed, int slot) {
+        return (int) ((packed >>> (slot * bitsPerSlot)) & slotMask) - 1;
+    }
+
+    public List<T> decode(long packed) {
+        int length = length(packed);
+        List<T> combination = new ArrayList<>(length);
+        for (int slot = 0; slot < length; slot++) {
+            int id = elementId(packed, slot);
+            int list = listOf(id);
+            combination.add(lists.get(list).get(id - offsets[list]));
+        }
+        return combination;
+    }
+
+    public Spliterator.OfLong spliterator() {
+        return new RankSpliterator(0, size);
+    }
+
+    public LongStream stream(boolean parallel) {
+        return StreamSupport.longStream(spliterator(), parallel);
+    }
+
+    // ==== UTILS ====
+
+    private int listOf(int elementId) {
+        int list = 0;
+        while (offsets[list + 1] <= elementId) {
+            list++;
+        }
+        return list;
+    }
+
+    /**
+     * Unranks only the first combination of its range; every following one is derived from the previous like
+     * an odometer: the elements advance with the last slot fastest, then the chosen lists, then the length.
+     */
+    private class RankSpliterator implements Spliterator.OfLong {
+        private long from;
+        private final long to;
+        // current combination, valid once started
+        private int[] chosen;
+        private int[] elements;
+
+        RankSpliterator(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (from >= to) {
+                return false;
+            }
+            if (chosen == null) {
+                start(unrank(from));
+            } else {
+                advance();
+            }
+            from++;
+            action.accept(pack());
+            return true;
+        }
+
+        private void start(long packed) {
+            int length = length(packed);
+            chosen = new int[length];
+            elements = new int[length];
+            for (int slot = 0; slot < length; slot++) {
+                int id = elementId(packed, slot);
+                chosen[slot] = listOf(id);
+                elements[slot] = id - offsets[chosen[slot]];
+            }
+        }
+
+        private void advance() {
+            for (int slot = elements.length - 1; slot >= 0; slot--) {
+                if (++elements[slot] < sizes[chosen[slot]]) {
+                    return;
+                }
+                elements[slot] = 0;
+            }
+            // all elements wrapped: next lists with no empty one, or the first lists of the next length
+            do {
+                if (!nextLists()) {
+                    chosen = new int[chosen.length + 1];
+                    elements = new int[chosen.length];
+                    for (int slot = 0; slot < chosen.length; slot++) {
+                        chosen[slot] = slot;
+                    }
+                }
+            } while (hasEmptyList());
+        }
+
+        /**
+         * Next list-index combination of the same length in lexicographic order, false after the last one.
+         */
+        private boolean nextLists() {
+            int n = sizes.length;
+            for (int slot = chosen.length - 1; slot >= 0; slot--) {
+                if (chosen[slot] < n - chosen.length + slot) {
+                    chosen[slot]++;
+                    for (int next = slot + 1; next < chosen.length; next++) {
+                        chosen[next] = chosen[next - 1] + 1;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean hasEmptyList() {
+            for (int list : chosen) {
+                if (sizes[list] == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private long pack() {
+            long packed = 0;
+            for (int slot = 0; slot < chosen.length; slot++) {
+                packed |= (long) (offsets[chosen[slot]] + elements[slot] + 1) << (slot * bitsPerSlot);
+            }
+            return packed;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit() {
+            long middle = (from + to) >>> 1;
+            if (middle <= from) {
+                return null;
+            }
+            RankSpliterator prefix = new RankSpliterator(from, middle);
+            from = middle;
+            chosen = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | DISTINCT | IMMUTABLE | NONNULL;
+        }
+    }
+}
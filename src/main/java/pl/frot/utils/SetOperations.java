@@ -63,8 +63,51 @@ public class SetOperations {
      * Creates all combinations of elements taken from different lists in {@param listOfLists}
      * for combination sizes from 1 up to {@param maxLength}.
      * Each combination contains elements from different lists (one element per list).
+     * Combinations are decoded one by one from {@link CrossListCombinations} when they fit into a {@code long}.
      */
     public static <T> List<List<T>> getCrossListCombinations(List<List<T>> listOfLists, int maxLength) {
+        if (!CrossListCombinations.fits(listOfLists, maxLength)) {
+            return materializeCrossListCombinations(listOfLists, maxLength);
+        }
+
+        CrossListCombinations<T> combinations = crossListCombinations(listOfLists, maxLength);
+        List<List<T>> allCombinations = new ArrayList<>(Math.toIntExact(combinations.size()));
+        combinations.stream(false).forEach(packed -> allCombinations.add(combinations.decode(packed)));
+        return allCombinations;
+    }
+
+    /**
+     * Number of combinations {@link #getCrossListCombinations} creates, without creating them:
+     * the sum of elementary symmetric polynomials e_1 ... e_maxLength of the list sizes.
+     *
+     * @throws ArithmeticException if the count does not fit into a {@code long}
+     */
+    public static long countCrossListCombinations(long[] listSizes, int maxLength) {
+        int limit = Math.min(maxLength, listSizes.length);
+        // polynomials[r] = e_r of the lists seen so far
+        long[] polynomials = new long[limit + 1];
+        polynomials[0] = 1;
+        for (long size : listSizes) {
+            for (int r = limit; r >= 1; r--) {
+                polynomials[r] = Math.addExact(polynomials[r], Math.multiplyExact(polynomials[r - 1], size));
+            }
+        }
+
+        long count = 0;
+        for (int r = 1; r <= limit; r++) {
+            count = Math.addExact(count, polynomials[r]);
+        }
+        return count;
+    }
+
+    /**
+     * Lazy, packed view of {@link #getCrossListCombinations} with the same order.
+     */
+    public static <T> CrossListCombinations<T> crossListCombinations(List<List<T>> listOfLists, int maxLength) {
+        return new CrossListCombinations<>(listOfLists, maxLength);
+    }
+
+    private static <T> List<List<T>> materializeCrossListCombinations(List<List<T>> listOfLists, int maxLength) {
         List<List<T>> allCombinations = new ArrayList<>();
         int n = listOfLists.size();
 
@@ -0,0 +1,82 @@
+package pl.frot.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options are parsed into repeatable lists; invalid arguments exit with 2 before anything is generated,
+ * failed loading or generation with 1. With --top-k exactly K summaries are written, best first.
+ */
+class BatchRunnerTest {
+    private static final String DATA = "src/main/resources/property.csv";
+
+    public static void main(String[] args) throws IOException {
+        Map<String, List<String>> options = BatchRunner.parse(new String[]{
+                "--summarizer", "yearBuilt", "--top-k", "5", "--summarizer", "soldPrice"});
+        if (!options.equals(Map.of("summarizer", List.of("yearBuilt", "soldPrice"), "top-k", List.of("5")))) {
+            throw new IllegalStateException("Unexpected options: " + options);
+        }
+
+        checkExit(2, "--unknown", "1");
+        checkExit(2, "--top-k");
+        checkExit(2, "--top-k", "five");
+        checkExit(2, "--top-k", "5", "--top-k", "6");
+        checkExit(2, "--mode", "IN_CLOUD");
+        checkExit(2, "--format", "XML");
+        checkExit(2, "--rank-by", "T3");
+        checkExit(2, "--data", DATA, "--quantifier", "prawie nikt z nikim");
+        checkExit(2, "--data", DATA, "--summarizer", "bathrooms");
+        checkExit(1, "--data", "missing.csv");
+
+        String ranked = checkExit(0, "--data", DATA, "--summarizer", "yearBuilt", "--summarizer", "soldPrice",
+                "--top-k", "5", "--rank-by", "T1");
+        List<String> lines = ranked.lines().toList();
+        if (lines.size() != 5) {
+            throw new IllegalStateException("Expected 5 summaries, got " + lines.size());
+        }
+        for (int i = 1; i < lines.size(); i++) {
+            if (score(lines.get(i)) > score(lines.get(i - 1))) {
+                throw new IllegalStateException("Summaries not ranked by T1: " + lines);
+            }
+        }
+
+        Path output = Files.createTempFile("summaries", ".csv");
+        try {
+            checkExit(0, "--data", DATA, "--summarizer", "yearBuilt", "--mode", "SAMPLED", "--top-k", "3",
+                    "--output", output.toString());
+            long rows = Files.readAllLines(output, StandardCharsets.UTF_8).size();
+            if (rows != 4) {
+                throw new IllegalStateException("Expected a header and 3 summaries, got " + rows + " lines");
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+        System.out.println("Arguments and exit codes consistent");
+    }
+
+    /**
+     * @return standard output of the run
+     */
+    private static String checkExit(int expected, String... args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int status = BatchRunner.execute(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        if (status != expected) {
+            throw new IllegalStateException("%s: expected exit code %s, got %s%n%s".formatted(
+                    List.of(args), expected, status, err.toString(StandardCharsets.UTF_8)));
+        }
+        System.out.println(List.of(args) + " -> " + status);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static double score(String line) {
+        return Double.parseDouble(line.substring(0, line.indexOf('\t')).replace(',', '.'));
+    }
+}
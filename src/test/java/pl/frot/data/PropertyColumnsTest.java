@@ -0,0 +1,76 @@
+package pl.frot.data;
+
+import java.util.Random;
+
+/**
+ * Encoded columns must return exactly the values that were appended, also after appends past {@link PropertyColumns#encode()}.
+ * Derived columns added after encoding must follow the appended rows as well.
+ */
+class PropertyColumnsTest {
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        int rows = 5000;
+        double[][] expected = new double[PropertyColumns.NUMERIC_ATTRIBUTES.size()][rows];
+
+        PropertyColumns columns = new PropertyColumns(16);
+        for (int row = 0; row < rows; row++) {
+            double[] values = randomRow(random, row < rows / 2);
+            for (int attribute = 0; attribute < values.length; attribute++) {
+                expected[attribute][row] = values[attribute];
+            }
+            columns.addRow(row, "type" + random.nextInt(5), "city" + random.nextInt(50), "9" + random.nextInt(1000), values);
+            if (row == rows / 2 - 1) {
+                columns.encode();
+                columns.addDerivedColumn("age", "2020 - yearBuilt");
+                columns.addDerivedColumn("pricePerYear", "soldPrice / (age + 1)");
+            }
+        }
+
+        for (int attribute = 0; attribute < expected.length; attribute++) {
+            for (int row = 0; row < rows; row++) {
+                double value = columns.value(attribute, row);
+                if (Double.compare(value, expected[attribute][row]) != 0) {
+                    throw new IllegalStateException("%s[%d]: expected %f, got %f (%s)".formatted(
+                            PropertyColumns.NUMERIC_ATTRIBUTES.get(attribute), row,
+                            expected[attribute][row], value, columns.column(attribute).encoding()));
+                }
+            }
+            System.out.println(PropertyColumns.NUMERIC_ATTRIBUTES.get(attribute) + ": " + columns.column(attribute).encoding());
+        }
+        int age = columns.attributeId("age");
+        int pricePerYear = columns.attributeId("pricePerYear");
+        for (int row = 0; row < rows; row++) {
+            double expectedAge = 2020 - expected[3][row];
+            double expectedPrice = expected[0][row] / (expectedAge + 1);
+            if (!Double.isFinite(expectedPrice)) {
+                // division by zero is a missing value
+                expectedPrice = Double.NaN;
+            }
+            if (Double.compare(columns.value(age, row), expectedAge) != 0
+                    || Double.compare(columns.value(pricePerYear, row), expectedPrice) != 0) {
+                throw new IllegalStateException("Derived columns differ at row " + row);
+            }
+        }
+        System.out.println("age: " + columns.column(age).encoding() + ", pricePerYear: " + columns.column(pricePerYear).encoding());
+        System.out.println("Encoded columns consistent, " + columns.memoryBytes() + " bytes");
+    }
+
+    /**
+     * The second half widens ranges and adds new values, so encodings have to rebase, widen or fall back to plain.
+     */
+    private static double[] randomRow(Random random, boolean firstHalf) {
+        double[] values = new double[PropertyColumns.NUMERIC_ATTRIBUTES.size()];
+        values[0] = 1e5 + random.nextDouble() * 1e6;
+        values[1] = firstHalf ? 500 + random.nextInt(100) : 100 + random.nextInt(5000);
+        values[2] = firstHalf ? random.nextInt(4) * 0.25 : random.nextInt(20) * 0.25;
+        values[3] = firstHalf ? 1950 + random.nextInt(50) : 1850 + random.nextInt(175);
+        values[4] = random.nextInt(30) / 10.0;
+        values[5] = random.nextInt(10) == 0 ? Double.NaN : random.nextInt(60) / 10.0;
+        values[6] = firstHalf ? random.nextInt(3) : random.nextDouble();
+        values[7] = firstHalf ? 1000 : 1000 + random.nextInt(1 << 20);
+        values[8] = random.nextInt(3);
+        values[9] = Double.NaN;
+        values[10] = firstHalf ? random.nextInt(1 << 20) : -random.nextInt(1 << 20);
+        return values;
+    }
+}
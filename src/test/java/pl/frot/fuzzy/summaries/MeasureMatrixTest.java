@@ -0,0 +1,132 @@
+package pl.frot.fuzzy.summaries;
+
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.ContinousUniverse;
+import pl.frot.fuzzy.base.FuzzySet;
+import pl.frot.fuzzy.base.MembershipFunction;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.base.TriangularFunction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * T* from the matrix must equal {@link SingleSubjectSummary#recalculateMeasures} bit for bit, and the top K must
+ * equal a stable sort of the recalculated summaries, also when summaries tie (every summary is generated twice)
+ * or all weights are zero.
+ */
+class MeasureMatrixTest {
+
+    public static void main(String[] args) {
+        List<SingleSubjectSummary> summaries = summaries();
+        MeasureMatrix matrix = new MeasureMatrix(summaries);
+
+        Random random = new Random(5);
+        List<List<Double>> wagesList = new ArrayList<>(List.of(SingleSubjectSummary.DEFAULT_WAGES, zeros()));
+        for (int i = 0; i < 5; i++) {
+            List<Double> wages = new ArrayList<>();
+            for (int column = 0; column < MeasureMatrix.COLUMNS.size(); column++) {
+                wages.add(random.nextDouble());
+            }
+            wagesList.add(wages);
+        }
+
+        for (List<Double> wages : wagesList) {
+            double[] optimal = matrix.optimal(wages);
+            for (int row = 0; row < summaries.size(); row++) {
+                summaries.get(row).recalculateMeasures(wages);
+                double expected = summaries.get(row).getMeasure("T*");
+                if (Double.compare(expected, optimal[row]) != 0) {
+                    throw new IllegalStateException("Row %s: expected T* %s, got %s".formatted(row, expected, optimal[row]));
+                }
+            }
+
+            List<SingleSubjectSummary> sorted = new ArrayList<>(summaries);
+            sorted.sort(Comparator.comparingDouble((SingleSubjectSummary summary) -> summary.getMeasure("T*")).reversed());
+            for (int k : new int[]{0, 1, 7, 40, summaries.size(), summaries.size() + 5}) {
+                List<SingleSubjectSummary> expected = sorted.subList(0, Math.min(k, sorted.size()));
+                List<SingleSubjectSummary> top = matrix.top(wages, k);
+                if (!sameObjects(expected, top)) {
+                    throw new IllegalStateException("Top %s differs for wages %s".formatted(k, wages));
+                }
+            }
+        }
+
+        // ties go to the lower row
+        int[] top = MeasureMatrix.top(new double[]{0.5, 0.9, 0.5, 0.9, 0.1, 0.5}, 4);
+        if (!Arrays.equals(top, new int[]{1, 3, 0, 2})) {
+            throw new IllegalStateException("Unexpected rows: " + Arrays.toString(top));
+        }
+        System.out.println("Matrix ranking consistent with recalculated measures over " + summaries.size()
+                + " summaries and " + wagesList.size() + " weightings");
+    }
+
+    private static boolean sameObjects(List<SingleSubjectSummary> expected, List<SingleSubjectSummary> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) != actual.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Double> zeros() {
+        List<Double> zeros = new ArrayList<>();
+        for (int column = 0; column < MeasureMatrix.COLUMNS.size(); column++) {
+            zeros.add(0.0);
+        }
+        return zeros;
+    }
+
+    /**
+     * First- and second-form summaries over random rows, each generated twice so every score has a tie.
+     */
+    private static List<SingleSubjectSummary> summaries() {
+        Random random = new Random(17);
+        PropertyColumns columns = new PropertyColumns();
+        double[] values = new double[PropertyColumns.NUMERIC_ATTRIBUTES.size()];
+        for (int row = 0; row < 500; row++) {
+            for (int attribute = 0; attribute < values.length; attribute++) {
+                values[attribute] = random.nextInt(100);
+            }
+            columns.addRow(row, "SingleFamily", "San Jose", "95123", values);
+        }
+
+        List<Label> labels = new ArrayList<>();
+        for (String attribute : List.of("lot", "yearBuilt", "soldPrice")) {
+            labels.add(label(attribute, new TrapezoidalFunction(0, 10, 40, 60), "mało " + attribute));
+            labels.add(label(attribute, new TriangularFunction(30, 60, 90), "sporo " + attribute));
+        }
+        List<Quantifier> quantifiers = List.of(
+                new Quantifier("około połowy", QuantifierType.RELATIVE, new FuzzySet<>(
+                        new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.2, 0.5, 0.8))),
+                new Quantifier("około 100", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                        new ContinousUniverse(0, 500, 1), new TrapezoidalFunction(0, 50, 150, 200))));
+
+        List<SingleSubjectSummary> summaries = new ArrayList<>();
+        for (int copy = 0; copy < 2; copy++) {
+            for (Quantifier quantifier : quantifiers) {
+                for (int i = 0; i < labels.size(); i++) {
+                    summaries.add(new SingleSubjectSummary(quantifier, null, List.of(labels.get(i)), columns));
+                    for (int j = i + 1; j < labels.size(); j++) {
+                        summaries.add(new SingleSubjectSummary(quantifier, null, List.of(labels.get(i), labels.get(j)), columns));
+                        if (quantifier.type() == QuantifierType.RELATIVE) {
+                            summaries.add(new SingleSubjectSummary(quantifier, labels.get(j), List.of(labels.get(i)), columns));
+                        }
+                    }
+                }
+            }
+        }
+        return summaries;
+    }
+
+    private static Label label(String attribute, MembershipFunction<Double> function, String name) {
+        return new Label(name, new FuzzySet<>(new ContinousUniverse(0, 100, 1), function), attribute);
+    }
+}
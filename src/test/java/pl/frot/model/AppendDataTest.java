@@ -0,0 +1,167 @@
+package pl.frot.model;
+
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.ContinousUniverse;
+import pl.frot.fuzzy.base.FuzzySet;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.LinguisticVariable;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static pl.frot.model.SummaryFixtures.checkMeasures;
+
+/**
+ * Loading part of a CSV file and appending the rest with {@link SummaryMachine#appendData()} must give the same
+ * columns, regions, cached memberships and tracked summaries as a fresh load of the whole file. A custom label
+ * created before the appends must be cached and extended as well.
+ * Rows are appended in chunks, one of them ending in the middle of a line.
+ */
+class AppendDataTest {
+    private static final Path SOURCE = Path.of("src/main/resources/property.csv");
+
+    public static void main(String[] args) throws IOException {
+        List<String> lines = Files.readAllLines(SOURCE, StandardCharsets.UTF_8);
+        Path file = Files.createTempFile("property", ".csv");
+        try {
+            int loaded = lines.size() / 3;
+            Files.write(file, lines.subList(0, loaded + 1), StandardCharsets.UTF_8);
+
+            SummaryMachine appended = machine(file);
+            List<SingleSubjectSummary> tracked = track(appended);
+            Label custom = appended.createLabel("własna", new FuzzySet<>(new ContinousUniverse(0, 1e5, 1),
+                    new TrapezoidalFunction(2000, 4000, 8000, 12000)), "lot");
+            System.out.println("Tracking " + tracked.size() + " summaries over " + appended.getColumns().size() + " rows");
+
+            int chunk = (lines.size() - loaded) / 3;
+            for (int from = loaded + 1; from < lines.size(); from += chunk) {
+                String rows = String.join("\n", lines.subList(from, Math.min(from + chunk, lines.size()))) + "\n";
+                // the first chunk is written in two parts, split inside a line
+                int split = from == loaded + 1 ? rows.length() / 2 : rows.length();
+                Files.writeString(file, rows.substring(0, split), StandardOpenOption.APPEND);
+                appended.appendData();
+                Files.writeString(file, rows.substring(split), StandardOpenOption.APPEND);
+                appended.appendData();
+            }
+
+            SummaryMachine fresh = machine(file);
+            checkColumns(fresh.getColumns(), appended.getColumns());
+            checkRegions(fresh, appended);
+            checkMemberships(fresh, appended);
+            checkTracked(fresh, appended);
+            checkCustom(fresh, appended, custom);
+            System.out.println("Appended data consistent with a fresh load of " + fresh.getColumns().size() + " rows");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static SummaryMachine machine(Path file) {
+        SummaryMachine machine = new SummaryMachine();
+        machine.setPropertiesPath(file);
+        if (!machine.loadData()) {
+            throw new IllegalStateException("Failed to load " + file);
+        }
+        return machine;
+    }
+
+    /**
+     * First-form summaries of the first label of every variable and second-form ones qualified by two of them.
+     */
+    private static List<SingleSubjectSummary> track(SummaryMachine machine) {
+        List<List<Label>> summarizers = machine.getLinguisticVariables().stream()
+                .map(variable -> List.of(variable.labels().getFirst()))
+                .limit(4)
+                .toList();
+        List<Label> qualifiers = machine.getLinguisticVariables().stream()
+                .skip(4)
+                .limit(2)
+                .map(variable -> variable.labels().getLast())
+                .toList();
+        return machine.trackSingleSubjectSummaries(machine.getQuantifiers(), qualifiers, summarizers);
+    }
+
+    private static void checkColumns(PropertyColumns expected, PropertyColumns actual) {
+        if (expected.size() != actual.size() || expected.attributeCount() != actual.attributeCount()) {
+            throw new IllegalStateException("Expected %s rows and %s attributes, got %s and %s".formatted(
+                    expected.size(), expected.attributeCount(), actual.size(), actual.attributeCount()));
+        }
+        for (int row = 0; row < expected.size(); row++) {
+            if (expected.id(row) != actual.id(row) || !expected.zip(row).equals(actual.zip(row))) {
+                throw new IllegalStateException("Rows differ at " + row);
+            }
+            for (int attribute = 0; attribute < expected.attributeCount(); attribute++) {
+                if (Double.compare(expected.value(attribute, row), actual.value(attribute, row)) != 0) {
+                    throw new IllegalStateException("Column %s differs at row %s".formatted(
+                            expected.attributeName(attribute), row));
+                }
+            }
+        }
+    }
+
+    private static void checkRegions(SummaryMachine expected, SummaryMachine actual) {
+        if (!Arrays.equals(expected.getRegions().counts(), actual.getRegions().counts())) {
+            throw new IllegalStateException("Expected region counts %s, got %s".formatted(
+                    Arrays.toString(expected.getRegions().counts()), Arrays.toString(actual.getRegions().counts())));
+        }
+        for (PropertyType region : expected.getRegions().partitions()) {
+            if (!Arrays.equals(expected.getRegions().rows(region), actual.getRegions().rows(region))) {
+                throw new IllegalStateException("Rows of region " + region + " differ");
+            }
+        }
+    }
+
+    private static void checkMemberships(SummaryMachine expected, SummaryMachine actual) {
+        int rows = expected.getMemberships().size();
+        if (actual.getMemberships().size() != rows) {
+            throw new IllegalStateException("Expected %s cached rows, got %s".formatted(rows, actual.getMemberships().size()));
+        }
+        List<LinguisticVariable> variables = expected.getLinguisticVariables();
+        for (int i = 0; i < variables.size(); i++) {
+            List<Label> expectedLabels = variables.get(i).labels();
+            List<Label> actualLabels = actual.getLinguisticVariables().get(i).labels();
+            for (int j = 0; j < expectedLabels.size(); j++) {
+                double[] expectedVector = Arrays.copyOf(expected.getMemberships().get(expectedLabels.get(j)), rows);
+                double[] actualVector = Arrays.copyOf(actual.getMemberships().get(actualLabels.get(j)), rows);
+                if (!Arrays.equals(expectedVector, actualVector)) {
+                    throw new IllegalStateException("Memberships of " + expectedLabels.get(j).getName() + " differ");
+                }
+                if (expected.getMemberships().supportCount(expectedLabels.get(j))
+                        != actual.getMemberships().supportCount(actualLabels.get(j))) {
+                    throw new IllegalStateException("Support of " + expectedLabels.get(j).getName() + " differs");
+                }
+            }
+        }
+    }
+
+    private static void checkCustom(SummaryMachine fresh, SummaryMachine appended, Label custom) {
+        double[] cached = appended.getMemberships().get(custom);
+        if (cached != appended.getMemberships().get(custom)) {
+            throw new IllegalStateException("Custom label evaluated again instead of cached");
+        }
+        int rows = fresh.getColumns().size();
+        if (!Arrays.equals(custom.membershipVector(fresh.getColumns()), Arrays.copyOf(cached, rows))) {
+            throw new IllegalStateException("Memberships of the custom label differ");
+        }
+    }
+
+    /**
+     * Tracked summaries are compared with the same summaries evaluated over the fresh columns.
+     */
+    private static void checkTracked(SummaryMachine fresh, SummaryMachine appended) {
+        List<SingleSubjectSummary> tracked = appended.getTrackedSummaries();
+        for (SingleSubjectSummary summary : tracked) {
+            SingleSubjectSummary expected = new SingleSubjectSummary(summary.getQuantifier(), summary.getQualifier(),
+                    summary.getSummarizers(), fresh.getColumns());
+            checkMeasures(expected, summary);
+        }
+        System.out.println("Checked " + tracked.size() + " tracked summaries");
+    }
+}
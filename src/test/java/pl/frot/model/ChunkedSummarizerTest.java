@@ -0,0 +1,76 @@
+package pl.frot.model;
+
+import pl.frot.data.ColumnarFile;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.*;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static pl.frot.model.SummaryFixtures.checkMeasures;
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * Consistency check: chunked evaluation over a columnar file must give the same measures and the same pruned
+ * combinations as the in-memory evaluator.
+ */
+class ChunkedSummarizerTest {
+    public static void main(String[] args) throws IOException {
+        PropertyColumns columns = PropertyColumns.fromProperties(randomProperties(2500, 42));
+
+        Label lot = label("przytulna", columns, "lot", new TrapezoidalFunction(1800, 2000, 4000, 5000));
+        Label price = label("średnia cena", columns, "soldPrice", new TriangularFunction(2e5, 5e5, 8e5));
+        Label year = label("powojenna", columns, "yearBuilt", new GaussianFunction(1950, 10));
+
+        Quantifier relative = new Quantifier("około połowy", QuantifierType.RELATIVE, new FuzzySet<>(
+                new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.1, 0.3, 0.5)));
+        Quantifier absolute = new Quantifier("około 500", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                new ContinousUniverse(0, columns.size(), 1), new TrapezoidalFunction(0, 100, 400, 700)));
+
+        List<SummarySpec> specs = List.of(
+                new SummarySpec(relative, null, List.of(lot)),
+                new SummarySpec(absolute, null, List.of(lot, price)),
+                new SummarySpec(relative, year, List.of(lot, price)),
+                new SummarySpec(relative, price, List.of(year)));
+
+        Path path = Files.createTempFile("properties", ".ldsc");
+        try {
+            ColumnarFile.write(columns, path, 300);
+            List<SingleSubjectSummary> chunked;
+            try (ColumnarFile file = ColumnarFile.open(path)) {
+                chunked = new ChunkedSummarizer(file).summarize(specs);
+            }
+
+            for (int i = 0; i < specs.size(); i++) {
+                SummarySpec spec = specs.get(i);
+                checkMeasures(new SingleSubjectSummary(spec.quantifier(), spec.qualifier(), spec.summarizers(), columns),
+                        chunked.get(i));
+            }
+
+            // pruning by coverage counted over the file must keep the same combinations as in memory
+            List<List<Label>> lists = List.of(List.of(lot, year), List.of(price));
+            LabelMembershipCache memberships = new LabelMembershipCache(columns);
+            memberships.build(List.of(lot, price, year));
+            for (double minCoverage : new double[]{0.01, 0.1, 0.3}) {
+                List<List<Label>> counted;
+                try (ColumnarFile file = ColumnarFile.open(path)) {
+                    counted = FrequentCombinations.mine(lists, 2, minCoverage, file);
+                }
+                List<List<Label>> inMemory = FrequentCombinations.mine(lists, 2, minCoverage, memberships);
+                if (!counted.equals(inMemory)) {
+                    throw new IllegalStateException("Coverage %.2f: expected %s, got %s".formatted(minCoverage, inMemory, counted));
+                }
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+        System.out.println("Chunked evaluation consistent with in-memory evaluation");
+    }
+}
@@ -0,0 +1,102 @@
+package pl.frot.model;
+
+import pl.frot.data.Property;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.*;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static pl.frot.model.SummaryFixtures.checkMeasures;
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * Consistency check: support pushdown must give the same measures as the in-memory evaluator although only
+ * rows inside the label supports are fetched. Rows come from an in-memory source that applies the predicate
+ * to every row, as the database would; labels over derived attributes must be rejected before any fetch.
+ */
+class DatabaseSummarizerTest {
+    private static int fetchedRows;
+
+    public static void main(String[] args) {
+        List<Property> properties = randomProperties(2000, 42);
+        PropertyColumns columns = PropertyColumns.fromProperties(properties);
+        DatabaseSummarizer summarizer = new DatabaseSummarizer(source(properties, columns));
+
+        Label lot = label("przytulna", columns, "lot", new TrapezoidalFunction(1800, 2000, 4000, 5000));
+        Label price = label("średnia cena", columns, "soldPrice", new TriangularFunction(2e5, 5e5, 8e5));
+        Label year = label("powojenna", columns, "yearBuilt", new GaussianFunction(1950, 10));
+
+        Quantifier relative = new Quantifier("około połowy", QuantifierType.RELATIVE, new FuzzySet<>(
+                new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.1, 0.3, 0.5)));
+        Quantifier absolute = new Quantifier("około 500", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                new ContinousUniverse(0, properties.size(), 1), new TrapezoidalFunction(0, 100, 400, 700)));
+
+        check(summarizer, relative, null, List.of(lot), columns);
+        check(summarizer, absolute, null, List.of(lot, price), columns);
+        check(summarizer, relative, year, List.of(lot, price), columns);
+        check(summarizer, relative, price, List.of(year), columns);
+        check(summarizer, absolute, lot, List.of(price), columns);
+
+        String jpql = DatabaseSummarizer.SupportPredicate.of(List.of(lot, year, price)).jpql();
+        if (!jpql.equals("p.lot > :lo0 and p.lot < :hi0 and p.soldPrice > :lo2 and p.soldPrice < :hi2")) {
+            throw new IllegalStateException("Unexpected predicate: " + jpql);
+        }
+
+        int pricePerArea = columns.addDerivedColumn("pricePerArea", "soldPrice / totalInteriorLivableArea");
+        Label derived = new Label("droga za metr", new FuzzySet<>(new ContinousUniverse(0, 1e4, 1),
+                new TrapezoidalFunction(500, 1000, 5000, 1e4)), "pricePerArea", pricePerArea);
+        int fetchedBefore = fetchedRows;
+        try {
+            summarizer.summarize(relative, derived, List.of(lot));
+            throw new IllegalStateException("A label over a derived attribute was pushed down");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Rejected: " + e.getMessage());
+        }
+        if (fetchedRows != fetchedBefore) {
+            throw new IllegalStateException("Rows fetched before rejecting a derived label");
+        }
+        System.out.println("Support pushdown consistent with in-memory evaluation");
+    }
+
+    private static void check(DatabaseSummarizer summarizer, Quantifier quantifier, Label qualifier,
+                              List<Label> summarizers, PropertyColumns columns) {
+        SingleSubjectSummary inMemory = new SingleSubjectSummary(quantifier, qualifier, summarizers, columns);
+        SingleSubjectSummary pushedDown = summarizer.summarize(quantifier, qualifier, summarizers);
+        checkMeasures(inMemory, pushedDown);
+    }
+
+    /**
+     * Rows matching the predicate; counted so the test can tell whether anything was fetched.
+     */
+    private static DatabaseSummarizer.PropertySource source(List<Property> properties, PropertyColumns columns) {
+        return new DatabaseSummarizer.PropertySource() {
+            @Override
+            public PropertyColumns load(DatabaseSummarizer.SupportPredicate predicate) {
+                List<Property> matching = matching(predicate);
+                fetchedRows += matching.size();
+                return PropertyColumns.fromProperties(matching);
+            }
+
+            @Override
+            public long count(DatabaseSummarizer.SupportPredicate predicate) {
+                return matching(predicate).size();
+            }
+
+            private List<Property> matching(DatabaseSummarizer.SupportPredicate predicate) {
+                List<Property> matching = new ArrayList<>();
+                for (int row = 0; row < properties.size(); row++) {
+                    if (predicate.test(columns, row)) {
+                        matching.add(properties.get(row));
+                    }
+                }
+                return matching;
+            }
+        };
+    }
+}
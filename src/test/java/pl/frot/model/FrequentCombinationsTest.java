@@ -0,0 +1,94 @@
+package pl.frot.model;
+
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.utils.SetOperations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * Apriori mining must keep exactly the cross-list combinations whose support reaches the coverage, in the order
+ * of {@link SetOperations#getCrossListCombinations}, and never a combination with a sub-combination below it.
+ */
+class FrequentCombinationsTest {
+
+    public static void main(String[] args) {
+        PropertyColumns columns = PropertyColumns.fromProperties(randomProperties(4000, 3));
+
+        List<List<Label>> lists = List.of(
+                labels(columns, "lot", 435, 20435),
+                labels(columns, "soldPrice", 5e4, 1.55e6),
+                labels(columns, "yearBuilt", 1900, 2020));
+        LabelMembershipCache memberships = new LabelMembershipCache(columns);
+        memberships.build(lists.stream().flatMap(List::stream).toList());
+        List<List<Label>> all = SetOperations.getCrossListCombinations(lists, 3);
+
+        for (double minCoverage : new double[]{0.0, 0.01, 0.05, 0.1, 0.3, 1.1}) {
+            List<List<Label>> expected = new ArrayList<>();
+            for (List<Label> combination : all) {
+                if ((double) support(combination, memberships) / memberships.size() >= minCoverage) {
+                    expected.add(combination);
+                }
+            }
+            List<List<Label>> mined = FrequentCombinations.mine(lists, 3, minCoverage, memberships);
+            if (!mined.equals(expected)) {
+                throw new IllegalStateException("Coverage %.2f: expected %s, got %s".formatted(minCoverage, expected, mined));
+            }
+            checkClosed(minCoverage, mined);
+            System.out.println("Coverage " + minCoverage + ": " + mined.size() + " of " + all.size() + " combinations");
+        }
+        System.out.println("Mined combinations consistent with filtered cross-list combinations");
+    }
+
+    /**
+     * Every sub-combination of a mined combination must have been mined as well.
+     */
+    private static void checkClosed(double minCoverage, List<List<Label>> mined) {
+        Set<List<Label>> passed = new HashSet<>(mined);
+        for (List<Label> combination : mined) {
+            for (int skip = 0; combination.size() > 1 && skip < combination.size(); skip++) {
+                List<Label> subset = new ArrayList<>(combination);
+                subset.remove(skip);
+                if (!passed.contains(subset)) {
+                    throw new IllegalStateException("Coverage %.2f: %s kept without %s".formatted(minCoverage, combination, subset));
+                }
+            }
+        }
+    }
+
+    private static long support(List<Label> combination, LabelMembershipCache memberships) {
+        long support = 0;
+        for (int row = 0; row < memberships.size(); row++) {
+            double membership = 1.0;
+            for (Label label : combination) {
+                membership = Math.min(membership, memberships.get(label)[row]);
+            }
+            if (membership > 0.0) {
+                support++;
+            }
+        }
+        return support;
+    }
+
+    /**
+     * Four overlapping labels over the range, some wider than others so the supports differ.
+     */
+    private static List<Label> labels(PropertyColumns columns, String attribute, double from, double to) {
+        double width = (to - from) / 4;
+        List<Label> labels = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            double start = from + i * width;
+            double end = start + width * (i % 2 == 0 ? 1.0 : 2.5);
+            labels.add(label(attribute + i, columns, attribute,
+                    new TrapezoidalFunction(start, start + width * 0.2, start + width * 0.8, end), 20));
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,123 @@
+package pl.frot.model;
+
+import pl.frot.data.H2MembershipFunctions;
+import pl.frot.data.Property;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.*;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static pl.frot.model.SummaryFixtures.checkMeasures;
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * Consistency check: in-database evaluation must give the same measures as the in-memory evaluator.
+ * On four rows both must also give T1, T3 and T4 computed by hand for each form.
+ */
+class InDatabaseSummarizerTest {
+    public static void main(String[] args) throws SQLException {
+        List<Property> properties = randomProperties(2000, 42);
+        PropertyColumns columns = PropertyColumns.fromProperties(properties);
+
+        Label lot = label("przytulna", columns, "lot", new TrapezoidalFunction(1800, 2000, 4000, 5000));
+        Label price = label("średnia cena", columns, "soldPrice", new TriangularFunction(2e5, 5e5, 8e5));
+        Label year = label("powojenna", columns, "yearBuilt", new GaussianFunction(1950, 10));
+
+        Quantifier relative = new Quantifier("około połowy", QuantifierType.RELATIVE, new FuzzySet<>(
+                new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.1, 0.3, 0.5)));
+        Quantifier absolute = new Quantifier("około 500", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                new ContinousUniverse(0, properties.size(), 1), new TrapezoidalFunction(0, 100, 400, 700)));
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:summaries")) {
+            createTable(connection, properties);
+            H2MembershipFunctions.register(connection);
+
+            check(connection, relative, null, List.of(lot), columns);
+            check(connection, absolute, null, List.of(lot, price), columns);
+            check(connection, relative, year, List.of(lot, price), columns);
+            check(connection, relative, price, List.of(year), columns);
+        }
+        checkHandComputed();
+        System.out.println("In-database evaluation consistent with in-memory evaluation");
+    }
+
+    /**
+     * Rows (lot, soldPrice) with memberships μL = 0.5, 1, 0.25, 0 and μP = 1, 0.5, 0, 0.5;
+     * the quantifiers are μ(x) = x (relative) and μ(x) = x / 4 (absolute).
+     */
+    private static void checkHandComputed() throws SQLException {
+        List<Property> properties = List.of(property(0, 1500, 3e5), property(1, 3000, 1.5e5),
+                property(2, 4750, 6e5), property(3, 8000, 4.5e5));
+        PropertyColumns columns = PropertyColumns.fromProperties(properties);
+        Label lot = label("przytulna", columns, "lot", new TrapezoidalFunction(1000, 2000, 4000, 5000));
+        Label price = label("średnia cena", columns, "soldPrice", new TrapezoidalFunction(1e5, 2e5, 4e5, 5e5));
+
+        Quantifier relative = new Quantifier("tyle, ile", QuantifierType.RELATIVE, new FuzzySet<>(
+                new ContinousUniverse(0, 1, 0.01), new TrapezoidalFunction(0, 1, 2, 2)));
+        Quantifier absolute = new Quantifier("do 4", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                new ContinousUniverse(0, 4, 1), new TrapezoidalFunction(0, 4, 8, 8)));
+
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:hand")) {
+            createTable(connection, properties);
+            H2MembershipFunctions.register(connection);
+            for (SingleSubjectSummary summary : List.of(
+                    new SingleSubjectSummary(relative, null, List.of(lot), columns),
+                    InDatabaseSummarizer.summarize(connection, relative, null, List.of(lot)))) {
+                // ΣμL / 4 = 1.75 / 4; 3 of 4 rows in supp L; |3/4 - 3/4|
+                checkMeasures(0.4375, 0.75, 0.0, summary);
+            }
+            for (SingleSubjectSummary summary : List.of(
+                    new SingleSubjectSummary(absolute, null, List.of(lot, price), columns),
+                    InDatabaseSummarizer.summarize(connection, absolute, null, List.of(lot, price)))) {
+                // Σ min(μL, μP) = 0.5 + 0.5 = 1, μ(1) = 1/4; 2 of 4 rows in the support; |3/4 · 3/4 - 1/2|
+                checkMeasures(0.25, 0.5, 0.0625, summary);
+            }
+            for (SingleSubjectSummary summary : List.of(
+                    new SingleSubjectSummary(relative, price, List.of(lot), columns),
+                    InDatabaseSummarizer.summarize(connection, relative, price, List.of(lot)))) {
+                // Σ min(μL, μP) / ΣμP = 1 / 2; 2 of the 3 rows in supp P are in supp L; |3/4 - 2/3|
+                checkMeasures(0.5, 2.0 / 3, 1.0 / 12, summary);
+            }
+        }
+    }
+
+    private static Property property(long id, double lot, double soldPrice) {
+        Property property = new Property();
+        property.setId(id);
+        property.setYearBuilt(1950);
+        property.setLot(lot);
+        property.setSoldPrice(soldPrice);
+        return property;
+    }
+
+    private static void check(Connection connection, Quantifier quantifier, Label qualifier, List<Label> summarizers,
+                              PropertyColumns columns) throws SQLException {
+        SingleSubjectSummary inMemory = new SingleSubjectSummary(quantifier, qualifier, summarizers, columns);
+        SingleSubjectSummary inDatabase = InDatabaseSummarizer.summarize(connection, quantifier, qualifier, summarizers);
+        checkMeasures(inMemory, inDatabase);
+    }
+
+    private static void createTable(Connection connection, List<Property> properties) throws SQLException {
+        connection.createStatement().execute(
+                "CREATE TABLE properties (id BIGINT PRIMARY KEY, yearBuilt INT, lot DOUBLE, soldPrice DOUBLE)");
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO properties VALUES (?, ?, ?, ?)")) {
+            for (Property property : properties) {
+                insert.setLong(1, property.getId());
+                insert.setInt(2, property.getYearBuilt());
+                insert.setDouble(3, property.getLot());
+                insert.setDouble(4, property.getSoldPrice());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package pl.frot.model;
+
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.*;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.utils.SetOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static pl.frot.model.SummaryFixtures.checkMeasures;
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * Summaries evaluated on any number of threads and with any batch size must come out in the order of the specs,
+ * with measures identical bit for bit to a single-threaded run and, within {@link SummaryFixtures#EPSILON}, to
+ * summaries evaluated one by one. Repeated runs on the same engine must give the same output.
+ */
+class ParallelSummaryEngineTest {
+
+    public static void main(String[] args) {
+        PropertyColumns columns = PropertyColumns.fromProperties(randomProperties(2000, 11));
+        List<List<Label>> lists = List.of(
+                List.of(label("mała działka", columns, "lot", new TrapezoidalFunction(435, 435, 3000, 6000), 10),
+                        label("duża działka", columns, "lot", new TrapezoidalFunction(8000, 12000, 20435, 20435), 10)),
+                List.of(label("tania", columns, "soldPrice", new TriangularFunction(5e4, 2e5, 6e5), 10),
+                        label("droga", columns, "soldPrice", new TrapezoidalFunction(8e5, 1.2e6, 1.55e6, 1.55e6), 10)),
+                List.of(label("powojenna", columns, "yearBuilt", new GaussianFunction(1950, 10), 10),
+                        label("nowa", columns, "yearBuilt", new TrapezoidalFunction(1990, 2005, 2020, 2020), 10)));
+        LabelMembershipCache memberships = new LabelMembershipCache(columns);
+        memberships.build(lists.stream().flatMap(List::stream).toList());
+
+        List<SummarySpec> specs = specs(columns, lists);
+        List<SingleSubjectSummary> sequential = summarize(1, 64, specs, memberships);
+        checkOrder(specs, sequential);
+        for (int i = 0; i < specs.size(); i += 7) {
+            SummarySpec spec = specs.get(i);
+            checkMeasures(new SingleSubjectSummary(spec.quantifier(), spec.qualifier(), spec.summarizers(), columns),
+                    sequential.get(i));
+        }
+
+        for (int[] setting : new int[][]{{2, 1}, {4, 3}, {8, 16}, {8, 1000}}) {
+            ParallelSummaryEngine engine = engine(setting[0], setting[1]);
+            for (int run = 0; run < 3; run++) {
+                List<SingleSubjectSummary> parallel = new ArrayList<>();
+                engine.summarize(specs, memberships, () -> false, parallel::add);
+                checkOrder(specs, parallel);
+                checkIdentical(sequential, parallel);
+            }
+        }
+
+        List<Integer> mapped = engine(4, 1).map(1000, i -> i * i);
+        if (!mapped.equals(IntStream.range(0, 1000).map(i -> i * i).boxed().toList())) {
+            throw new IllegalStateException("Mapped results out of index order");
+        }
+        System.out.println("Parallel output consistent with sequential order for " + specs.size() + " specs");
+    }
+
+    /**
+     * Specs ordered by combination first, so qualifiers interleave and a spec of an earlier qualifier follows
+     * one of a later qualifier; the last spec repeats the first one.
+     */
+    private static List<SummarySpec> specs(PropertyColumns columns, List<List<Label>> lists) {
+        Quantifier relative = new Quantifier("około 1/4", QuantifierType.RELATIVE, new FuzzySet<>(
+                new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.0, 0.25, 0.5)));
+        Quantifier absolute = new Quantifier("około 300", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                new ContinousUniverse(0, columns.size(), 1), new TrapezoidalFunction(0, 100, 400, 700)));
+        List<Label> qualifiers = lists.stream().flatMap(List::stream).toList();
+
+        List<SummarySpec> specs = new ArrayList<>();
+        for (List<Label> combination : SetOperations.getCrossListCombinations(lists, 3)) {
+            specs.add(new SummarySpec(absolute, null, combination));
+            for (Label qualifier : qualifiers.reversed()) {
+                if (!combination.contains(qualifier)) {
+                    specs.add(new SummarySpec(relative, qualifier, combination));
+                }
+            }
+            specs.add(new SummarySpec(relative, null, combination));
+        }
+        specs.add(specs.getFirst());
+        return specs;
+    }
+
+    private static List<SingleSubjectSummary> summarize(int parallelism, int batchSize, List<SummarySpec> specs,
+                                                        LabelMembershipCache memberships) {
+        return engine(parallelism, batchSize).summarize(specs, memberships);
+    }
+
+    private static ParallelSummaryEngine engine(int parallelism, int batchSize) {
+        GenerationOptions options = new GenerationOptions();
+        options.setParallelism(parallelism);
+        options.setBatchSize(batchSize);
+        return new ParallelSummaryEngine(options);
+    }
+
+    private static void checkOrder(List<SummarySpec> specs, List<SingleSubjectSummary> summaries) {
+        if (summaries.size() != specs.size()) {
+            throw new IllegalStateException("Expected %s summaries, got %s".formatted(specs.size(), summaries.size()));
+        }
+        for (int i = 0; i < specs.size(); i++) {
+            SummarySpec spec = specs.get(i);
+            SingleSubjectSummary summary = summaries.get(i);
+            if (summary.getQuantifier() != spec.quantifier() || summary.getQualifier() != spec.qualifier()
+                    || summary.getSummarizers() != spec.summarizers()) {
+                throw new IllegalStateException("Summary %s out of order: %s".formatted(i, summary));
+            }
+        }
+    }
+
+    private static void checkIdentical(List<SingleSubjectSummary> expected, List<SingleSubjectSummary> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            if (!expected.get(i).getMeasures().equals(actual.get(i).getMeasures())) {
+                throw new IllegalStateException("Measures of %s differ: %s and %s".formatted(expected.get(i),
+                        expected.get(i).getMeasures(), actual.get(i).getMeasures()));
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package pl.frot.model;
+
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.*;
+import pl.frot.fuzzy.summaries.ConfidenceInterval;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static pl.frot.model.SummaryFixtures.EPSILON;
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * 95% confidence intervals of sampled summaries must contain the exact T1, T3 and T4 for about 95% of the seeds.
+ * Refinement must double the sample until every interval is within the tolerance, and a sample of the whole
+ * population must give the exact measures with zero-width intervals.
+ */
+class SampledSummarizerTest {
+    private static final int SEEDS = 200;
+    private static final double MIN_COVERAGE = 0.9;
+
+    public static void main(String[] args) {
+        PropertyColumns columns = PropertyColumns.fromProperties(randomProperties(20000, 42));
+
+        Label lot = label("przytulna", columns, "lot", new TrapezoidalFunction(1800, 2000, 4000, 5000), 10);
+        Label price = label("średnia cena", columns, "soldPrice", new TriangularFunction(2e5, 5e5, 8e5), 10);
+        Label year = label("powojenna", columns, "yearBuilt", new GaussianFunction(1950, 10), 10);
+
+        Quantifier relative = new Quantifier("około 1/4", QuantifierType.RELATIVE, new FuzzySet<>(
+                new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.0, 0.25, 0.5)));
+        Quantifier absolute = new Quantifier("około 2000", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                new ContinousUniverse(0, columns.size(), 1), new TrapezoidalFunction(0, 1000, 3000, 6000)));
+
+        List<SummarySpec> specs = List.of(
+                new SummarySpec(relative, null, List.of(lot)),
+                new SummarySpec(absolute, null, List.of(price)),
+                new SummarySpec(relative, null, List.of(lot, year)),
+                new SummarySpec(relative, year, List.of(price)),
+                new SummarySpec(relative, price, List.of(lot, year)));
+
+        for (SummarySpec spec : specs) {
+            checkCoverage(columns, spec);
+            checkRefinement(columns, spec, 0.02);
+            checkWholePopulation(columns, spec);
+        }
+        System.out.println("Sampled summaries consistent with exact evaluation");
+    }
+
+    /**
+     * Fixed samples of 500 rows (the tolerance never stops refinement early) drawn with different seeds.
+     */
+    private static void checkCoverage(PropertyColumns columns, SummarySpec spec) {
+        SingleSubjectSummary exact = new SingleSubjectSummary(spec.quantifier(), spec.qualifier(), spec.summarizers(), columns);
+        Map<String, Integer> covered = new LinkedHashMap<>();
+        for (int seed = 0; seed < SEEDS; seed++) {
+            SampledSummary sampled = summarizer(columns, 500, 1.0, seed).summarize(spec.quantifier(), spec.qualifier(),
+                    spec.summarizers());
+            if (sampled.sampleSize() != 500) {
+                throw new IllegalStateException("Sample refined although the tolerance allows any width");
+            }
+            for (Map.Entry<String, ConfidenceInterval> interval : sampled.intervals().entrySet()) {
+                if (interval.getValue().contains(exact.getMeasure(interval.getKey()))) {
+                    covered.merge(interval.getKey(), 1, Integer::sum);
+                }
+            }
+        }
+        for (String measure : List.of("T1", "T3", "T4")) {
+            double coverage = (double) covered.getOrDefault(measure, 0) / SEEDS;
+            if (coverage < MIN_COVERAGE) {
+                throw new IllegalStateException("%s of %s covered in %.3f of the samples".formatted(measure, exact, coverage));
+            }
+        }
+        System.out.println("Coverage " + covered + " of " + SEEDS + ": " + exact);
+    }
+
+    private static void checkRefinement(PropertyColumns columns, SummarySpec spec, double tolerance) {
+        int initial = 250;
+        SampledSummary sampled = summarizer(columns, initial, tolerance, 1).summarize(spec.quantifier(), spec.qualifier(),
+                spec.summarizers());
+        int size = sampled.sampleSize();
+        if (size != columns.size() && (size % initial != 0 || Integer.bitCount(size / initial) != 1)) {
+            throw new IllegalStateException("Sample of " + size + " rows is not a doubling of " + initial);
+        }
+        if (size < columns.size()) {
+            for (Map.Entry<String, ConfidenceInterval> interval : sampled.intervals().entrySet()) {
+                if (interval.getValue().width() > tolerance) {
+                    throw new IllegalStateException("Refinement stopped at %s rows with %s of width %s".formatted(
+                            size, interval.getKey(), interval.getValue().width()));
+                }
+            }
+        }
+        // the sample of the previous round, a prefix of the same permutation, must not have been enough
+        if (size > initial) {
+            int previous = initial;
+            while (previous * 2 < size) {
+                previous *= 2;
+            }
+            SampledSummary smaller = summarizer(columns, previous, 1.0, 1).summarize(spec.quantifier(), spec.qualifier(),
+                    spec.summarizers());
+            if (smaller.intervals().values().stream().allMatch(interval -> interval.width() <= tolerance)) {
+                throw new IllegalStateException("Refined to " + size + " rows although " + previous + " were enough");
+            }
+        }
+        System.out.println("Refined to " + size + " rows: " + sampled.intervals());
+    }
+
+    private static void checkWholePopulation(PropertyColumns columns, SummarySpec spec) {
+        SingleSubjectSummary exact = new SingleSubjectSummary(spec.quantifier(), spec.qualifier(), spec.summarizers(), columns);
+        SampledSummary sampled = summarizer(columns, columns.size(), 1.0, 3).summarize(spec.quantifier(), spec.qualifier(),
+                spec.summarizers());
+        if (!sampled.isExact()) {
+            throw new IllegalStateException("Intervals of a full sample are not exact: " + sampled.intervals());
+        }
+        for (String measure : List.of("T1", "T3", "T4")) {
+            if (Math.abs(exact.getMeasure(measure) - sampled.summary().getMeasure(measure)) > EPSILON) {
+                throw new IllegalStateException("%s of a full sample: expected %s, got %s".formatted(measure,
+                        exact.getMeasure(measure), sampled.summary().getMeasure(measure)));
+            }
+        }
+    }
+
+    private static SampledSummarizer summarizer(PropertyColumns columns, int initialSampleSize, double tolerance, long seed) {
+        return new SampledSummarizer(columns, null,
+                new SamplingOptions(SamplingStrategy.UNIFORM, initialSampleSize, tolerance, 1.96, seed));
+    }
+}
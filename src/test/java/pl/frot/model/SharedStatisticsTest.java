@@ -0,0 +1,83 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.LinguisticVariable;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static pl.frot.model.SummaryFixtures.checkMeasures;
+
+/**
+ * Summaries of one (qualifier, summarizers) pair must share one aggregate across all quantifiers and still match
+ * a summary evaluated on its own for each quantifier. Checked for the lattice (in-memory mode) and for the
+ * statistics memoised in the support pushdown mode, whose derived labels fall back to the cached memberships.
+ */
+class SharedStatisticsTest {
+
+    public static void main(String[] args) {
+        SummaryMachine machine = new SummaryMachine();
+        if (!machine.loadData()) {
+            throw new IllegalStateException("Failed to load the data");
+        }
+        // age and the ratios are derived attributes, so support pushdown evaluates them without the database
+        List<List<Label>> summarizers = machine.getLinguisticVariables().stream()
+                .filter(variable -> !DatabaseSummarizer.isStored(variable.labels().getFirst()))
+                .map(LinguisticVariable::labels)
+                .toList();
+        if (summarizers.size() < 2) {
+            throw new IllegalStateException("Expected derived variables in the default summarizers");
+        }
+        List<Label> qualifiers = List.of(summarizers.getFirst().getFirst(), summarizers.getLast().getLast());
+        List<Quantifier> quantifiers = machine.getQuantifiers();
+        if (quantifiers.stream().filter(quantifier -> quantifier.type() == QuantifierType.RELATIVE).count() < 2) {
+            throw new IllegalStateException("Expected several relative quantifiers");
+        }
+
+        List<SingleSubjectSummary> lattice = machine.createSingleSubjectSummaries(quantifiers, qualifiers, summarizers);
+        checkShared(machine, lattice);
+
+        machine.setEvaluationMode(EvaluationMode.SUPPORT_PUSHDOWN);
+        List<SingleSubjectSummary> pushdown = machine.createSingleSubjectSummaries(quantifiers, qualifiers, summarizers);
+        checkShared(machine, pushdown);
+
+        if (lattice.size() != pushdown.size()) {
+            throw new IllegalStateException("Expected %s summaries, got %s".formatted(lattice.size(), pushdown.size()));
+        }
+        for (int i = 0; i < lattice.size(); i++) {
+            checkMeasures(lattice.get(i), pushdown.get(i));
+        }
+        System.out.println("Shared statistics consistent across " + quantifiers.size() + " quantifiers and "
+                + lattice.size() + " summaries");
+    }
+
+    /**
+     * Every summary of a pair reuses the aggregate of the first quantifier and matches an own evaluation.
+     */
+    private static void checkShared(SummaryMachine machine, List<SingleSubjectSummary> summaries) {
+        Map<Label, Map<List<Label>, SummaryStatistics>> shared = new IdentityHashMap<>();
+        Map<SummaryStatistics, Integer> quantifiersPerAggregate = new IdentityHashMap<>();
+        for (SingleSubjectSummary summary : summaries) {
+            SummaryStatistics first = shared.computeIfAbsent(summary.getQualifier(), qualifier -> new IdentityHashMap<>())
+                    .putIfAbsent(summary.getSummarizers(), summary.getStatistics());
+            if (first != null && first != summary.getStatistics()) {
+                throw new IllegalStateException("Statistics of " + summary + " evaluated again");
+            }
+            quantifiersPerAggregate.merge(summary.getStatistics(), 1, Integer::sum);
+
+            SingleSubjectSummary own = new SingleSubjectSummary(summary.getQuantifier(), summary.getQualifier(),
+                    summary.getSummarizers(), machine.getColumns());
+            checkMeasures(own, summary);
+        }
+        if (quantifiersPerAggregate.values().stream().noneMatch(count -> count > 1)) {
+            throw new IllegalStateException("No aggregate shared by several quantifiers");
+        }
+        System.out.println(machine.getEvaluationMode() + ": " + summaries.size() + " summaries from "
+                + quantifiersPerAggregate.size() + " aggregates");
+    }
+}
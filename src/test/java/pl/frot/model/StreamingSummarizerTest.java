@@ -0,0 +1,72 @@
+package pl.frot.model;
+
+import pl.frot.data.Property;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.*;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.util.List;
+
+import static pl.frot.model.SummaryFixtures.checkMeasures;
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * A sliding window updated by subtracting the evicted rows must give the same measures as a rescan
+ * of the last N rows, also after a long feed, where the periodic rebuild keeps rounding errors from piling up.
+ */
+class StreamingSummarizerTest {
+    private static final int WINDOW = 250;
+
+    public static void main(String[] args) {
+        List<Property> properties = randomProperties(2000, 11);
+        PropertyColumns columns = PropertyColumns.fromProperties(properties);
+
+        Label lot = label("przytulna", columns, "lot", new TrapezoidalFunction(1800, 2000, 4000, 5000));
+        Label price = label("średnia cena", columns, "soldPrice", new TriangularFunction(2e5, 5e5, 8e5));
+        Label year = label("powojenna", columns, "yearBuilt", new GaussianFunction(1950, 10));
+
+        Quantifier relative = new Quantifier("około połowy", QuantifierType.RELATIVE, new FuzzySet<>(
+                new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.1, 0.3, 0.5)));
+        Quantifier absolute = new Quantifier("około 50", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                new ContinousUniverse(0, WINDOW, 1), new TrapezoidalFunction(0, 20, 60, 100)));
+
+        List<SummarySpec> specs = List.of(
+                new SummarySpec(relative, null, List.of(lot)),
+                new SummarySpec(absolute, null, List.of(lot, price)),
+                new SummarySpec(relative, year, List.of(lot, price)),
+                new SummarySpec(relative, price, List.of(year)));
+
+        StreamingSummarizer summarizer = new StreamingSummarizer(specs, WindowType.SLIDING, WINDOW, 0.0, updates -> {
+        });
+        int checks = 0;
+        for (int row = 0; row < properties.size(); row++) {
+            summarizer.accept(properties.get(row));
+            if ((row + 1) % 137 == 0 || row + 1 == properties.size()) {
+                check(summarizer, specs, properties.subList(Math.max(0, row + 1 - WINDOW), row + 1));
+                checks++;
+            }
+        }
+        List<Property> longFeed = randomProperties(200 * WINDOW + 17, 12);
+        longFeed.forEach(summarizer);
+        check(summarizer, specs, longFeed.subList(longFeed.size() - WINDOW, longFeed.size()));
+        checks++;
+        System.out.println("Sliding window consistent with rescans at " + checks + " positions");
+    }
+
+    private static void check(StreamingSummarizer summarizer, List<SummarySpec> specs, List<Property> window) {
+        PropertyColumns rescanned = PropertyColumns.fromProperties(window);
+        for (SummaryUpdate update : summarizer.snapshot()) {
+            SummarySpec spec = update.spec();
+            SingleSubjectSummary expected = new SingleSubjectSummary(spec.quantifier(), spec.qualifier(),
+                    spec.summarizers(), rescanned);
+            checkMeasures(expected, update.summary());
+        }
+        if (summarizer.snapshot().size() != specs.size()) {
+            throw new IllegalStateException("Expected " + specs.size() + " summaries in the snapshot");
+        }
+    }
+}
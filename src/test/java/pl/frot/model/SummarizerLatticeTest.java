@@ -0,0 +1,126 @@
+package pl.frot.model;
+
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.*;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.fuzzy.summaries.SummaryStatistics;
+import pl.frot.utils.SetOperations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static pl.frot.model.SummaryFixtures.checkMeasures;
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * Conjunctions extended prefix by prefix in the lattice must give the same summaries as conjunctions computed
+ * directly from the summarizers, for both forms, every subtree and repeated combinations. A walk must visit every
+ * combination before its extensions and skip the extensions the visitor rejects.
+ */
+class SummarizerLatticeTest {
+
+    public static void main(String[] args) {
+        PropertyColumns columns = PropertyColumns.fromProperties(randomProperties(3000, 42));
+        List<List<Label>> lists = List.of(
+                List.of(label("mała działka", columns, "lot", new TrapezoidalFunction(435, 435, 3000, 6000), 10),
+                        label("duża działka", columns, "lot", new TrapezoidalFunction(8000, 12000, 20435, 20435), 10)),
+                List.of(label("tania", columns, "soldPrice", new TriangularFunction(5e4, 2e5, 6e5), 10),
+                        label("droga", columns, "soldPrice", new TrapezoidalFunction(8e5, 1.2e6, 1.55e6, 1.55e6), 10)),
+                List.of(label("powojenna", columns, "yearBuilt", new GaussianFunction(1950, 10), 10),
+                        label("nowa", columns, "yearBuilt", new TrapezoidalFunction(1990, 2005, 2020, 2020), 10)));
+        LabelMembershipCache memberships = new LabelMembershipCache(columns);
+        memberships.build(lists.stream().flatMap(List::stream).toList());
+
+        List<List<Label>> combinations = new ArrayList<>(SetOperations.getCrossListCombinations(lists, 3));
+        // a repeated combination (a different list object) shares the statistics of the first one
+        combinations.add(new ArrayList<>(combinations.get(combinations.size() - 1)));
+        SummarizerLattice lattice = new SummarizerLattice(combinations, memberships);
+
+        Quantifier relative = new Quantifier("około połowy", QuantifierType.RELATIVE, new FuzzySet<>(
+                new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.1, 0.3, 0.5)));
+        Quantifier absolute = new Quantifier("około 500", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                new ContinousUniverse(0, columns.size(), 1), new TrapezoidalFunction(0, 100, 400, 700)));
+
+        List<Label> qualifiers = new ArrayList<>();
+        qualifiers.add(null);
+        lists.forEach(qualifiers::addAll);
+        int checked = 0;
+        for (Label qualifier : qualifiers) {
+            SummaryStatistics[] statistics = lattice.statistics(qualifier);
+            checkSubtrees(lattice, qualifier, statistics);
+            for (int i = 0; i < combinations.size(); i++) {
+                List<Label> combination = combinations.get(i);
+                int index = lattice.indexOf(combination);
+                if (combination.contains(qualifier)) {
+                    if (statistics[index] != null) {
+                        throw new IllegalStateException("Statistics of " + combination + " qualified by itself");
+                    }
+                    continue;
+                }
+                for (Quantifier quantifier : qualifier == null ? List.of(relative, absolute) : List.of(relative)) {
+                    SingleSubjectSummary direct = new SingleSubjectSummary(quantifier, qualifier, combination, columns);
+                    checkMeasures(direct, lattice.summarize(quantifier, qualifier, combination));
+                    checked++;
+                }
+            }
+        }
+        if (lattice.indexOf(combinations.getLast()) != lattice.indexOf(combinations.get(combinations.size() - 2))) {
+            throw new IllegalStateException("Repeated combination not shared");
+        }
+        checkWalk(lattice, lists.get(0).get(0));
+        System.out.println("Lattice consistent with direct conjunctions for " + checked + " summaries");
+    }
+
+    /**
+     * Subtrees filled separately, as the parallel engine does, give the statistics of the whole lattice.
+     */
+    private static void checkSubtrees(SummarizerLattice lattice, Label qualifier, SummaryStatistics[] expected) {
+        SummaryStatistics[] bySubtree = new SummaryStatistics[lattice.size()];
+        for (int subtree = lattice.subtreeCount() - 1; subtree >= 0; subtree--) {
+            lattice.statistics(qualifier, subtree, bySubtree);
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((expected[i] == null) != (bySubtree[i] == null)
+                    || expected[i] != null && expected[i].getSigmaS() != bySubtree[i].getSigmaS()) {
+                throw new IllegalStateException("Subtree statistics differ at " + i);
+            }
+        }
+    }
+
+    /**
+     * The walk rejects the extensions of every combination starting with {@code pruned}.
+     */
+    private static void checkWalk(SummarizerLattice lattice, Label pruned) {
+        Set<List<Label>> visited = new HashSet<>();
+        lattice.walk(null, (index, combination, statistics) -> {
+            if (combination.size() > 1 && !visited.contains(combination.subList(0, combination.size() - 1))) {
+                throw new IllegalStateException(combination + " visited before its prefix");
+            }
+            if (combination.getFirst() == pruned && combination.size() > 1) {
+                throw new IllegalStateException("Extension " + combination + " of a rejected combination visited");
+            }
+            visited.add(combination);
+            return combination.getFirst() != pruned;
+        });
+        if (visited.size() != lattice.size() - 1 - countExtensions(lattice, pruned)) {
+            throw new IllegalStateException("Walk visited " + visited.size() + " combinations");
+        }
+    }
+
+    private static int countExtensions(SummarizerLattice lattice, Label pruned) {
+        int[] count = {0};
+        lattice.walk(null, (index, combination, statistics) -> {
+            if (combination.getFirst() == pruned && combination.size() > 1) {
+                count[0]++;
+            }
+            return true;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,87 @@
+package pl.frot.model;
+
+import pl.frot.data.Property;
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.DiscreteUniverse;
+import pl.frot.fuzzy.base.FuzzySet;
+import pl.frot.fuzzy.base.MembershipFunction;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Data and checks shared by the summarizer tests.
+ */
+final class SummaryFixtures {
+    static final double EPSILON = 1e-9;
+
+    private SummaryFixtures() {
+    }
+
+    /**
+     * Label over the values of every row.
+     */
+    static Label label(String name, PropertyColumns columns, String attribute, MembershipFunction<Double> function) {
+        return label(name, columns, attribute, function, 1);
+    }
+
+    /**
+     * Label over the values of every {@code step}-th row, a smaller universe for tests evaluating many summaries.
+     */
+    static Label label(String name, PropertyColumns columns, String attribute, MembershipFunction<Double> function, int step) {
+        int attributeId = columns.attributeId(attribute);
+        List<Double> uod = new ArrayList<>();
+        for (int row = 0; row < columns.size(); row += step) {
+            uod.add(columns.value(attributeId, row));
+        }
+        return new Label(name, new FuzzySet<>(new DiscreteUniverse<>(uod), function), attribute, attributeId);
+    }
+
+    static List<Property> randomProperties(int count, long seed) {
+        Random random = new Random(seed);
+        List<Property> properties = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Property property = new Property();
+            property.setId((long) i);
+            property.setYearBuilt(1900 + random.nextInt(120));
+            property.setLot(435 + random.nextDouble() * 20000);
+            property.setSoldPrice(5e4 + random.nextDouble() * 1.5e6);
+            properties.add(property);
+        }
+        return properties;
+    }
+
+    /**
+     * Every measure of {@code actual} must match {@code expected} within {@link #EPSILON}.
+     */
+    static void checkMeasures(SingleSubjectSummary expected, SingleSubjectSummary actual) {
+        for (Map.Entry<String, Double> measure : expected.getMeasures().entrySet()) {
+            double expectedValue = measure.getValue();
+            double actualValue = actual.getMeasures().get(measure.getKey());
+            if (Math.abs(expectedValue - actualValue) > EPSILON) {
+                throw new IllegalStateException("%s: %s expected %f, got %f"
+                        .formatted(expected, measure.getKey(), expectedValue, actualValue));
+            }
+        }
+        System.out.println(expected + " -> " + expected.getMeasures());
+    }
+
+    /**
+     * T1, T3 and T4 of {@code actual} must match values computed by hand within {@link #EPSILON}.
+     */
+    static void checkMeasures(double t1, double t3, double t4, SingleSubjectSummary actual) {
+        Map<String, Double> expected = Map.of("T1", t1, "T3", t3, "T4", t4);
+        for (Map.Entry<String, Double> measure : expected.entrySet()) {
+            double actualValue = actual.getMeasure(measure.getKey());
+            if (Math.abs(measure.getValue() - actualValue) > EPSILON) {
+                throw new IllegalStateException("%s: %s expected %f, got %f"
+                        .formatted(actual, measure.getKey(), measure.getValue(), actualValue));
+            }
+        }
+        System.out.println(actual + " -> T1=" + t1 + ", T3=" + t3 + ", T4=" + t4);
+    }
+}
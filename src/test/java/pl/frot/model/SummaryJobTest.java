@@ -0,0 +1,227 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.LinguisticVariable;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Summaries must reach a subscriber while the job is still running, in the order of the generation. A cancelled job
+ * must complete exceptionally with a {@link CancellationException}, whether it was publishing or blocked inside its
+ * body, deliver only a prefix of the summaries and release the machine for the next job.
+ */
+class SummaryJobTest {
+    private static final long TIMEOUT_SECONDS = 30;
+
+    public static void main(String[] args) throws Exception {
+        checkIncremental();
+        checkCancelledWhilePublishing();
+        checkCancelledWhileBlocked();
+        checkMachineJobs();
+        System.out.println("Jobs publish incrementally and stop when cancelled");
+    }
+
+    /**
+     * Half of the items are published before the body waits for the subscriber to confirm it got them.
+     */
+    private static void checkIncremental() throws Exception {
+        CountDownLatch received = new CountDownLatch(50);
+        SummaryJob<Integer> job = new SummaryJob<>("incremental", 100, (sink, cancelled) -> {
+            for (int i = 0; i < 50; i++) {
+                sink.accept(i);
+            }
+            await(received);
+            for (int i = 50; i < 100; i++) {
+                sink.accept(i);
+            }
+        });
+        Collector<Integer> collector = new Collector<>(Long.MAX_VALUE, item -> received.countDown());
+        job.subscribe(collector);
+        job.start();
+
+        await(received);
+        JobProgress progress = job.getCompletion().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        await(collector.finished);
+        if (progress.done() != 100 || collector.error != null) {
+            throw new IllegalStateException("Job ended with " + progress + " and " + collector.error);
+        }
+        for (int i = 0; i < 100; i++) {
+            if (collector.items.get(i) != i) {
+                throw new IllegalStateException("Item " + i + " out of order: " + collector.items);
+            }
+        }
+        System.out.println("Incremental: " + progress);
+    }
+
+    /**
+     * The subscriber takes one item at a time and cancels on the first, so the unbounded body cannot finish before.
+     */
+    private static void checkCancelledWhilePublishing() throws Exception {
+        SummaryJob<Integer> job = new SummaryJob<>("publishing", -1, (sink, cancelled) -> {
+            for (int i = 0; ; i++) {
+                sink.accept(i);
+            }
+        });
+        Collector<Integer> collector = new Collector<>(1, item -> job.cancel());
+        job.subscribe(collector);
+        job.start();
+
+        checkCancelled(job, collector);
+        long done = job.getProgress().done();
+        if (collector.items.size() > done || done > 2 * Flow.defaultBufferSize()) {
+            throw new IllegalStateException("Received %s of %s items".formatted(collector.items.size(), done));
+        }
+        System.out.println("Cancelled while publishing after " + done + " items");
+    }
+
+    /**
+     * A body blocked without publishing is interrupted by the cancellation.
+     */
+    private static void checkCancelledWhileBlocked() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        SummaryJob<Integer> job = new SummaryJob<>("blocked", 1, (sink, cancelled) -> {
+            blocked.countDown();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS * 2));
+            sink.accept(0);
+        });
+        Collector<Integer> collector = new Collector<>(Long.MAX_VALUE, item -> {});
+        job.subscribe(collector);
+        job.start();
+        await(blocked);
+        job.cancel();
+
+        checkCancelled(job, collector);
+        if (!collector.items.isEmpty()) {
+            throw new IllegalStateException("Items published after the cancellation: " + collector.items);
+        }
+    }
+
+    /**
+     * A cancelled generation delivers a prefix of the summaries; the next job gets all of them.
+     */
+    private static void checkMachineJobs() throws Exception {
+        SummaryMachine machine = new SummaryMachine();
+        if (!machine.loadData()) {
+            throw new IllegalStateException("Failed to load the data");
+        }
+        List<List<Label>> summarizers = machine.getLinguisticVariables().stream()
+                .limit(4)
+                .map(LinguisticVariable::labels)
+                .toList();
+        List<Label> qualifiers = machine.getLinguisticVariables().get(5).labels();
+        List<SingleSubjectSummary> expected = machine.createSingleSubjectSummaries(machine.getQuantifiers(),
+                qualifiers, summarizers);
+        if (expected.size() <= Flow.defaultBufferSize() + 1) {
+            throw new IllegalStateException("Selection too small to cancel in the middle: " + expected.size());
+        }
+
+        SummaryJob<SingleSubjectSummary> cancelledJob = machine.createSingleSubjectSummaryJob(machine.getQuantifiers(),
+                qualifiers, summarizers);
+        Collector<SingleSubjectSummary> partial = new Collector<>(1, item -> cancelledJob.cancel());
+        cancelledJob.subscribe(partial);
+        cancelledJob.start();
+        checkCancelled(cancelledJob, partial);
+        checkPrefix(expected, partial.items);
+
+        SummaryJob<SingleSubjectSummary> job = machine.createSingleSubjectSummaryJob(machine.getQuantifiers(),
+                qualifiers, summarizers);
+        Collector<SingleSubjectSummary> all = new Collector<>(Long.MAX_VALUE, item -> {});
+        job.subscribe(all);
+        job.start();
+        JobProgress progress = job.getCompletion().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        await(all.finished);
+        if (progress.done() != expected.size() || all.items.size() != expected.size() || all.error != null) {
+            throw new IllegalStateException("Expected %s summaries, got %s (%s)".formatted(
+                    expected.size(), all.items.size(), progress));
+        }
+        checkPrefix(expected, all.items);
+        System.out.println("Machine job cancelled after " + partial.items.size() + " of " + expected.size()
+                + " summaries, the next one delivered all of them");
+    }
+
+    private static void checkCancelled(SummaryJob<?> job, Collector<?> collector) throws Exception {
+        try {
+            job.getCompletion().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            throw new IllegalStateException("Cancelled job completed normally");
+        } catch (CancellationException e) {
+            // a future completed with a CancellationException rethrows it unwrapped
+            System.out.println("Cancelled: " + e.getMessage());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cancelled job failed", e.getCause());
+        }
+        await(collector.finished);
+        if (!(collector.error instanceof CancellationException)) {
+            throw new IllegalStateException("Subscriber not told about the cancellation: " + collector.error);
+        }
+    }
+
+    private static void checkPrefix(List<SingleSubjectSummary> expected, List<SingleSubjectSummary> actual) {
+        for (int i = 0; i < actual.size(); i++) {
+            SingleSubjectSummary summary = actual.get(i);
+            if (summary.getQuantifier() != expected.get(i).getQuantifier()
+                    || summary.getQualifier() != expected.get(i).getQualifier()
+                    || !summary.getSummarizers().equals(expected.get(i).getSummarizers())
+                    || !summary.getMeasures().equals(expected.get(i).getMeasures())) {
+                throw new IllegalStateException("Summary " + i + " differs: " + summary);
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException, TimeoutException {
+        if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new TimeoutException("Timed out after " + TIMEOUT_SECONDS + " s");
+        }
+    }
+
+    /**
+     * Requests {@code batch} items at a time and calls {@code onItem} for each received one.
+     */
+    private static class Collector<T> implements Flow.Subscriber<T> {
+        private final long batch;
+        private final Consumer<T> onItem;
+        private final List<T> items = new CopyOnWriteArrayList<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile Throwable error;
+        private Flow.Subscription subscription;
+
+        Collector(long batch, Consumer<T> onItem) {
+            this.batch = batch;
+            this.onItem = onItem;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(batch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+            onItem.accept(item);
+            if (batch != Long.MAX_VALUE) {
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            finished.countDown();
+        }
+    }
+}
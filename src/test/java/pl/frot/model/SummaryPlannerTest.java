@@ -0,0 +1,179 @@
+package pl.frot.model;
+
+import pl.frot.fuzzy.base.ContinousUniverse;
+import pl.frot.fuzzy.base.FuzzySet;
+import pl.frot.fuzzy.base.TrapezoidalFunction;
+import pl.frot.fuzzy.base.TriangularFunction;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.utils.SetOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The planner must count the summaries of a selection exactly, scale the cost with the rows and the evaluation
+ * mode, and pick the over-budget strategy only when a budget is exceeded.
+ */
+class SummaryPlannerTest {
+    private static final int ROWS = 1000;
+
+    public static void main(String[] args) {
+        List<List<Label>> summarizers = List.of(labels("lot", 2), labels("soldPrice", 3), labels("yearBuilt", 4));
+        List<Label> qualifiers = List.of(summarizers.get(0).get(0), summarizers.get(2).get(3));
+        List<Quantifier> quantifiers = List.of(
+                quantifier("około połowy", QuantifierType.RELATIVE),
+                quantifier("większość", QuantifierType.RELATIVE),
+                quantifier("około 100", QuantifierType.ABSOLUTE));
+
+        GenerationOptions options = new GenerationOptions();
+        SummaryPlanner planner = new SummaryPlanner(options);
+
+        // (1+2)(1+3)(1+4) - 1 = 59 combinations, 3 * 59 first-form summaries; a qualifier leaves its own list
+        // one label shorter: (1+1)(1+3)(1+4) - 1 = 39 and (1+2)(1+3)(1+3) - 1 = 47, times 2 relative quantifiers
+        SummaryPlan plan = planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.IN_MEMORY, true);
+        check("combinations", 59, plan.combinationCount());
+        check("summaries", 3 * 59 + 2 * (39 + 47), plan.summaryCount());
+        check("summaries", bruteForceCount(quantifiers, qualifiers, summarizers, 3), plan.summaryCount());
+        check("row passes", (59 + 39 + 47) * ROWS, plan.rowPasses());
+        check("strategy", GenerationStrategy.EXHAUSTIVE, plan.strategy());
+
+        options.setMaxSummarizers(2);
+        SummaryPlan pairs = planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.IN_MEMORY, true);
+        check("summaries", bruteForceCount(quantifiers, qualifiers, summarizers, 2), pairs.summaryCount());
+        options.setMaxSummarizers(3);
+
+        // without relative quantifiers the second form creates nothing and shares no statistics
+        SummaryPlan absolute = planner.plan(quantifiers.subList(2, 3), qualifiers, summarizers, ROWS,
+                EvaluationMode.IN_MEMORY, true);
+        check("summaries", 59, absolute.summaryCount());
+        check("row passes", 59 * ROWS, absolute.rowPasses());
+
+        checkCosts(planner, quantifiers, qualifiers, summarizers);
+        checkStrategies(options, planner, quantifiers, qualifiers, summarizers);
+
+        options.setMaxSummarizers(0);
+        try {
+            planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.IN_MEMORY, true);
+            throw new IllegalStateException("Planned with no summarizers per summary");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Rejected: " + e.getMessage());
+        }
+        System.out.println("Planner counts, costs and strategies consistent");
+    }
+
+    /**
+     * Costs grow with the rows; fetching rows and calling functions in the database cost more than a pass in memory,
+     * and sampling is planned as a pass in memory. Memory does not depend on the mode.
+     */
+    private static void checkCosts(SummaryPlanner planner, List<Quantifier> quantifiers, List<Label> qualifiers,
+                                   List<List<Label>> summarizers) {
+        SummaryPlan inMemory = planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.IN_MEMORY, true);
+        SummaryPlan sampled = planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.SAMPLED, true);
+        SummaryPlan pushdown = planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.SUPPORT_PUSHDOWN, true);
+        SummaryPlan inDatabase = planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.IN_DATABASE, true);
+        SummaryPlan doubled = planner.plan(quantifiers, qualifiers, summarizers, 2 * ROWS, EvaluationMode.IN_MEMORY, true);
+
+        check("sampled CPU", inMemory.cpuNanos(), sampled.cpuNanos());
+        check("doubled CPU", 2 * inMemory.cpuNanos(), doubled.cpuNanos());
+        if (!(inMemory.cpuNanos() < pushdown.cpuNanos() && pushdown.cpuNanos() < inDatabase.cpuNanos())) {
+            throw new IllegalStateException("Expected in memory < pushdown < in database, got %s, %s, %s".formatted(
+                    inMemory.cpuNanos(), pushdown.cpuNanos(), inDatabase.cpuNanos()));
+        }
+        check("memory", inMemory.memoryBytes(), inDatabase.memoryBytes());
+        check("memory", inMemory.memoryBytes(), doubled.memoryBytes());
+    }
+
+    private static void checkStrategies(GenerationOptions options, SummaryPlanner planner, List<Quantifier> quantifiers,
+                                        List<Label> qualifiers, List<List<Label>> summarizers) {
+        long summaries = planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.IN_MEMORY, true)
+                .summaryCount();
+        long memory = planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.IN_MEMORY, true)
+                .memoryBytes();
+
+        options.setSummaryBudget(summaries);
+        check("at the budget", GenerationStrategy.EXHAUSTIVE, strategy(planner, quantifiers, qualifiers, summarizers, true));
+
+        options.setStrategy(GenerationStrategy.TOP_K);
+        check("set within the budget", GenerationStrategy.TOP_K,
+                strategy(planner, quantifiers, qualifiers, summarizers, true));
+        options.setStrategy(null);
+
+        options.setSummaryBudget(summaries - 1);
+        for (GenerationStrategy overBudget : List.of(GenerationStrategy.TOP_K, GenerationStrategy.SAMPLED)) {
+            options.setOverBudgetStrategy(overBudget);
+            check("over the budget", overBudget, strategy(planner, quantifiers, qualifiers, summarizers, true));
+        }
+        options.setOverBudgetStrategy(GenerationStrategy.STREAMING);
+        check("streamed", GenerationStrategy.STREAMING, strategy(planner, quantifiers, qualifiers, summarizers, false));
+        check("streamed but kept", GenerationStrategy.TOP_K, strategy(planner, quantifiers, qualifiers, summarizers, true));
+
+        options.setSummaryBudget(Long.MAX_VALUE);
+        options.setMemoryBudget(memory - 1);
+        check("over the memory budget", GenerationStrategy.STREAMING,
+                strategy(planner, quantifiers, qualifiers, summarizers, false));
+        options.setMemoryBudget(Long.MAX_VALUE);
+
+        // 60 lists of 100 labels overflow every count, which must be planned as over any budget
+        List<List<Label>> huge = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            huge.add(labels("lot", 100));
+        }
+        options.setMaxSummarizers(60);
+        options.setSummaryBudget(Long.MAX_VALUE - 1);
+        SummaryPlan overflow = planner.plan(quantifiers, List.of(), huge, ROWS, EvaluationMode.IN_MEMORY, false);
+        check("overflowing summaries", Long.MAX_VALUE, overflow.summaryCount());
+        check("overflowing CPU", Long.MAX_VALUE, overflow.cpuNanos());
+        check("overflowing strategy", GenerationStrategy.STREAMING, overflow.strategy());
+
+        options.setMaxSummarizers(3);
+        options.setSummaryBudget(new GenerationOptions().getSummaryBudget());
+        options.setOverBudgetStrategy(GenerationStrategy.TOP_K);
+    }
+
+    private static GenerationStrategy strategy(SummaryPlanner planner, List<Quantifier> quantifiers,
+                                               List<Label> qualifiers, List<List<Label>> summarizers,
+                                               boolean accumulated) {
+        return planner.plan(quantifiers, qualifiers, summarizers, ROWS, EvaluationMode.IN_MEMORY, accumulated).strategy();
+    }
+
+    /**
+     * Summaries counted by enumerating the combinations, as the machine generates them.
+     */
+    private static long bruteForceCount(List<Quantifier> quantifiers, List<Label> qualifiers,
+                                        List<List<Label>> summarizers, int maxLength) {
+        List<List<Label>> combinations = SetOperations.getCrossListCombinations(summarizers, maxLength);
+        long relative = quantifiers.stream().filter(q -> q.type() != QuantifierType.ABSOLUTE).count();
+        long count = (long) quantifiers.size() * combinations.size();
+        for (Label qualifier : qualifiers) {
+            count += relative * combinations.stream().filter(combination -> !combination.contains(qualifier)).count();
+        }
+        return count;
+    }
+
+    private static void check(String what, long expected, long actual) {
+        check(what, (Object) expected, actual);
+    }
+
+    private static void check(String what, Object expected, Object actual) {
+        if (!expected.equals(actual)) {
+            throw new IllegalStateException("%s: expected %s, got %s".formatted(what, expected, actual));
+        }
+        System.out.println(what + ": " + actual);
+    }
+
+    private static List<Label> labels(String attribute, int count) {
+        List<Label> labels = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            labels.add(new Label(attribute + i, new FuzzySet<>(new ContinousUniverse(0, count, 1),
+                    new TriangularFunction(i - 1.0, i, i + 1.0)), attribute));
+        }
+        return labels;
+    }
+
+    private static Quantifier quantifier(String name, QuantifierType type) {
+        return new Quantifier(name, type, new FuzzySet<>(new ContinousUniverse(0, 1, 0.01),
+                new TrapezoidalFunction(0.2, 0.4, 0.6, 0.8)));
+    }
+}
@@ -0,0 +1,105 @@
+package pl.frot.model;
+
+import pl.frot.data.PropertyColumns;
+import pl.frot.fuzzy.base.*;
+import pl.frot.fuzzy.summaries.Label;
+import pl.frot.fuzzy.summaries.Quantifier;
+import pl.frot.fuzzy.summaries.QuantifierType;
+import pl.frot.fuzzy.summaries.SingleSubjectSummary;
+import pl.frot.utils.SetOperations;
+
+import java.util.*;
+
+import static pl.frot.model.SummaryFixtures.label;
+import static pl.frot.model.SummaryFixtures.randomProperties;
+
+/**
+ * Branch and bound must return exactly the head of the exhaustive list sorted by the measure.
+ */
+class TopKSummarizerTest {
+
+    public static void main(String[] args) {
+        PropertyColumns columns = PropertyColumns.fromProperties(randomProperties(3000, 7));
+
+        List<List<Label>> summarizers = List.of(
+                List.of(label("mała", columns, "lot", new TrapezoidalFunction(0, 0, 3000, 6000), 10),
+                        label("średnia", columns, "lot", new TriangularFunction(3000, 8000, 13000), 10),
+                        label("duża", columns, "lot", new TrapezoidalFunction(10000, 15000, 21000, 21000), 10)),
+                List.of(label("tania", columns, "soldPrice", new TrapezoidalFunction(0, 0, 3e5, 6e5), 10),
+                        label("droga", columns, "soldPrice", new GaussianFunction(1.2e6, 2e5), 10)),
+                List.of(label("stara", columns, "yearBuilt", new TrapezoidalFunction(1900, 1900, 1930, 1960), 10),
+                        label("powojenna", columns, "yearBuilt", new GaussianFunction(1950, 10), 10),
+                        label("nowa", columns, "yearBuilt", new TriangularFunction(1980, 2020, 2020), 10)));
+        List<Label> qualifiers = List.of(summarizers.get(0).get(1), summarizers.get(2).get(0));
+
+        List<Quantifier> quantifiers = List.of(
+                new Quantifier("niewiele", QuantifierType.RELATIVE, new FuzzySet<>(
+                        new ContinousUniverse(0, 1, 0.01), new TrapezoidalFunction(0, 0, 0.1, 0.3))),
+                new Quantifier("około połowy", QuantifierType.RELATIVE, new FuzzySet<>(
+                        new ContinousUniverse(0, 1, 0.01), new TriangularFunction(0.3, 0.5, 0.7))),
+                new Quantifier("około 500", QuantifierType.ABSOLUTE, new FuzzySet<>(
+                        new ContinousUniverse(0, 3000, 1), new TrapezoidalFunction(200, 400, 600, 800))));
+
+        LabelMembershipCache memberships = new LabelMembershipCache(columns);
+        List<Label> labels = new ArrayList<>(summarizers.stream().flatMap(List::stream).toList());
+        memberships.build(labels);
+
+        List<List<Label>> combinations = SetOperations.getCrossListCombinations(summarizers, 3);
+        List<SingleSubjectSummary> all = exhaustive(quantifiers, qualifiers, combinations, memberships);
+
+        for (String measure : TopKSummarizer.MEASURES) {
+            for (int k : new int[]{1, 5, 20, all.size() + 1}) {
+                List<SingleSubjectSummary> expected = all.stream()
+                        .sorted(Comparator.comparingDouble((SingleSubjectSummary s) -> s.getMeasure(measure)).reversed())
+                        .limit(k)
+                        .toList();
+                List<SingleSubjectSummary> actual = new TopKSummarizer(memberships, k, measure)
+                        .search(quantifiers, qualifiers, combinations);
+                check(measure, k, expected, actual);
+            }
+        }
+        System.out.println("Top-K search consistent with exhaustive ranking of " + all.size() + " summaries");
+    }
+
+    private static void check(String measure, int k, List<SingleSubjectSummary> expected, List<SingleSubjectSummary> actual) {
+        if (expected.size() != actual.size()) {
+            throw new IllegalStateException("%s top-%d: expected %d summaries, got %d"
+                    .formatted(measure, k, expected.size(), actual.size()));
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            SingleSubjectSummary e = expected.get(i);
+            SingleSubjectSummary a = actual.get(i);
+            if (!e.toString().equals(a.toString()) || e.getMeasure(measure) != a.getMeasure(measure)) {
+                throw new IllegalStateException("%s top-%d at %d: expected %s (%f), got %s (%f)"
+                        .formatted(measure, k, i, e, e.getMeasure(measure), a, a.getMeasure(measure)));
+            }
+        }
+        System.out.println(measure + " top-" + k + ": " + (actual.isEmpty() ? "-" : actual.getFirst()));
+    }
+
+    /**
+     * Same order as {@link SummaryMachine#createSingleSubjectSummaries}.
+     */
+    private static List<SingleSubjectSummary> exhaustive(List<Quantifier> quantifiers, List<Label> qualifiers,
+                                                         List<List<Label>> combinations, LabelMembershipCache memberships) {
+        List<SingleSubjectSummary> summaries = new ArrayList<>();
+        for (Quantifier quantifier : quantifiers) {
+            for (List<Label> combination : combinations) {
+                summaries.add(new SingleSubjectSummary(quantifier, null, combination, memberships));
+            }
+        }
+        for (Quantifier quantifier : quantifiers) {
+            if (quantifier.type() == QuantifierType.ABSOLUTE) {
+                continue;
+            }
+            for (Label qualifier : qualifiers) {
+                for (List<Label> combination : combinations) {
+                    if (!combination.contains(qualifier)) {
+                        summaries.add(new SingleSubjectSummary(quantifier, qualifier, combination, memberships));
+                    }
+                }
+            }
+        }
+        return summaries;
+    }
+}
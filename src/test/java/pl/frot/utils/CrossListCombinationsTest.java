@@ -0,0 +1,77 @@
+package pl.frot.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The packed generator must reproduce the order of the materialized cross-list combinations,
+ * and rank must invert unrank, also when the stream is consumed in parallel.
+ */
+class CrossListCombinationsTest {
+    public static void main(String[] args) {
+        List<List<String>> lists = new ArrayList<>();
+        int[] sizes = {3, 1, 4, 0, 2, 5};
+        for (int list = 0; list < sizes.length; list++) {
+            List<String> elements = new ArrayList<>();
+            for (int element = 0; element < sizes[list]; element++) {
+                elements.add(list + ":" + element);
+            }
+            lists.add(elements);
+        }
+
+        for (int maxLength = 0; maxLength <= sizes.length + 1; maxLength++) {
+            List<List<String>> expected = materialize(lists, maxLength);
+            CrossListCombinations<String> combinations = SetOperations.crossListCombinations(lists, maxLength);
+            if (combinations.size() != expected.size()) {
+                throw new IllegalStateException("maxLength %d: expected %d combinations, got %d"
+                        .formatted(maxLength, expected.size(), combinations.size()));
+            }
+
+            for (int rank = 0; rank < expected.size(); rank++) {
+                long packed = combinations.unrank(rank);
+                if (!combinations.decode(packed).equals(expected.get(rank)) || combinations.rank(packed) != rank) {
+                    throw new IllegalStateException("maxLength %d, rank %d: expected %s, got %s"
+                            .formatted(maxLength, rank, expected.get(rank), combinations.decode(packed)));
+                }
+            }
+
+            List<List<String>> sequential = combinations.stream(false)
+                    .mapToObj(combinations::decode)
+                    .collect(Collectors.toList());
+            List<List<String>> parallel = combinations.stream(true)
+                    .mapToObj(combinations::decode)
+                    .collect(Collectors.toList());
+            if (!sequential.equals(expected) || !parallel.equals(expected)
+                    || !SetOperations.getCrossListCombinations(lists, maxLength).equals(expected)) {
+                throw new IllegalStateException("maxLength " + maxLength + ": stream order differs");
+            }
+        }
+        System.out.println("Packed combinations consistent with materialized ones");
+    }
+
+    /**
+     * Reference order: list-index combinations of growing size, each expanded as a cartesian product.
+     */
+    private static List<List<String>> materialize(List<List<String>> lists, int maxLength) {
+        List<List<String>> all = new ArrayList<>();
+        for (int length = 1; length <= Math.min(maxLength, lists.size()); length++) {
+            for (List<Integer> indices : SetOperations.getCombinations(range(lists.size()), length)) {
+                List<List<String>> selected = new ArrayList<>();
+                for (int index : indices) {
+                    selected.add(lists.get(index));
+                }
+                all.addAll(SetOperations.cartesianProduct(selected));
+            }
+        }
+        return all;
+    }
+
+    private static List<Integer> range(int n) {
+        List<Integer> range = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+}